@@ -2,7 +2,8 @@ package hu.vissy.texttable;
 
 import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+
+import hu.vissy.texttable.contentformatter.CellStyle;
 
 /**
  * Border formatter configuration
@@ -48,6 +49,24 @@ import java.util.stream.Collectors;
  */
 public class BorderFormatter {
 
+    /**
+     * Writes the data of the cells of a row directly into the row buffer.
+     *
+     * @author Balage
+     *
+     */
+    @FunctionalInterface
+    public interface CellWriter {
+        /**
+         * Appends the data of a cell to the buffer.
+         *
+         * @param sb
+         *            The buffer to append the cell data to.
+         * @param columnIndex
+         *            The index of the column.
+         */
+        void writeCell(StringBuilder sb, int columnIndex);
+    }
 
     /**
      * The configuration of the line.
@@ -827,8 +846,10 @@ public class BorderFormatter {
     }
 
 
-    private String repeate(char c, int w) {
-        return new String(new byte[w]).replace('\0', c);
+    private static void repeate(StringBuilder sb, char c, int w) {
+        for (int i = 0; i < w; i++) {
+            sb.append(c);
+        }
     }
 
 
@@ -842,9 +863,37 @@ public class BorderFormatter {
      *         the heading and the edges).
      */
     public int calculateOneColumnWidth(List<Integer> widths) {
-        return widths.stream().mapToInt(i -> i).sum() +
-                (widths.size() - 1) * (leftPaddingWidth + rightPaddingWidth) +
-                (drawVerticalSeparator ? widths.size() - 1 : 0);
+        return calculateOneColumnWidth(widths.stream().mapToInt(i -> i).toArray());
+    }
+
+    /**
+     * Calculates the width of the heading (which spans through all the
+     * columns).
+     *
+     * @param widths
+     *            The column widths.
+     * @return The body width of the heading column (excluding the padding of
+     *         the heading and the edges).
+     */
+    public int calculateOneColumnWidth(int[] widths) {
+        int sum = 0;
+        for (int w : widths) {
+            sum += w;
+        }
+        return sum +
+                (widths.length - 1) * (leftPaddingWidth + rightPaddingWidth) +
+                (drawVerticalSeparator ? widths.length - 1 : 0);
+    }
+
+    /**
+     * Calculates the total width of the table lines.
+     *
+     * @param widths
+     *            The column widths.
+     * @return The width of the table including the paddings and the edges.
+     */
+    public int calculateTableWidth(int[] widths) {
+        return calculateOneColumnWidth(widths) + leftPaddingWidth + rightPaddingWidth + (drawVerticalEdge ? 2 : 0);
     }
 
     /**
@@ -861,19 +910,45 @@ public class BorderFormatter {
      *         if the line is hidden.
      */
     public String drawLine(List<Integer> widths, LineType lineType, boolean skipInternal) {
+        StringBuilder sb = new StringBuilder();
+        drawLine(sb, widths.stream().mapToInt(i -> i).toArray(), lineType, skipInternal);
+        return sb.toString();
+    }
+
+    /**
+     * Draws a line and appends it to the buffer.
+     *
+     * @param sb
+     *            The buffer to append the line to.
+     * @param widths
+     *            The column widths.
+     * @param lineType
+     *            The type of the line.
+     * @param skipInternal
+     *            If true, the internal junction points for column separators
+     *            are omitted.
+     */
+    public void drawLine(StringBuilder sb, int[] widths, LineType lineType, boolean skipInternal) {
         LineSpec spec = lineSpecifications.get(lineType);
         if (spec.isHidden()) {
-            return "";
+            return;
         }
 
-        return widths.stream().map(w -> {
-            String l = repeate(spec.getPadding(), leftPaddingWidth)
-                    + repeate(spec.getBody(), w)
-                    + repeate(spec.getPadding(), rightPaddingWidth);
-            return l;
-        }).collect(Collectors.joining(drawVerticalSeparator ? "" + (skipInternal ? spec.getBody() : spec.getInternal()) : "",
-                (drawVerticalEdge ? "" + spec.getLeftEdge() : ""),
-                (drawVerticalEdge ? "" + spec.getRightEdge() : ""))) + "\n";
+        if (drawVerticalEdge) {
+            sb.append(spec.getLeftEdge());
+        }
+        for (int i = 0; i < widths.length; i++) {
+            if (i > 0 && drawVerticalSeparator) {
+                sb.append(skipInternal ? spec.getBody() : spec.getInternal());
+            }
+            repeate(sb, spec.getPadding(), leftPaddingWidth);
+            repeate(sb, spec.getBody(), widths[i]);
+            repeate(sb, spec.getPadding(), rightPaddingWidth);
+        }
+        if (drawVerticalEdge) {
+            sb.append(spec.getRightEdge());
+        }
+        sb.append('\n');
     }
 
     /**
@@ -888,19 +963,94 @@ public class BorderFormatter {
      * @return The formatted row (including closing new line).
      */
     public String drawData(List<String> data, RowType rowType) {
-        RowSpec spec = rowSpecifications.get(rowType);
+        StringBuilder sb = new StringBuilder();
+        drawData(sb, data.toArray(new String[data.size()]), rowType);
+        return sb.toString();
+    }
+
+    /**
+     * Draws the a row and appends it to the buffer.
+     *
+     * @param sb
+     *            The buffer to append the row to.
+     * @param data
+     *            The date to populate the columns with. <i>The width of each
+     *            the column data is assumed to be equal to the width of the
+     *            corresponding column.</i>
+     * @param rowType
+     *            The type of the row.
+     */
+    public void drawData(StringBuilder sb, String[] data, RowType rowType) {
+        drawData(sb, data, null, rowType);
+    }
+
+    /**
+     * Draws the a row with styled cells and appends it to the buffer.
+     * <p>
+     * The escape sequences of the styles are emitted around the cell data,
+     * the paddings and the borders are not styled.
+     * </p>
+     *
+     * @param sb
+     *            The buffer to append the row to.
+     * @param data
+     *            The date to populate the columns with. <i>The width of each
+     *            the column data is assumed to be equal to the width of the
+     *            corresponding column.</i>
+     * @param styles
+     *            The styles of the cells (the array or its elements may be
+     *            null for no style).
+     * @param rowType
+     *            The type of the row.
+     */
+    public void drawData(StringBuilder sb, String[] data, CellStyle[] styles, RowType rowType) {
+        drawData(sb, data.length, (b, i) -> b.append(data[i]), styles, rowType);
+    }
 
-        return data.stream().map(w -> {
-            String l = repeate(spec.getPadding(), leftPaddingWidth)
-                    + w
-                    + repeate(spec.getPadding(), rightPaddingWidth);
-            return l;
-        }).collect(Collectors.joining(drawVerticalSeparator ? "" + spec.getInternal() : "",
-                (drawVerticalEdge ? "" + spec.getLeftEdge() : ""),
-                (drawVerticalEdge ? "" + spec.getRightEdge() : ""))) + "\n";
+    /**
+     * Draws the a row and appends it to the buffer, letting the cell writer
+     * write the cell data directly into the buffer.
+     *
+     * @param sb
+     *            The buffer to append the row to.
+     * @param columnCount
+     *            The number of the columns.
+     * @param cellWriter
+     *            The writer of the cell data. <i>The width of the written data
+     *            is assumed to be equal to the width of the corresponding
+     *            column.</i>
+     * @param styles
+     *            The styles of the cells (the array or its elements may be
+     *            null for no style).
+     * @param rowType
+     *            The type of the row.
+     */
+    public void drawData(StringBuilder sb, int columnCount, CellWriter cellWriter, CellStyle[] styles, RowType rowType) {
+        RowSpec spec = rowSpecifications.get(rowType);
 
+        if (drawVerticalEdge) {
+            sb.append(spec.getLeftEdge());
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0 && drawVerticalSeparator) {
+                sb.append(spec.getInternal());
+            }
+            repeate(sb, spec.getPadding(), leftPaddingWidth);
+            CellStyle style = styles == null ? null : styles[i];
+            if (style == null) {
+                cellWriter.writeCell(sb, i);
+            } else {
+                sb.append(style.getStartSequence());
+                cellWriter.writeCell(sb, i);
+                sb.append(style.getEndSequence());
+            }
+            repeate(sb, spec.getPadding(), rightPaddingWidth);
+        }
+        if (drawVerticalEdge) {
+            sb.append(spec.getRightEdge());
+        }
+        sb.append('\n');
     }
 
 
 }
-
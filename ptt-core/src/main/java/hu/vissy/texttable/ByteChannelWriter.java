@@ -0,0 +1,130 @@
+package hu.vissy.texttable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Encodes character sequences directly into a pooled direct buffer and writes
+ * the buffer to a channel whenever it gets full.
+ *
+ * <p>
+ * The characters are encoded from the (reused) row buffer of the renderer, so
+ * the output never exists as one large string on the heap.
+ * </p>
+ *
+ * <p>
+ * The writer expects a blocking channel: it keeps writing until the buffer is
+ * drained. The channel is not closed by the writer.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class ByteChannelWriter {
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final DirectBufferPool pool;
+    private ByteBuffer buffer;
+    private long bytesWritten = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param channel
+     *            The channel to write to.
+     * @param charset
+     *            The charset used to encode the characters.
+     * @param pool
+     *            The pool to acquire the buffer from.
+     */
+    ByteChannelWriter(WritableByteChannel channel, Charset charset, DirectBufferPool pool) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.pool = pool;
+        this.buffer = pool.acquire();
+    }
+
+    /**
+     * Encodes the characters into the buffer. Full buffers are written to the
+     * channel.
+     *
+     * <p>
+     * The sequence should not end with a high surrogate, because the encoder
+     * is not able to keep the half of the character pair between calls.
+     * </p>
+     *
+     * @param chars
+     *            The characters to write.
+     * @throws IOException
+     *             When the channel fails.
+     */
+    void write(CharSequence chars) throws IOException {
+        encode(CharBuffer.wrap(chars), false);
+    }
+
+    /**
+     * Finishes the encoding, writes out the remaining bytes and gives back the
+     * buffer to the pool.
+     *
+     * @throws IOException
+     *             When the channel fails.
+     */
+    void finish() throws IOException {
+        try {
+            encode(CharBuffer.allocate(0), true);
+            while (encoder.flush(buffer).isOverflow()) {
+                drain();
+            }
+            drain();
+        } finally {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Gives back the buffer to the pool without writing out the remaining
+     * bytes. Used when the output is abandoned.
+     */
+    void abort() {
+        pool.release(buffer);
+        buffer = null;
+    }
+
+    /**
+     * @return The number of bytes written to the channel so far.
+     */
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(in, buffer, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,243 @@
+package hu.vissy.texttable;
+
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+import hu.vissy.texttable.contentformatter.CellStyle;
+import hu.vissy.texttable.dataconverter.DataConverter;
+import hu.vissy.texttable.dataextractor.DataExtractor;
+import hu.vissy.texttable.dataextractor.LookaheadDataExtractor;
+
+/**
+ * The compiled form of a column definition.
+ *
+ * <p>
+ * The column definition is built for configuration: each cell would go
+ * through its getters before reaching the data extractor and the converter.
+ * The pipeline is created once, when the formatter is built, and keeps direct
+ * references to the data extractor, the converter and the cell formatter of
+ * one column, so the per-cell work is a short, fixed chain of calls. The
+ * converted header text and the aggregate row constants are also resolved
+ * here once.
+ * </p>
+ * <p>
+ * The values are extracted through
+ * {@linkplain DataExtractor#extractRowData(Object, Object)} and
+ * {@linkplain DataExtractor#extractAggregateData(Object, Object)}, so the
+ * data extractors overriding them work the same way as with
+ * {@linkplain ColumnDefinition#getRowData(Object, Object)}.
+ * </p>
+ *
+ * <p>
+ * This class is imutable.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ * @param <S>
+ *            The type of the state class.
+ * @param <T>
+ *            The type of the cell value.
+ */
+final class ColumnPipeline<D, S, T> {
+
+    private final ColumnDefinition<D, S, T> definition;
+    private final DataExtractor<D, S, T> dataExtractor;
+    private final BinaryOperator<S> combiner;
+    private final DataConverter<T> dataConverter;
+    private final CellContentFormatter cellContentFormatter;
+    private final Map<Object, String> aggregateRowConstants;
+    private final String headerText;
+    private final int lookahead;
+    private final Function<T, CellStyle> cellStyler;
+
+    /**
+     * Constructor.
+     *
+     * @param definition
+     *            The column definition to compile.
+     * @param headerConverter
+     *            The converter of the column title.
+     */
+    ColumnPipeline(ColumnDefinition<D, S, T> definition, DataConverter<String> headerConverter) {
+        this.definition = definition;
+        this.dataExtractor = definition.getDataExtractor();
+        this.combiner = dataExtractor.getCombiner();
+        this.dataConverter = definition.getDataConverter();
+        this.cellContentFormatter = definition.getCellContentFormatter();
+        this.aggregateRowConstants = definition.getAggregateRowConstants();
+        this.headerText = headerConverter.convert(definition.getTitle());
+        this.cellStyler = definition.getCellStyler();
+        this.lookahead = dataExtractor instanceof LookaheadDataExtractor
+                ? ((LookaheadDataExtractor<?, ?>) dataExtractor).getLookahead()
+                : 0;
+    }
+
+    /**
+     * @return The column definition the pipeline was compiled from.
+     */
+    ColumnDefinition<D, S, T> getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return A newly initialized state object.
+     */
+    Object initializeState() {
+        return dataExtractor.getStateInitializer().get();
+    }
+
+    /**
+     * @return Whether the partial states of the column can be merged.
+     */
+    boolean isMergeable() {
+        return combiner != null;
+    }
+
+    /**
+     * @return The number of data rows the cells of the column are delayed, 0
+     *         if the value belongs to the own row.
+     */
+    int getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * Merges two partial states.
+     *
+     * @param first
+     *            The state of the earlier records.
+     * @param second
+     *            The state of the later records.
+     * @return The merged state.
+     */
+    @SuppressWarnings("unchecked")
+    Object combineStates(Object first, Object second) {
+        return combiner.apply((S) first, (S) second);
+    }
+
+    /**
+     * Extracts the cell value from a record.
+     *
+     * @param d
+     *            The record.
+     * @param state
+     *            The state object.
+     * @return The extracted value.
+     */
+    @SuppressWarnings("unchecked")
+    T extract(D d, Object state) {
+        return dataExtractor.extractRowData(d, (S) state);
+    }
+
+    /**
+     * Converts an extracted value to string.
+     *
+     * @param value
+     *            The extracted value.
+     * @return The converted value.
+     */
+    @SuppressWarnings("unchecked")
+    String convert(Object value) {
+        return dataConverter.convert((T) value);
+    }
+
+    /**
+     * @return Whether the data cells of the column have styles.
+     */
+    boolean isStyled() {
+        return cellStyler != null;
+    }
+
+    /**
+     * Chooses the style of a data cell.
+     *
+     * @param value
+     *            The extracted value.
+     * @return The style or null.
+     */
+    @SuppressWarnings("unchecked")
+    CellStyle style(Object value) {
+        return cellStyler.apply((T) value);
+    }
+
+    /**
+     * Extracts and converts the cell value of a record.
+     *
+     * @param d
+     *            The record.
+     * @param state
+     *            The state object.
+     * @return The converted value.
+     */
+    String rowData(D d, Object state) {
+        return dataConverter.convert(extract(d, state));
+    }
+
+    /**
+     * Extracts the aggregated value for an aggregator row.
+     * <p>
+     * The aggregate extractor is called even when there is a constant for the
+     * key, because extractors may update their state in this call.
+     * </p>
+     *
+     * @param key
+     *            The key of the aggregator row.
+     * @param state
+     *            The state object.
+     * @return The aggregated value.
+     */
+    @SuppressWarnings("unchecked")
+    T extractAggregate(Object key, Object state) {
+        return dataExtractor.extractAggregateData(key, (S) state);
+    }
+
+    /**
+     * Converts the aggregated value of an aggregator row.
+     *
+     * @param key
+     *            The key of the aggregator row.
+     * @param value
+     *            The aggregated value.
+     * @return The constant assigned to the key or the converted aggregated
+     *         value.
+     */
+    String convertAggregate(Object key, Object value) {
+        String converted = convert(value);
+        String constant = aggregateRowConstants.get(key);
+        return constant != null ? constant : converted;
+    }
+
+    /**
+     * Calculates the value of the column in an aggregator row.
+     *
+     * @param key
+     *            The key of the aggregator row.
+     * @param state
+     *            The state object.
+     * @return The constant assigned to the key or the converted aggregated
+     *         value.
+     */
+    String aggregateData(Object key, Object state) {
+        return convertAggregate(key, extractAggregate(key, state));
+    }
+
+    /**
+     * @return The cell content formatter of the column.
+     */
+    CellContentFormatter getCellContentFormatter() {
+        return cellContentFormatter;
+    }
+
+    /**
+     * @return The title converted by the header converter.
+     */
+    String getHeaderText() {
+        return headerText;
+    }
+}
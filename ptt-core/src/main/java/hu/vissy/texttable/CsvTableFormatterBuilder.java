@@ -584,7 +584,7 @@ public class CsvTableFormatterBuilder<D> {
         converterMapping.put(CsvColumnType.TIME, csvTimeDataConverter);
         converterMapping.put(CsvColumnType.DATETIME, csvDateTimeDataConverter);
 
-        TableFormatter.Builder<D> builder = new TableFormatter.Builder<>();
+        TableFormatter.Builder<D> builder = new TableFormatter.Builder<D>().withCsvExport();
 
         if (headerLine) {
             builder.withHeaderConverter(new CsvStringDataConverter<String>());
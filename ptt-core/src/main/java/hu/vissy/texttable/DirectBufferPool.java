@@ -0,0 +1,90 @@
+package hu.vissy.texttable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A small pool of direct byte buffers used when rendering tables into
+ * channels.
+ *
+ * <p>
+ * Allocating direct buffers is expensive, so the buffers are kept and reused
+ * between renders. The pool never holds more than the configured number of
+ * idle buffers; the surplus released buffers are left to the garbage
+ * collector.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class DirectBufferPool {
+
+    /**
+     * The pool shared by all table formatters.
+     */
+    static final DirectBufferPool SHARED = new DirectBufferPool(8192, 8);
+
+    private final int bufferSize;
+    private final int maxIdleBuffers;
+    private final Deque<ByteBuffer> idle = new ArrayDeque<>();
+
+    /**
+     * Constructor.
+     *
+     * @param bufferSize
+     *            The capacity of each buffer in bytes.
+     * @param maxIdleBuffers
+     *            The maximum number of buffers kept for reuse.
+     */
+    DirectBufferPool(int bufferSize, int maxIdleBuffers) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Buffer size should be at least 16 bytes: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.maxIdleBuffers = maxIdleBuffers;
+    }
+
+    /**
+     * @return A cleared buffer, either a reused or a newly allocated one.
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer;
+        synchronized (idle) {
+            buffer = idle.pollFirst();
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Gives back a buffer to the pool.
+     *
+     * @param buffer
+     *            The buffer acquired from this pool.
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize) {
+            return;
+        }
+        synchronized (idle) {
+            if (idle.size() < maxIdleBuffers) {
+                idle.addFirst(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return The capacity of the buffers in bytes.
+     */
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,75 @@
+package hu.vissy.texttable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Filters the data records.
+ *
+ * <p>
+ * The records not matching the predicate are either dropped or replaced by a
+ * {@linkplain RejectedRow}, so they are still aggregated, but no table row is
+ * created and converted for them. The rows are streamed.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+final class FilterStage<D> implements Iterable<InputRow<D>> {
+
+    private final Iterable<InputRow<D>> input;
+    private final Predicate<? super D> filter;
+    private final boolean aggregateRejected;
+
+    /**
+     * Constructor.
+     *
+     * @param input
+     *            The input rows.
+     * @param filter
+     *            The predicate of the shown records.
+     * @param aggregateRejected
+     *            Whether to emit the rejected records for aggregation.
+     */
+    FilterStage(Iterable<InputRow<D>> input, Predicate<? super D> filter, boolean aggregateRejected) {
+        this.input = input;
+        this.filter = filter;
+        this.aggregateRejected = aggregateRejected;
+    }
+
+    @Override
+    public Iterator<InputRow<D>> iterator() {
+        return new FilterIterator();
+    }
+
+    private final class FilterIterator implements Iterator<InputRow<D>> {
+        private final Iterator<InputRow<D>> source = input.iterator();
+        private InputRow<D> next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && source.hasNext()) {
+                InputRow<D> row = source.next();
+                if (!(row instanceof DataRow) || filter.test(((DataRow<D>) row).getData())) {
+                    next = row;
+                } else if (aggregateRejected) {
+                    next = new RejectedRow<>(((DataRow<D>) row).getData());
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public InputRow<D> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            InputRow<D> row = next;
+            next = null;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package hu.vissy.texttable;
+
+/**
+ * An aggregator row closing a group, emitted by the group-by stage.
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+final class GroupAggregatorRow<D> extends AggregatorRow<D> {
+
+    private final int level;
+
+    /**
+     * Constructor.
+     *
+     * @param key
+     *            The aggregation key of the level.
+     * @param level
+     *            The level of the group (1 is the outermost).
+     */
+    GroupAggregatorRow(Object key, int level) {
+        super(key);
+        this.level = level;
+    }
+
+    /**
+     * @return The level of the group (1 is the outermost).
+     */
+    int getLevel() {
+        return level;
+    }
+}
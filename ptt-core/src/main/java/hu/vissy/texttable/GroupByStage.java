@@ -0,0 +1,117 @@
+package hu.vissy.texttable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Inserts the subtotal rows into sorted input.
+ *
+ * <p>
+ * The stage wraps the input rows and emits a {@linkplain GroupAggregatorRow}
+ * for each level whose group key changes, innermost level first, right
+ * before the first record of the new group. An explicit aggregator row and
+ * the end of the input close all the open groups. The rows are streamed, only
+ * the current keys are kept.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+final class GroupByStage<D> implements Iterable<InputRow<D>> {
+
+    private final Iterable<InputRow<D>> input;
+    private final List<Function<D, ?>> keyExtractors;
+    private final List<Object> aggregatorKeys;
+
+    /**
+     * Constructor.
+     *
+     * @param input
+     *            The input rows (sorted by the group keys).
+     * @param keyExtractors
+     *            The key extractors of the levels, outermost first.
+     * @param aggregatorKeys
+     *            The aggregator keys of the levels, outermost first.
+     */
+    GroupByStage(Iterable<InputRow<D>> input, List<Function<D, ?>> keyExtractors, List<Object> aggregatorKeys) {
+        this.input = input;
+        this.keyExtractors = keyExtractors;
+        this.aggregatorKeys = aggregatorKeys;
+    }
+
+    @Override
+    public Iterator<InputRow<D>> iterator() {
+        return new GroupIterator();
+    }
+
+    private final class GroupIterator implements Iterator<InputRow<D>> {
+        private final Iterator<InputRow<D>> source = input.iterator();
+        private final ArrayDeque<InputRow<D>> pending = new ArrayDeque<>();
+        private final Object[] keys = new Object[keyExtractors.size()];
+        private boolean open = false;
+
+        @Override
+        public boolean hasNext() {
+            if (pending.isEmpty()) {
+                fill();
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public InputRow<D> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        private void fill() {
+            if (!source.hasNext()) {
+                close(0);
+                return;
+            }
+            InputRow<D> row = source.next();
+            if (row instanceof DataRow) {
+                D d = ((DataRow<D>) row).getData();
+                int changed = open ? keys.length : 0;
+                for (int level = 0; level < keys.length; level++) {
+                    Object key = keyExtractors.get(level).apply(d);
+                    if (changed == keys.length && !Objects.equals(key, keys[level])) {
+                        changed = level;
+                    }
+                    keys[level] = key;
+                }
+                close(changed);
+                open = true;
+            } else if (row instanceof AggregatorRow) {
+                close(0);
+            }
+            pending.add(row);
+        }
+
+        /**
+         * Closes the open groups from the innermost level to the given one.
+         *
+         * @param level
+         *            The outermost level to close (0 based).
+         */
+        private void close(int level) {
+            if (!open) {
+                return;
+            }
+            for (int l = keys.length - 1; l >= level; l--) {
+                pending.add(new GroupAggregatorRow<>(aggregatorKeys.get(l), l + 1));
+            }
+            if (level == 0) {
+                open = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hu.vissy.texttable;
+
+/**
+ * The order of the groups when the input is grouped by hashing.
+ *
+ * @author Balage
+ *
+ * @see TableFormatter.Builder#withHashGrouping(GroupOrder)
+ */
+public enum GroupOrder {
+    /**
+     * The groups follow the order of their first records.
+     */
+    FIRST_SEEN,
+    /**
+     * The groups are ordered by the natural order of their keys (nulls
+     * first). The keys should be {@linkplain Comparable}.
+     */
+    KEY;
+}
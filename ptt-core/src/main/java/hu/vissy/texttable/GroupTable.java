@@ -0,0 +1,113 @@
+package hu.vissy.texttable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An open-addressing hash table assigning ordinals to (parent ordinal, key)
+ * pairs in the order they are first seen.
+ *
+ * <p>
+ * The table is used by the hash grouping to identify the groups of one level:
+ * the parent is the ordinal of the enclosing group (-1 on the outermost
+ * level). The entries are stored in parallel arrays and the slots are probed
+ * linearly, so no object is created per lookup or per entry.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class GroupTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY / 2];
+    private int[] hashes = new int[INITIAL_CAPACITY / 2];
+    private Object[] keys = new Object[INITIAL_CAPACITY / 2];
+    private int size = 0;
+
+    private static int hash(int parent, Object key) {
+        int h = Objects.hashCode(key) * 31 + parent;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the ordinal of the pair, adding it if it isn't in the table
+     * yet.
+     *
+     * @param parent
+     *            The ordinal of the enclosing group or -1.
+     * @param key
+     *            The group key.
+     * @return The ordinal of the group.
+     */
+    int ordinalOf(int parent, Object key) {
+        int h = hash(parent, key);
+        int mask = slots.length - 1;
+        for (int i = h & mask;; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == 0) {
+                return insert(i, h, parent, key);
+            }
+            int ordinal = slot - 1;
+            if (hashes[ordinal] == h && parents[ordinal] == parent && Objects.equals(keys[ordinal], key)) {
+                return ordinal;
+            }
+        }
+    }
+
+    private int insert(int slotIndex, int h, int parent, Object key) {
+        int ordinal = size++;
+        if (ordinal == keys.length) {
+            parents = Arrays.copyOf(parents, ordinal * 2);
+            hashes = Arrays.copyOf(hashes, ordinal * 2);
+            keys = Arrays.copyOf(keys, ordinal * 2);
+        }
+        parents[ordinal] = parent;
+        hashes[ordinal] = h;
+        keys[ordinal] = key;
+        slots[slotIndex] = ordinal + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return ordinal;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int i = hashes[ordinal] & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = ordinal + 1;
+        }
+    }
+
+    /**
+     * @return The number of groups.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param ordinal
+     *            The ordinal of a group.
+     * @return The ordinal of the enclosing group.
+     */
+    int getParent(int ordinal) {
+        return parents[ordinal];
+    }
+
+    /**
+     * @param ordinal
+     *            The ordinal of a group.
+     * @return The key of the group.
+     */
+    Object getKey(int ordinal) {
+        return keys[ordinal];
+    }
+}
@@ -0,0 +1,125 @@
+package hu.vissy.texttable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Makes the records of the same group consecutive in unsorted input, so the
+ * {@linkplain GroupByStage} can insert the subtotal rows.
+ *
+ * <p>
+ * The groups of each level are identified by a {@linkplain GroupTable} (the
+ * group of an inner level is the pair of the ordinal of its enclosing group
+ * and its key). The groups are ranked in first-seen or key order level by
+ * level, and the records are reordered by a stable counting sort on the rank
+ * of their innermost group. The stage keeps only int arrays per record, the
+ * records themselves are not copied.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+final class HashGroupingStage<D> extends SegmentStage<D> {
+
+    private static final Comparator<Object> KEY_ORDER = naturalOrderNullsFirst();
+
+    private final List<Function<D, ?>> keyExtractors;
+    private final GroupOrder order;
+
+    /**
+     * Constructor.
+     *
+     * @param input
+     *            The input rows.
+     * @param keyExtractors
+     *            The key extractors of the levels, outermost first.
+     * @param order
+     *            The order of the groups.
+     */
+    HashGroupingStage(Iterable<InputRow<D>> input, List<Function<D, ?>> keyExtractors, GroupOrder order) {
+        super(input);
+        this.keyExtractors = keyExtractors;
+        this.order = order;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> naturalOrderNullsFirst() {
+        return Comparator.nullsFirst((a, b) -> ((Comparable<Object>) a).compareTo(b));
+    }
+
+    @Override
+    protected Iterator<InputRow<D>> arrange(List<DataRow<D>> segment) {
+        int levels = keyExtractors.size();
+        int n = segment.size();
+        GroupTable[] tables = new GroupTable[levels];
+        int[] innermost = new int[n];
+        for (int level = 0; level < levels; level++) {
+            tables[level] = new GroupTable();
+        }
+        for (int i = 0; i < n; i++) {
+            D d = segment.get(i).getData();
+            int parent = -1;
+            for (int level = 0; level < levels; level++) {
+                parent = tables[level].ordinalOf(parent, keyExtractors.get(level).apply(d));
+            }
+            innermost[i] = parent;
+        }
+
+        // Ranks the groups level by level: by the rank of the parent, then by
+        // the first appearance or by the key
+        int[] parentRanks = null;
+        for (int level = 0; level < levels; level++) {
+            GroupTable table = tables[level];
+            Integer[] ordinals = new Integer[table.size()];
+            for (int o = 0; o < ordinals.length; o++) {
+                ordinals[o] = o;
+            }
+            int[] pr = parentRanks;
+            Comparator<Integer> byParent = Comparator.comparingInt(o -> pr == null ? 0 : pr[table.getParent(o)]);
+            Arrays.sort(ordinals, order == GroupOrder.KEY
+                    ? byParent.thenComparing(o -> table.getKey(o), KEY_ORDER)
+                    : byParent.thenComparingInt(o -> o));
+            int[] ranks = new int[ordinals.length];
+            for (int r = 0; r < ordinals.length; r++) {
+                ranks[ordinals[r]] = r;
+            }
+            parentRanks = ranks;
+        }
+
+        // Stable counting sort by the rank of the innermost group
+        int[] ranks = parentRanks;
+        int[] starts = new int[ranks.length + 1];
+        for (int i = 0; i < n; i++) {
+            starts[ranks[innermost[i]] + 1]++;
+        }
+        for (int r = 0; r < ranks.length; r++) {
+            starts[r + 1] += starts[r];
+        }
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[starts[ranks[innermost[i]]]++] = i;
+        }
+        return new Iterator<InputRow<D>>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < permutation.length;
+            }
+
+            @Override
+            public InputRow<D> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return segment.get(permutation[position++]);
+            }
+        };
+    }
+}
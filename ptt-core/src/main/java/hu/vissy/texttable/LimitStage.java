@@ -0,0 +1,143 @@
+package hu.vissy.texttable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best records of each segment.
+ *
+ * <p>
+ * The records of a segment (between the separator and aggregator rows) are
+ * streamed through a bounded heap holding the best records seen so far, the
+ * worst of them on the top. A record worse than the top, or the top pushed
+ * out by a better record, is either dropped or emitted right away as a
+ * {@linkplain RejectedRow}, so it is still aggregated. At the end of the
+ * segment the kept records are emitted in order. Equal records keep their
+ * input order. The rejected rows of earlier stages are passed through.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+final class LimitStage<D> implements Iterable<InputRow<D>> {
+
+    private final Iterable<InputRow<D>> input;
+    private final int limit;
+    private final Comparator<? super D> comparator;
+    private final boolean aggregateRejected;
+
+    /**
+     * A kept record with its input position.
+     */
+    private static final class Entry<D> {
+        private final DataRow<D> row;
+        private final long sequence;
+
+        Entry(DataRow<D> row, long sequence) {
+            this.row = row;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param input
+     *            The input rows.
+     * @param limit
+     *            The maximum number of records kept per segment.
+     * @param comparator
+     *            The comparator ordering the best records first.
+     * @param aggregateRejected
+     *            Whether to emit the left out records for aggregation.
+     */
+    LimitStage(Iterable<InputRow<D>> input, int limit, Comparator<? super D> comparator, boolean aggregateRejected) {
+        this.input = input;
+        this.limit = limit;
+        this.comparator = comparator;
+        this.aggregateRejected = aggregateRejected;
+    }
+
+    /**
+     * Compares the kept records, the better first.
+     */
+    private int compare(Entry<D> a, Entry<D> b) {
+        int result = comparator.compare(a.row.getData(), b.row.getData());
+        return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+    }
+
+    @Override
+    public Iterator<InputRow<D>> iterator() {
+        return new LimitIterator();
+    }
+
+    private final class LimitIterator implements Iterator<InputRow<D>> {
+        private final Iterator<InputRow<D>> source = input.iterator();
+        private final PriorityQueue<Entry<D>> heap = new PriorityQueue<>(Math.min(limit, 1024) + 1,
+                (a, b) -> LimitStage.this.compare(b, a));
+        private final ArrayDeque<InputRow<D>> pending = new ArrayDeque<>();
+        private long sequence = 0;
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty()) {
+                if (!source.hasNext()) {
+                    if (heap.isEmpty()) {
+                        return false;
+                    }
+                    drain();
+                } else {
+                    InputRow<D> row = source.next();
+                    if (row instanceof DataRow) {
+                        offer((DataRow<D>) row);
+                    } else if (row instanceof RejectedRow) {
+                        pending.add(row);
+                    } else {
+                        drain();
+                        pending.add(row);
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public InputRow<D> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        private void offer(DataRow<D> row) {
+            Entry<D> entry = new Entry<>(row, sequence++);
+            Entry<D> rejected = entry;
+            if (heap.size() < limit) {
+                heap.add(entry);
+                rejected = null;
+            } else if (LimitStage.this.compare(entry, heap.peek()) < 0) {
+                rejected = heap.poll();
+                heap.add(entry);
+            }
+            if (rejected != null && aggregateRejected) {
+                pending.add(new RejectedRow<>(rejected.row.getData()));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            Entry<D>[] kept = (Entry<D>[]) heap.toArray(new Entry<?>[heap.size()]);
+            heap.clear();
+            Arrays.sort(kept, LimitStage.this::compare);
+            for (Entry<D> entry : kept) {
+                pending.add(entry.row);
+            }
+        }
+    }
+}
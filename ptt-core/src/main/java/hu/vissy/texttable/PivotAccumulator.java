@@ -0,0 +1,144 @@
+package hu.vissy.texttable;
+
+import java.util.Arrays;
+
+import hu.vissy.texttable.aggregation.CompensatedSum;
+import hu.vissy.texttable.aggregation.Statistic;
+
+/**
+ * Accumulates one statistic of values for a growing number of slots.
+ *
+ * <p>
+ * The running values are held in primitive arrays indexed by the slot, and
+ * only the arrays the statistic needs are allocated, so accepting a value
+ * creates no object. The sums are compensated (see
+ * {@linkplain CompensatedSum}), the standard deviation uses the Welford
+ * algorithm.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class PivotAccumulator {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Statistic statistic;
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private double[] sums;
+    private double[] compensations;
+    private double[] means;
+    private double[] squares;
+    private double[] extremes;
+
+    /**
+     * Constructor.
+     *
+     * @param statistic
+     *            The statistic to accumulate.
+     */
+    PivotAccumulator(Statistic statistic) {
+        this.statistic = statistic;
+        switch (statistic) {
+        case SUM:
+        case AVERAGE:
+            sums = new double[INITIAL_CAPACITY];
+            compensations = new double[INITIAL_CAPACITY];
+            break;
+        case STANDARD_DEVIATION:
+            means = new double[INITIAL_CAPACITY];
+            squares = new double[INITIAL_CAPACITY];
+            break;
+        case MIN:
+        case MAX:
+            extremes = new double[INITIAL_CAPACITY];
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Accepts a value.
+     *
+     * @param slot
+     *            The slot of the value.
+     * @param value
+     *            The value.
+     */
+    void accept(int slot, double value) {
+        if (slot >= counts.length) {
+            grow(slot);
+        }
+        long count = ++counts[slot];
+        switch (statistic) {
+        case SUM:
+        case AVERAGE:
+            double sum = sums[slot];
+            double t = sum + value;
+            compensations[slot] += CompensatedSum.error(sum, value, t);
+            sums[slot] = t;
+            break;
+        case STANDARD_DEVIATION:
+            double delta = value - means[slot];
+            means[slot] += delta / count;
+            squares[slot] += delta * (value - means[slot]);
+            break;
+        case MIN:
+            if (count == 1 || value < extremes[slot]) {
+                extremes[slot] = value;
+            }
+            break;
+        case MAX:
+            if (count == 1 || value > extremes[slot]) {
+                extremes[slot] = value;
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void grow(int slot) {
+        int capacity = Math.max(counts.length * 2, slot + 1);
+        counts = Arrays.copyOf(counts, capacity);
+        if (sums != null) {
+            sums = Arrays.copyOf(sums, capacity);
+            compensations = Arrays.copyOf(compensations, capacity);
+        }
+        if (means != null) {
+            means = Arrays.copyOf(means, capacity);
+            squares = Arrays.copyOf(squares, capacity);
+        }
+        if (extremes != null) {
+            extremes = Arrays.copyOf(extremes, capacity);
+        }
+    }
+
+    /**
+     * Returns the statistic of a slot.
+     *
+     * @param slot
+     *            The slot.
+     * @return The statistic or null if the slot has no values (or the
+     *         standard deviation of a single value).
+     */
+    Double get(int slot) {
+        long count = slot < counts.length ? counts[slot] : 0;
+        if (count == 0) {
+            return null;
+        }
+        switch (statistic) {
+        case COUNT:
+            return (double) count;
+        case SUM:
+            return CompensatedSum.total(sums[slot], compensations[slot]);
+        case AVERAGE:
+            return CompensatedSum.total(sums[slot], compensations[slot]) / count;
+        case STANDARD_DEVIATION:
+            return count < 2 ? null : Math.sqrt(squares[slot] / (count - 1));
+        default:
+            return extremes[slot];
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package hu.vissy.texttable;
+
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import hu.vissy.texttable.aggregation.Statistic;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+import hu.vissy.texttable.dataconverter.DataConverter;
+import hu.vissy.texttable.dataconverter.NumberDataConverter;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+/**
+ * Renders long (row key, column key, value) records as a crosstab.
+ *
+ * <p>
+ * Each distinct row key gets a row and each distinct column key (category)
+ * gets a column, and the cells show a statistic of the values of the
+ * records with the given keys. The categories are discovered while reading
+ * the records, and the columns are generated automatically.
+ * </p>
+ * <p>
+ * The records are read in a single pass. The keys are assigned ordinals in
+ * hash tables and the values are accumulated in primitive arrays per
+ * category, so only the distinct keys are kept, not the records. The table
+ * is then rendered by a {@linkplain TableFormatter} over the row ordinals.
+ * </p>
+ *
+ * <pre>
+ * PivotTableFormatter&lt;Sale&gt; pivot = new PivotTableFormatter.Builder&lt;Sale&gt;(Sale::getRegion, Sale::getFruit,
+ *         Sale::getQuantity)
+ *                 .withRowKeyTitle("Region")
+ *                 .withRowTotals(true)
+ *                 .withColumnTotals(true)
+ *                 .build();
+ * System.out.println(pivot.apply(sales));
+ * </pre>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+public class PivotTableFormatter<D> {
+
+    private static final Comparator<Object> KEY_ORDER = naturalOrderNullsFirst();
+
+    /**
+     * The builder of the pivot table formatter.
+     *
+     * @author Balage
+     *
+     * @param <D>
+     *            The type of the input record.
+     */
+    public static class Builder<D> {
+        private final Function<D, ?> rowKeyExtractor;
+        private final Function<D, ?> columnKeyExtractor;
+        private final ToDoubleFunction<D> valueExtractor;
+        private Statistic statistic = Statistic.SUM;
+        private GroupOrder rowOrder = GroupOrder.FIRST_SEEN;
+        private GroupOrder columnOrder = GroupOrder.FIRST_SEEN;
+        private boolean rowTotals = false;
+        private boolean columnTotals = false;
+        private String rowKeyTitle = "";
+        private String totalTitle = "Total";
+        private DataConverter<Double> valueConverter = null;
+        private BorderFormatter borderFormatter = null;
+        private String heading = null;
+
+        /**
+         * Constructor.
+         *
+         * @param rowKeyExtractor
+         *            The closure to extract the row key from the record.
+         * @param columnKeyExtractor
+         *            The closure to extract the column key (category) from
+         *            the record. The string form of the key is the column
+         *            title.
+         * @param valueExtractor
+         *            The closure to extract the value from the record.
+         */
+        public Builder(Function<D, ?> rowKeyExtractor, Function<D, ?> columnKeyExtractor, ToDoubleFunction<D> valueExtractor) {
+            this.rowKeyExtractor = Objects.requireNonNull(rowKeyExtractor, "rowKeyExtractor");
+            this.columnKeyExtractor = Objects.requireNonNull(columnKeyExtractor, "columnKeyExtractor");
+            this.valueExtractor = Objects.requireNonNull(valueExtractor, "valueExtractor");
+        }
+
+        /**
+         * Sets the statistic shown in the cells.
+         * <p>
+         * Default value if not set: {@linkplain Statistic#SUM}.
+         * </p>
+         *
+         * @param statistic
+         *            The statistic.
+         * @return The builder instance.
+         */
+        public Builder<D> withStatistic(Statistic statistic) {
+            this.statistic = Objects.requireNonNull(statistic, "statistic");
+            return this;
+        }
+
+        /**
+         * Sets the order of the rows.
+         * <p>
+         * Default value if not set: {@linkplain GroupOrder#FIRST_SEEN}.
+         * </p>
+         *
+         * @param rowOrder
+         *            The order of the row keys.
+         * @return The builder instance.
+         */
+        public Builder<D> withRowOrder(GroupOrder rowOrder) {
+            this.rowOrder = Objects.requireNonNull(rowOrder, "rowOrder");
+            return this;
+        }
+
+        /**
+         * Sets the order of the generated columns.
+         * <p>
+         * Default value if not set: {@linkplain GroupOrder#FIRST_SEEN}.
+         * </p>
+         *
+         * @param columnOrder
+         *            The order of the column keys.
+         * @return The builder instance.
+         */
+        public Builder<D> withColumnOrder(GroupOrder columnOrder) {
+            this.columnOrder = Objects.requireNonNull(columnOrder, "columnOrder");
+            return this;
+        }
+
+        /**
+         * Specifies whether to add a column with the statistic of each row.
+         * Default is false.
+         *
+         * @param rowTotals
+         *            If true, the total column is added.
+         * @return The builder instance.
+         */
+        public Builder<D> withRowTotals(boolean rowTotals) {
+            this.rowTotals = rowTotals;
+            return this;
+        }
+
+        /**
+         * Specifies whether to add an aggregator row with the statistic of
+         * each column. Default is false.
+         *
+         * @param columnTotals
+         *            If true, the total row is added.
+         * @return The builder instance.
+         */
+        public Builder<D> withColumnTotals(boolean columnTotals) {
+            this.columnTotals = columnTotals;
+            return this;
+        }
+
+        /**
+         * Sets the title of the row key column. Default is empty.
+         *
+         * @param rowKeyTitle
+         *            The title.
+         * @return The builder instance.
+         */
+        public Builder<D> withRowKeyTitle(String rowKeyTitle) {
+            this.rowKeyTitle = rowKeyTitle;
+            return this;
+        }
+
+        /**
+         * Sets the title of the total column and the total row.
+         * <p>
+         * Default value if not set: "Total".
+         * </p>
+         *
+         * @param totalTitle
+         *            The title.
+         * @return The builder instance.
+         */
+        public Builder<D> withTotalTitle(String totalTitle) {
+            this.totalTitle = totalTitle;
+            return this;
+        }
+
+        /**
+         * Sets the converter of the cell values.
+         * <p>
+         * Default value if not set: two fraction digits, or no fraction
+         * digits for {@linkplain Statistic#COUNT}.
+         * </p>
+         *
+         * @param valueConverter
+         *            The converter.
+         * @return The builder instance.
+         */
+        public Builder<D> withValueConverter(DataConverter<Double> valueConverter) {
+            this.valueConverter = valueConverter;
+            return this;
+        }
+
+        /**
+         * Sets the border formatter of the table.
+         *
+         * @param borderFormatter
+         *            The border formatter.
+         * @return The builder instance.
+         * @see TableFormatter.Builder#withBorderFormatter(BorderFormatter)
+         */
+        public Builder<D> withBorderFormatter(BorderFormatter borderFormatter) {
+            this.borderFormatter = borderFormatter;
+            return this;
+        }
+
+        /**
+         * Sets the heading of the table.
+         *
+         * @param heading
+         *            The heading.
+         * @return The builder instance.
+         * @see TableFormatter.Builder#withHeading(String)
+         */
+        public Builder<D> withHeading(String heading) {
+            this.heading = heading;
+            return this;
+        }
+
+        /**
+         * @return The created {@linkplain PivotTableFormatter} instance.
+         */
+        public PivotTableFormatter<D> build() {
+            return new PivotTableFormatter<>(this);
+        }
+    }
+
+    private final Function<D, ?> rowKeyExtractor;
+    private final Function<D, ?> columnKeyExtractor;
+    private final ToDoubleFunction<D> valueExtractor;
+    private final Statistic statistic;
+    private final GroupOrder rowOrder;
+    private final GroupOrder columnOrder;
+    private final boolean rowTotals;
+    private final boolean columnTotals;
+    private final String rowKeyTitle;
+    private final String totalTitle;
+    private final DataConverter<Double> valueConverter;
+    private final BorderFormatter borderFormatter;
+    private final String heading;
+
+    private PivotTableFormatter(Builder<D> builder) {
+        this.rowKeyExtractor = builder.rowKeyExtractor;
+        this.columnKeyExtractor = builder.columnKeyExtractor;
+        this.valueExtractor = builder.valueExtractor;
+        this.statistic = builder.statistic;
+        this.rowOrder = builder.rowOrder;
+        this.columnOrder = builder.columnOrder;
+        this.rowTotals = builder.rowTotals;
+        this.columnTotals = builder.columnTotals;
+        this.rowKeyTitle = builder.rowKeyTitle;
+        this.totalTitle = builder.totalTitle;
+        this.valueConverter = builder.valueConverter != null ? builder.valueConverter : defaultConverter(builder.statistic);
+        this.borderFormatter = builder.borderFormatter;
+        this.heading = builder.heading;
+    }
+
+    private static DataConverter<Double> defaultConverter(Statistic statistic) {
+        if (statistic != Statistic.COUNT) {
+            return NumberDataConverter.defaultDoubleFormatter();
+        }
+        NumberFormat formatter = NumberFormat.getInstance();
+        formatter.setMaximumFractionDigits(0);
+        formatter.setGroupingUsed(false);
+        formatter.setRoundingMode(RoundingMode.HALF_UP);
+        return new NumberDataConverter<>(Double.class, formatter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> naturalOrderNullsFirst() {
+        return Comparator.nullsFirst((a, b) -> ((Comparable<Object>) a).compareTo(b));
+    }
+
+    /**
+     * The accumulated statistics of one pivot run.
+     */
+    private final class Crosstab {
+        private final GroupTable rowKeys = new GroupTable();
+        private final GroupTable columnKeys = new GroupTable();
+        private final List<PivotAccumulator> cells = new ArrayList<>();
+        private final PivotAccumulator rowStatistics = new PivotAccumulator(statistic);
+        private final PivotAccumulator columnStatistics = new PivotAccumulator(statistic);
+        private final PivotAccumulator grandStatistics = new PivotAccumulator(statistic);
+
+        void accept(D d) {
+            int row = rowKeys.ordinalOf(-1, rowKeyExtractor.apply(d));
+            int column = columnKeys.ordinalOf(-1, columnKeyExtractor.apply(d));
+            if (column == cells.size()) {
+                cells.add(new PivotAccumulator(statistic));
+            }
+            double value = valueExtractor.applyAsDouble(d);
+            cells.get(column).accept(row, value);
+            if (rowTotals) {
+                rowStatistics.accept(row, value);
+            }
+            if (columnTotals) {
+                columnStatistics.accept(column, value);
+                grandStatistics.accept(0, value);
+            }
+        }
+    }
+
+    /**
+     * Aggregates the records and renders the crosstab.
+     *
+     * @param data
+     *            The input records.
+     * @return The rendered table.
+     */
+    public String apply(Iterable<D> data) {
+        Crosstab crosstab = aggregate(data);
+        return createFormatter(crosstab).applyToInput(createInput(crosstab));
+    }
+
+    /**
+     * Aggregates the records and creates the table data of the crosstab
+     * without rendering it.
+     *
+     * @param data
+     *            The input records.
+     * @return The populated table data. The records are the row ordinals.
+     */
+    public TableData<Integer> processData(Iterable<D> data) {
+        Crosstab crosstab = aggregate(data);
+        return createFormatter(crosstab).processData(createInput(crosstab));
+    }
+
+    private Crosstab aggregate(Iterable<D> data) {
+        Crosstab crosstab = new Crosstab();
+        for (D d : data) {
+            crosstab.accept(d);
+        }
+        return crosstab;
+    }
+
+    private List<InputRow<Integer>> createInput(Crosstab crosstab) {
+        List<InputRow<Integer>> rows = new ArrayList<>(crosstab.rowKeys.size() + 1);
+        for (int row : order(crosstab.rowKeys, rowOrder)) {
+            rows.add(new DataRow<>(row));
+        }
+        if (columnTotals) {
+            rows.add(new AggregatorRow<>(null));
+        }
+        return rows;
+    }
+
+    private TableFormatter<Integer> createFormatter(Crosstab crosstab) {
+        TableFormatter.Builder<Integer> builder = new TableFormatter.Builder<Integer>()
+                .withShowAggregation(columnTotals)
+                .withHeading(heading);
+        if (borderFormatter != null) {
+            builder.withBorderFormatter(borderFormatter);
+        }
+        builder.withColumn(new ColumnDefinition.StatelessBuilder<Integer, Object>()
+                .withTitle(rowKeyTitle)
+                .withAggregateRowConstant(totalTitle)
+                .withDataExtractor(r -> crosstab.rowKeys.getKey(r))
+                .build());
+        for (int column : order(crosstab.columnKeys, columnOrder)) {
+            builder.withColumn(createValueColumn(String.valueOf(crosstab.columnKeys.getKey(column)), crosstab.cells.get(column),
+                    crosstab.columnStatistics.get(column)));
+        }
+        if (rowTotals) {
+            builder.withColumn(createValueColumn(totalTitle, crosstab.rowStatistics, crosstab.grandStatistics.get(0)));
+        }
+        return builder.build();
+    }
+
+    private ColumnDefinition<Integer, Void, Double> createValueColumn(String title, PivotAccumulator values, Double total) {
+        return new ColumnDefinition.StatefulBuilder<Integer, Void, Double>()
+                .withTitle(title)
+                .withCellContentFormatter(CellContentFormatter.rightAlignedCell())
+                .withDataConverter(valueConverter)
+                .withDataExtractor(new StatefulDataExtractor<>((r, s) -> values.get(r), () -> null, (k, s) -> total))
+                .build();
+    }
+
+    /**
+     * Returns the ordinals of the keys in the requested order.
+     */
+    private static int[] order(GroupTable keys, GroupOrder order) {
+        int[] ordinals = new int[keys.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = i;
+        }
+        if (order == GroupOrder.KEY) {
+            ordinals = Arrays.stream(ordinals).boxed()
+                    .sorted(Comparator.comparing(keys::getKey, KEY_ORDER))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return ordinals;
+    }
+}
@@ -0,0 +1,31 @@
+package hu.vissy.texttable;
+
+/**
+ * A data record left out of the table, which is still aggregated.
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+final class RejectedRow<D> extends InputRow<D> {
+
+    private final D data;
+
+    /**
+     * Constructor.
+     *
+     * @param data
+     *            The data record.
+     */
+    RejectedRow(D data) {
+        this.data = data;
+    }
+
+    /**
+     * @return The data record.
+     */
+    D getData() {
+        return data;
+    }
+}
@@ -0,0 +1,154 @@
+package hu.vissy.texttable;
+
+import hu.vissy.texttable.instrumentation.RenderListener;
+import hu.vissy.texttable.instrumentation.RenderPhase;
+
+/**
+ * Collects the measurements of one render call.
+ *
+ * <p>
+ * An instance is only created when a {@linkplain RenderListener} is set or a
+ * flight recorder event is enabled, so formatters without those never call the
+ * clock. The collected values
+ * are reported to the listener at the end of the render.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class RenderStatistics {
+
+    private static final RenderPhase[] PHASES = RenderPhase.values();
+
+    private final long start = System.nanoTime();
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final long[] phaseCounts = new long[PHASES.length];
+    private final long[] columnNanos;
+    private final long[] columnCounts;
+    private long rows = 0;
+    private long characters = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param columnCount
+     *            The number of columns.
+     */
+    RenderStatistics(int columnCount) {
+        columnNanos = new long[columnCount];
+        columnCounts = new long[columnCount];
+    }
+
+    /**
+     * Adds the time elapsed since <code>startNanos</code> to a phase.
+     *
+     * @param phase
+     *            The phase.
+     * @param startNanos
+     *            The {@linkplain System#nanoTime()} value when the work was
+     *            started.
+     * @param count
+     *            The number of items processed.
+     */
+    void addSince(RenderPhase phase, long startNanos, long count) {
+        add(phase, System.nanoTime() - startNanos, count);
+    }
+
+    /**
+     * Adds time to a phase.
+     *
+     * @param phase
+     *            The phase.
+     * @param nanos
+     *            The time spent in nanoseconds.
+     * @param count
+     *            The number of items processed.
+     */
+    void add(RenderPhase phase, long nanos, long count) {
+        phaseNanos[phase.ordinal()] += nanos;
+        phaseCounts[phase.ordinal()] += count;
+    }
+
+    /**
+     * Adds conversion time of one value of a column (and to the conversion
+     * phase).
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @param nanos
+     *            The time spent in nanoseconds.
+     */
+    void addConversion(int columnIndex, long nanos) {
+        columnNanos[columnIndex] += nanos;
+        columnCounts[columnIndex]++;
+        add(RenderPhase.CONVERSION, nanos, 1);
+    }
+
+    /**
+     * Adds the measurements of an other instance (used for the chunks
+     * processed in parallel).
+     *
+     * @param other
+     *            The statistics to add.
+     */
+    void merge(RenderStatistics other) {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+            phaseCounts[i] += other.phaseCounts[i];
+        }
+        for (int i = 0; i < columnNanos.length; i++) {
+            columnNanos[i] += other.columnNanos[i];
+            columnCounts[i] += other.columnCounts[i];
+        }
+        rows += other.rows;
+        characters += other.characters;
+    }
+
+    /**
+     * Counts a rendered row.
+     */
+    void addRow() {
+        rows++;
+    }
+
+    /**
+     * Counts produced characters.
+     *
+     * @param count
+     *            The number of characters.
+     */
+    void addCharacters(long count) {
+        characters += count;
+    }
+
+    /**
+     * Reports the collected values to the listener.
+     *
+     * @param listener
+     *            The listener to report to.
+     * @param pipelines
+     *            The column pipelines (for the titles).
+     * @param bytes
+     *            The bytes written or -1 if the render wasn't to a channel.
+     */
+    void report(RenderListener listener, ColumnPipeline<?, ?, ?>[] pipelines, long bytes) {
+        long total = System.nanoTime() - start;
+        reportPhases(listener);
+        for (int i = 0; i < columnNanos.length; i++) {
+            listener.columnConverted(i, pipelines[i].getDefinition().getTitle(), columnNanos[i], columnCounts[i]);
+        }
+        listener.renderCompleted(total, rows, characters, bytes);
+    }
+
+    /**
+     * Reports the phases collected so far to the listener.
+     *
+     * @param listener
+     *            The listener to report to.
+     */
+    void reportPhases(RenderListener listener) {
+        for (RenderPhase phase : PHASES) {
+            listener.phaseCompleted(phase, phaseNanos[phase.ordinal()], phaseCounts[phase.ordinal()]);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package hu.vissy.texttable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Base of the stages which reorder the data records.
+ *
+ * <p>
+ * The input is cut into segments of consecutive data rows at the separator
+ * and aggregator rows. Each segment is rearranged as a whole by the
+ * implementation, while the separator and aggregator rows keep their places
+ * between the segments. Only the rows of the current segment are collected.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+abstract class SegmentStage<D> implements Iterable<InputRow<D>> {
+
+    private final Iterable<InputRow<D>> input;
+
+    /**
+     * Constructor.
+     *
+     * @param input
+     *            The input rows.
+     */
+    protected SegmentStage(Iterable<InputRow<D>> input) {
+        this.input = input;
+    }
+
+    /**
+     * Rearranges a segment.
+     *
+     * @param segment
+     *            The data rows of the segment (not empty). The list is
+     *            reused after the returned iterator is consumed.
+     * @return The rows of the segment in the new order.
+     */
+    protected abstract Iterator<InputRow<D>> arrange(List<DataRow<D>> segment);
+
+    @Override
+    public Iterator<InputRow<D>> iterator() {
+        return new SegmentIterator();
+    }
+
+    private final class SegmentIterator implements Iterator<InputRow<D>> {
+        private final Iterator<InputRow<D>> source = input.iterator();
+        private final List<DataRow<D>> segment = new ArrayList<>();
+        private final ArrayDeque<InputRow<D>> markers = new ArrayDeque<>();
+        private Iterator<InputRow<D>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (!markers.isEmpty()) {
+                    current = Collections.singletonList(markers.poll()).iterator();
+                } else if (source.hasNext()) {
+                    collect();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public InputRow<D> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void collect() {
+            segment.clear();
+            while (source.hasNext()) {
+                InputRow<D> row = source.next();
+                if (row instanceof DataRow) {
+                    segment.add((DataRow<D>) row);
+                } else {
+                    markers.add(row);
+                    break;
+                }
+            }
+            if (!segment.isEmpty()) {
+                // The segment is only reused after the arrangement is consumed
+                current = arrange(segment);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package hu.vissy.texttable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Sorts the data records of each segment.
+ *
+ * <p>
+ * The records are sorted in memory with a parallel, stable sort. When the
+ * records are sorted by a key (the value of a column), each key is extracted
+ * once and the decorated records are sorted.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ */
+final class SortStage<D> extends SegmentStage<D> {
+
+    private final Comparator<? super D> comparator;
+    private final Function<D, ?> keyExtractor;
+    private final Comparator<Object> keyComparator;
+
+    /**
+     * A record decorated with its sort key.
+     */
+    private static final class Keyed<D> {
+        private final Object key;
+        private final DataRow<D> row;
+
+        Keyed(Object key, DataRow<D> row) {
+            this.key = key;
+            this.row = row;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param input
+     *            The input rows.
+     * @param comparator
+     *            The comparator of the records, or null if the records are
+     *            sorted by key.
+     * @param keyExtractor
+     *            The closure extracting the sort key, or null if the records
+     *            are sorted by the comparator.
+     * @param keyComparator
+     *            The comparator of the keys.
+     */
+    SortStage(Iterable<InputRow<D>> input, Comparator<? super D> comparator, Function<D, ?> keyExtractor,
+            Comparator<Object> keyComparator) {
+        super(input);
+        this.comparator = comparator;
+        this.keyExtractor = keyExtractor;
+        this.keyComparator = keyComparator;
+    }
+
+    @Override
+    protected Iterator<InputRow<D>> arrange(List<DataRow<D>> segment) {
+        if (keyExtractor == null) {
+            @SuppressWarnings("unchecked")
+            DataRow<D>[] rows = (DataRow<D>[]) segment.toArray(new DataRow<?>[segment.size()]);
+            Arrays.parallelSort(rows, (a, b) -> comparator.compare(a.getData(), b.getData()));
+            return Arrays.<InputRow<D>> asList(rows).iterator();
+        }
+        @SuppressWarnings("unchecked")
+        Keyed<D>[] keyed = (Keyed<D>[]) new Keyed<?>[segment.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            DataRow<D> row = segment.get(i);
+            keyed[i] = new Keyed<>(keyExtractor.apply(row.getData()), row);
+        }
+        Arrays.parallelSort(keyed, (a, b) -> keyComparator.compare(a.key, b.key));
+        return new Iterator<InputRow<D>>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < keyed.length;
+            }
+
+            @Override
+            public InputRow<D> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keyed[position++].row;
+            }
+        };
+    }
+}
@@ -2,10 +2,20 @@ package hu.vissy.texttable;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 import hu.vissy.texttable.TableRow.Type;
-import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+import hu.vissy.texttable.contentformatter.CellStyle;
+import hu.vissy.texttable.contentformatter.WidthCalculator;
+import hu.vissy.texttable.instrumentation.ColumnWidthEvent;
+import hu.vissy.texttable.instrumentation.RenderListener;
+import hu.vissy.texttable.instrumentation.RenderPhase;
+import hu.vissy.texttable.instrumentation.TableDataPopulateEvent;
 
 /**
  * Contains the processed data of a table. The processed data is over the
@@ -21,25 +31,17 @@ public final class TableData<D> {
 
 
     private class ColumnInfo {
-        private ColumnDefinition<D, ?, ?> definition;
-        private Object state;
+        private ColumnPipeline<D, ?, ?> pipeline;
         private int width;
+        private WidthHistogram histogram;
 
-        public ColumnInfo(ColumnDefinition<D, ?, ?> definition) {
+        public ColumnInfo(ColumnPipeline<D, ?, ?> pipeline) {
             super();
-            this.definition = definition;
+            this.pipeline = pipeline;
         }
 
-        public ColumnDefinition<D, ?, ?> getDefinition() {
-            return definition;
-        }
-
-        public Object getState() {
-            return state;
-        }
-
-        public Object initializeState() {
-            return state = definition.getDataExtractor().getStateInitializer().get();
+        public ColumnPipeline<D, ?, ?> getPipeline() {
+            return pipeline;
         }
 
         public int getWidth() {
@@ -50,21 +52,98 @@ public final class TableData<D> {
             this.width = width;
         }
 
+        /**
+         * @return The (cleared) width histogram of the column.
+         */
+        WidthHistogram resetHistogram() {
+            if (histogram == null) {
+                histogram = new WidthHistogram();
+            } else {
+                histogram.clear();
+            }
+            return histogram;
+        }
+
+        WidthHistogram getHistogram() {
+            return histogram;
+        }
+
 
     }
 
+    private static final int MAX_SPARE_ROWS = 256;
+    private static final int PARALLEL_CHUNK_SIZE = 4096;
+
     private List<ColumnInfo> columns = new ArrayList<>();
+    private ColumnPipeline<D, ?, ?>[] pipelines;
+    private Object[][] levelStates;
+    private Object[] states;
+    private TableRow[][] delayedRows;
+    private int[] delayedCounts;
+    private boolean parallelAggregation;
+    private List<Function<D, ?>> groupKeyExtractors;
+    private List<Object> groupAggregatorKeys;
+    private GroupOrder hashGroupOrder;
+    private Comparator<? super D> sortComparator;
+    private int sortColumn;
+    private boolean sortAscending;
+    private int limit;
+    private Comparator<? super D> limitComparator;
+    private boolean aggregateRejected;
+    private Predicate<? super D> filter;
+    private boolean aggregateFiltered;
+    private int maxTableWidth;
+    private boolean widthHistograms;
+    private BorderFormatter borderFormatter;
     private List<TableRow> rows = new ArrayList<>();
+    private List<TableRow> spareRows = new ArrayList<>();
     private TableRow separator = new TableRow(Type.SEPARATOR, 0);
+    private int[] widthArray;
+    private int[] headerWidthArray;
     private List<Integer> widths;
 
 
     TableData(List<InputRow<D>> data, TableFormatter<D> tableFormatter) {
-        super();
-        tableFormatter.getColumns().stream().forEach(c -> this.columns.add(new ColumnInfo(c.getDefinition())));
+        this(tableFormatter);
         populate(data, tableFormatter);
     }
 
+    /**
+     * Creates an empty structure for the columns of the formatter. It is
+     * populated by {@linkplain #populate(List, TableFormatter)}.
+     *
+     * @param tableFormatter
+     *            The formatter to take the columns from.
+     */
+    @SuppressWarnings("unchecked")
+    TableData(TableFormatter<D> tableFormatter) {
+        super();
+        tableFormatter.getColumns().stream().forEach(c -> this.columns.add(new ColumnInfo(c.getPipeline())));
+        widthArray = new int[columns.size()];
+        headerWidthArray = new int[columns.size()];
+        pipelines = (ColumnPipeline<D, ?, ?>[]) new ColumnPipeline<?, ?, ?>[columns.size()];
+        parallelAggregation = tableFormatter.isParallelAggregation();
+        groupKeyExtractors = tableFormatter.getGroupKeyExtractors();
+        groupAggregatorKeys = tableFormatter.getGroupAggregatorKeys();
+        hashGroupOrder = tableFormatter.getHashGroupOrder();
+        sortComparator = tableFormatter.getSortComparator();
+        sortColumn = tableFormatter.getSortColumn();
+        sortAscending = tableFormatter.isSortAscending();
+        limit = tableFormatter.getLimit();
+        limitComparator = tableFormatter.getLimitComparator();
+        aggregateRejected = tableFormatter.isAggregateRejected();
+        filter = tableFormatter.getFilter();
+        aggregateFiltered = tableFormatter.isAggregateFiltered();
+        maxTableWidth = tableFormatter.getMaxTableWidth();
+        widthHistograms = tableFormatter.isWidthHistograms() || maxTableWidth > 0;
+        borderFormatter = tableFormatter.getBorderFormatter();
+        levelStates = new Object[groupKeyExtractors.size() + 1][columns.size()];
+        states = levelStates[groupKeyExtractors.size()];
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            pipelines[columnIndex] = columns.get(columnIndex).getPipeline();
+        }
+    }
+
     /**
      * @return The number of columns.
      */
@@ -72,77 +151,536 @@ public final class TableData<D> {
         return columns.size();
     }
 
-    private void populate(List<InputRow<D>> data, TableFormatter<D> tableFormatter) {
-        // Initialize the state objects
-        columns.forEach(ci -> ci.initializeState());
+    /**
+     * @return The number of rows (including the separator and aggregator
+     *         rows).
+     */
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Drops the populated rows, but keeps the row objects for reuse by the
+     * next {@linkplain #populate(List, TableFormatter)} call.
+     */
+    void clear() {
+        for (TableRow r : rows) {
+            if (r != separator && spareRows.size() < MAX_SPARE_ROWS) {
+                spareRows.add(r);
+            }
+        }
+        rows.clear();
+        widths = null;
+    }
 
-        // Iterates over the real data records
-        for (InputRow<D> ir : data) {
+    private TableRow newRow(Type type) {
+        if (spareRows.isEmpty()) {
+            return new TableRow(type, getColumnCount());
+        }
+        TableRow row = spareRows.remove(spareRows.size() - 1);
+        row.reset(type);
+        return row;
+    }
+
+    void populate(List<InputRow<D>> data, TableFormatter<D> tableFormatter) {
+        populate(data, tableFormatter, null);
+    }
+
+    /**
+     * Populates the structure from the input rows.
+     *
+     * <p>
+     * When the {@linkplain TableDataPopulateEvent} is enabled in a flight
+     * recording, the phases are measured and the event is committed. When the
+     * width histograms are collected, a {@linkplain ColumnWidthEvent} is
+     * committed for each column.
+     * </p>
+     *
+     * @param data
+     *            The input rows.
+     * @param tableFormatter
+     *            The formatter.
+     * @param stats
+     *            The statistics to collect the measurements into or null if
+     *            the render is not measured.
+     */
+    void populate(List<InputRow<D>> data, TableFormatter<D> tableFormatter, RenderStatistics stats) {
+        TableDataPopulateEvent event = new TableDataPopulateEvent();
+        if (event.isEnabled()) {
+            RenderStatistics measured = stats == null ? new RenderStatistics(columns.size()) : stats;
+            event.begin();
+            fill(data, measured);
+            if (event.shouldCommit()) {
+                event.setTable(tableFormatter.getHeading(), columns.size(), rows.size());
+                measured.reportPhases(event);
+                event.commit();
+            }
+        } else {
+            fill(data, stats);
+        }
+        if (widthHistograms) {
+            commitColumnWidthEvents(tableFormatter.getHeading());
+        }
+    }
+
+    private void commitColumnWidthEvents(String heading) {
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            ColumnWidthEvent event = new ColumnWidthEvent();
+            if (!event.shouldCommit()) {
+                return;
+            }
+            event.setColumn(heading, columnIndex, pipelines[columnIndex].getDefinition().getTitle(),
+                    new WidthHistogram(columns.get(columnIndex).getHistogram()));
+            event.commit();
+        }
+    }
+
+    private void fill(List<InputRow<D>> data, RenderStatistics stats) {
+        // Initialize the state objects. Each group level has its own states
+        // for the mergeable columns, the rest share the state of the root.
+        long phaseStart = stats == null ? 0 : System.nanoTime();
+        for (int columnIndex = 0; columnIndex < pipelines.length; columnIndex++) {
+            levelStates[0][columnIndex] = pipelines[columnIndex].initializeState();
+            for (int level = 1; level < levelStates.length; level++) {
+                levelStates[level][columnIndex] = pipelines[columnIndex].isMergeable() ? pipelines[columnIndex].initializeState()
+                        : levelStates[0][columnIndex];
+            }
+        }
+        // The rows of the lookahead columns waiting for a later record
+        for (int columnIndex = 0; columnIndex < pipelines.length; columnIndex++) {
+            int lookahead = pipelines[columnIndex].getLookahead();
+            if (lookahead > 0) {
+                if (delayedRows == null) {
+                    delayedRows = new TableRow[pipelines.length][];
+                    delayedCounts = new int[pipelines.length];
+                }
+                delayedRows[columnIndex] = new TableRow[lookahead];
+                delayedCounts[columnIndex] = 0;
+            }
+        }
+        if (stats != null) {
+            stats.addSince(RenderPhase.STATE_INITIALIZATION, phaseStart, columns.size());
+        }
+
+        // Iterates over the real data records. In parallel mode the
+        // consecutive data (or rejected) records are collected and processed
+        // at once.
+        Iterable<InputRow<D>> input = data;
+        if (filter != null && !aggregateFiltered) {
+            input = new FilterStage<>(input, filter, false);
+        }
+        if (sortComparator != null) {
+            input = new SortStage<>(input, sortComparator, null, null);
+        } else if (sortColumn >= 0) {
+            input = createColumnSortStage(input);
+        }
+        if (!groupKeyExtractors.isEmpty()) {
+            if (hashGroupOrder != null) {
+                input = new HashGroupingStage<>(input, groupKeyExtractors, hashGroupOrder);
+            }
+            input = new GroupByStage<>(input, groupKeyExtractors, groupAggregatorKeys);
+        }
+        if (filter != null && aggregateFiltered) {
+            input = new FilterStage<>(input, filter, true);
+        }
+        if (limit > 0) {
+            input = new LimitStage<>(input, limit, limitComparator, aggregateRejected);
+        }
+        List<D> run = parallelAggregation ? new ArrayList<>() : null;
+        boolean runShown = true;
+        for (InputRow<D> ir : input) {
+            if (run != null && (ir instanceof DataRow || ir instanceof RejectedRow)) {
+                boolean shown = ir instanceof DataRow;
+                if (shown != runShown && !run.isEmpty()) {
+                    addDataRows(run, runShown, stats);
+                    run.clear();
+                }
+                runShown = shown;
+                run.add(shown ? ((DataRow<D>) ir).getData() : ((RejectedRow<D>) ir).getData());
+                continue;
+            }
+            if (run != null && !run.isEmpty()) {
+                addDataRows(run, runShown, stats);
+                run.clear();
+            }
             if (ir instanceof SeparatorRow) {
                 rows.add(separator);
-            } else if (ir instanceof AggregatorRow) {
-                TableRow aggregateRow = new TableRow(Type.AGGREGATOR, getColumnCount());
-                for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
-                    TableData<D>.ColumnInfo ci = columns.get(columnIndex);
-                    ColumnDefinition<D, ?, ?> cd = ci.getDefinition();
-                    Object key = ((AggregatorRow<D>) ir).getKey();
-                    String value = cd.getAggregateRowConstant(key).orElse(cd.getAggregateData(key, ci.getState()));
-                    aggregateRow.setData(columnIndex, value);
+            } else if (ir instanceof GroupAggregatorRow) {
+                int level = ((GroupAggregatorRow<D>) ir).getLevel();
+                addAggregatorRow(((GroupAggregatorRow<D>) ir).getKey(), levelStates[level], stats);
+                // Rolls the group up into its parent and starts a new group
+                for (int columnIndex = 0; columnIndex < pipelines.length; columnIndex++) {
+                    if (pipelines[columnIndex].isMergeable()) {
+                        levelStates[level - 1][columnIndex] = pipelines[columnIndex].combineStates(levelStates[level - 1][columnIndex],
+                                levelStates[level][columnIndex]);
+                        levelStates[level][columnIndex] = pipelines[columnIndex].initializeState();
+                    }
                 }
-                rows.add(aggregateRow);
+            } else if (ir instanceof AggregatorRow) {
+                addAggregatorRow(((AggregatorRow<D>) ir).getKey(), levelStates[0], stats);
             } else if (ir instanceof DataRow) {
-                D d = ((DataRow<D>) ir).getData();
-                TableRow row = new TableRow(Type.DATA, getColumnCount());
-                // Calculates the cell values
-                for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
-                    TableData<D>.ColumnInfo ci = columns.get(columnIndex);
-                    ColumnDefinition<D, ?, ?> cd = ci.getDefinition();
-                    String value = cd.getRowData(d, ci.getState());
-                    row.setData(columnIndex, value);
-                }
+                TableRow row = newRow(Type.DATA);
+                extractRow(((DataRow<D>) ir).getData(), row, states, stats);
                 rows.add(row);
+            } else if (ir instanceof RejectedRow) {
+                extractRow(((RejectedRow<D>) ir).getData(), null, states, stats);
             } else {
                 throw new IllegalArgumentException("Unknown input row type: " + ir.getClass());
             }
         }
+        if (run != null && !run.isEmpty()) {
+            addDataRows(run, runShown, stats);
+        }
 
         // Calculates the column widths
+        phaseStart = stats == null ? 0 : System.nanoTime();
+        long measured = 0;
         for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
             TableData<D>.ColumnInfo ci = columns.get(columnIndex);
-            int maxWidth = tableFormatter.getHeaderConverter().convert(ci.getDefinition().getTitle()).length();
+            WidthCalculator widthCalculator = ci.getPipeline().getCellContentFormatter().getWidthCalculator();
+            String nullValue = ci.getPipeline().getCellContentFormatter().getNullValue();
+            int nullWidth = widthCalculator.width(nullValue);
+            int maxWidth = widthCalculator.width(ci.getPipeline().getHeaderText());
+            headerWidthArray[columnIndex] = maxWidth;
+            WidthHistogram histogram = widthHistograms ? ci.resetHistogram() : null;
             for (TableRow r : rows) {
                 if (r.getType() != Type.SEPARATOR) {
                     String value = r.getValue(columnIndex);
-                    if (value == null) {
-                        value = ci.getDefinition().getCellContentFormatter().getNullValue();
-                    }
-                    int w = value.length();
+                    int w = value == null ? nullWidth : widthCalculator.width(value);
+                    r.setWidth(columnIndex, w);
                     if (w > maxWidth) {
                         maxWidth = w;
                     }
+                    if (histogram == null) {
+                        // Not collected
+                    } else if (value == null) {
+                        histogram.addNull(w);
+                    } else {
+                        histogram.add(w);
+                    }
+                    measured++;
                 }
             }
 
             ci.setWidth(maxWidth);
         }
 
-        // Bounds the width with column constraints And stores the width information in an unmodifiable list.
-        List<Integer> widths = new ArrayList<>(columns.size());
+        // Bounds the width with column constraints
         for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
             TableData<D>.ColumnInfo ci = columns.get(columnIndex);
-            widths.add(ci.getDefinition().getCellContentFormatter().boundWidth(columns.get(columnIndex).getWidth()));
+            widthArray[columnIndex] = ci.getPipeline().getCellContentFormatter().boundWidth(ci.getWidth());
+        }
+        if (maxTableWidth > 0) {
+            fitWidths();
+        }
+
+        // Calculates the row heights of the wrapped columns
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            CellContentFormatter formatter = columns.get(columnIndex).getPipeline().getCellContentFormatter();
+            int width = widthArray[columnIndex];
+            if (formatter.getMaxLines() == 1 || columns.get(columnIndex).getWidth() <= width) {
+                continue;
+            }
+            for (TableRow r : rows) {
+                if (r.getType() != Type.SEPARATOR && r.getWidth(columnIndex) > width) {
+                    int lines = formatter.countLines(r.getValue(columnIndex), r.getWidth(columnIndex), width);
+                    if (lines > 1) {
+                        r.setLines(columnIndex, lines);
+                    }
+                }
+            }
         }
-        this.widths = Collections.unmodifiableList(widths);
+        if (stats != null) {
+            stats.addSince(RenderPhase.WIDTH_COMPUTATION, phaseStart, measured);
+        }
+    }
+
+
+    /**
+     * Shrinks the column widths to fit into the maximal table width.
+     */
+    private void fitWidths() {
+        int available = maxTableWidth - (borderFormatter.calculateTableWidth(widthArray) - sum(widthArray));
+        int[] floors = new int[columns.size()];
+        WidthHistogram[] histograms = new WidthHistogram[columns.size()];
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            int minWidth = Math.max(pipelines[columnIndex].getCellContentFormatter().getMinWidth(), TableFormatter.MIN_FITTED_WIDTH);
+            floors[columnIndex] = Math.min(widthArray[columnIndex], minWidth);
+            histograms[columnIndex] = columns.get(columnIndex).getHistogram();
+        }
+        WidthFitter.fit(widthArray, floors, headerWidthArray, histograms, available);
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int v : values) {
+            sum += v;
+        }
+        return sum;
     }
 
+    /**
+     * Creates the stage sorting the records by the value of the sort column.
+     * <p>
+     * The sort column is stateless (checked by the builder), so one state
+     * object serves all the records.
+     * </p>
+     *
+     * @param input
+     *            The input rows.
+     * @return The sorted rows.
+     */
+    @SuppressWarnings("unchecked")
+    private Iterable<InputRow<D>> createColumnSortStage(Iterable<InputRow<D>> input) {
+        ColumnPipeline<D, ?, ?> pipeline = pipelines[sortColumn];
+        Comparator<Object> order = Comparator.nullsFirst((a, b) -> ((Comparable<Object>) a).compareTo(b));
+        Object state = pipeline.initializeState();
+        return new SortStage<>(input, null, d -> pipeline.extract(d, state),
+                sortAscending ? order : order.reversed());
+    }
+
+    /**
+     * Calculates the cell values of an aggregator row.
+     *
+     * @param key
+     *            The key of the aggregator row.
+     * @param rowStates
+     *            The state objects of the columns.
+     * @param stats
+     *            The statistics or null if the render is not measured.
+     */
+    private void addAggregatorRow(Object key, Object[] rowStates, RenderStatistics stats) {
+        TableRow aggregateRow = newRow(Type.AGGREGATOR);
+        for (int columnIndex = 0; columnIndex < pipelines.length; columnIndex++) {
+            ColumnPipeline<D, ?, ?> pipeline = pipelines[columnIndex];
+            if (stats == null) {
+                aggregateRow.setData(columnIndex, pipeline.aggregateData(key, rowStates[columnIndex]));
+            } else {
+                long t0 = System.nanoTime();
+                Object value = pipeline.extractAggregate(key, rowStates[columnIndex]);
+                long t1 = System.nanoTime();
+                aggregateRow.setData(columnIndex, pipeline.convertAggregate(key, value));
+                stats.add(RenderPhase.EXTRACTION, t1 - t0, 1);
+                stats.addConversion(columnIndex, System.nanoTime() - t1);
+            }
+        }
+        rows.add(aggregateRow);
+    }
+
+    /**
+     * Calculates the cell values of a data record.
+     *
+     * @param d
+     *            The record.
+     * @param row
+     *            The row to fill or null if the record is only aggregated.
+     * @param rowStates
+     *            The state objects of the columns.
+     * @param stats
+     *            The statistics or null if the render is not measured.
+     */
+    private void extractRow(D d, TableRow row, Object[] rowStates, RenderStatistics stats) {
+        for (int columnIndex = 0; columnIndex < pipelines.length; columnIndex++) {
+            ColumnPipeline<D, ?, ?> pipeline = pipelines[columnIndex];
+            if (row == null) {
+                // Only aggregated
+                if (stats == null) {
+                    pipeline.extract(d, rowStates[columnIndex]);
+                } else {
+                    long t0 = System.nanoTime();
+                    pipeline.extract(d, rowStates[columnIndex]);
+                    stats.addSince(RenderPhase.EXTRACTION, t0, 1);
+                }
+            } else {
+                String text;
+                CellStyle style = null;
+                if (stats == null && !pipeline.isStyled()) {
+                    text = pipeline.rowData(d, rowStates[columnIndex]);
+                } else if (stats == null) {
+                    Object value = pipeline.extract(d, rowStates[columnIndex]);
+                    text = pipeline.convert(value);
+                    style = pipeline.style(value);
+                } else {
+                    long t0 = System.nanoTime();
+                    Object value = pipeline.extract(d, rowStates[columnIndex]);
+                    long t1 = System.nanoTime();
+                    text = pipeline.convert(value);
+                    stats.add(RenderPhase.EXTRACTION, t1 - t0, 1);
+                    stats.addConversion(columnIndex, System.nanoTime() - t1);
+                    if (pipeline.isStyled()) {
+                        style = pipeline.style(value);
+                    }
+                }
+                if (delayedRows != null && delayedRows[columnIndex] != null) {
+                    delay(columnIndex, row, text, style);
+                } else {
+                    row.setData(columnIndex, text);
+                    row.setStyle(columnIndex, style);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts the value of a lookahead column into the row the given number of
+     * data rows earlier, and leaves the cell of the current row empty until a
+     * later row fills it.
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @param row
+     *            The current row.
+     * @param value
+     *            The converted value of the current record.
+     * @param style
+     *            The style of the value or null.
+     */
+    private void delay(int columnIndex, TableRow row, String value, CellStyle style) {
+        TableRow[] pending = delayedRows[columnIndex];
+        int count = delayedCounts[columnIndex]++;
+        int slot = count % pending.length;
+        if (count >= pending.length) {
+            pending[slot].setData(columnIndex, value);
+            pending[slot].setStyle(columnIndex, style);
+        }
+        pending[slot] = row;
+        row.setData(columnIndex, null);
+    }
+
+    /**
+     * Adds a run of consecutive data records in parallel aggregation mode.
+     *
+     * <p>
+     * A short run is processed serially. A longer one is cut into chunks
+     * which are extracted and converted in parallel, each with its own
+     * states. The chunk states are then merged into the column states in the
+     * order of the chunks, so the next aggregator row sees the states of all
+     * the records.
+     * </p>
+     *
+     * @param run
+     *            The records.
+     * @param shown
+     *            Whether rows are created for the records, or they are only
+     *            aggregated.
+     * @param stats
+     *            The statistics or null if the render is not measured.
+     */
+    private void addDataRows(List<D> run, boolean shown, RenderStatistics stats) {
+        if (run.size() < 2 * PARALLEL_CHUNK_SIZE) {
+            for (D d : run) {
+                TableRow row = shown ? newRow(Type.DATA) : null;
+                extractRow(d, row, states, stats);
+                if (shown) {
+                    rows.add(row);
+                }
+            }
+            return;
+        }
+
+        TableRow[] runRows = new TableRow[run.size()];
+        for (int i = 0; shown && i < runRows.length; i++) {
+            runRows[i] = newRow(Type.DATA);
+            rows.add(runRows[i]);
+        }
+        int chunkCount = (run.size() + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+        Object[][] chunkStates = new Object[chunkCount][];
+        RenderStatistics[] chunkStats = new RenderStatistics[chunkCount];
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            Object[] localStates = new Object[pipelines.length];
+            for (int columnIndex = 0; columnIndex < pipelines.length; columnIndex++) {
+                localStates[columnIndex] = pipelines[columnIndex].initializeState();
+            }
+            RenderStatistics localStats = stats == null ? null : new RenderStatistics(pipelines.length);
+            int end = Math.min(run.size(), (chunk + 1) * PARALLEL_CHUNK_SIZE);
+            for (int i = chunk * PARALLEL_CHUNK_SIZE; i < end; i++) {
+                extractRow(run.get(i), runRows[i], localStates, localStats);
+            }
+            chunkStates[chunk] = localStates;
+            chunkStats[chunk] = localStats;
+        });
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            for (int columnIndex = 0; columnIndex < pipelines.length; columnIndex++) {
+                states[columnIndex] = pipelines[columnIndex].combineStates(states[columnIndex], chunkStates[chunk][columnIndex]);
+            }
+            if (stats != null) {
+                stats.merge(chunkStats[chunk]);
+            }
+        }
+    }
 
     /**
      * @return An unmodifiable list of column widths.
      */
     public List<Integer> getColumnWidths() {
+        if (widths == null) {
+            List<Integer> list = new ArrayList<>(widthArray.length);
+            for (int w : widthArray) {
+                list.add(w);
+            }
+            widths = Collections.unmodifiableList(list);
+        }
         return widths;
     }
 
+    /**
+     * Returns the histogram of the cell widths of a column collected during
+     * the population.
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @return The histogram or null if the histograms are not collected (see
+     *         {@linkplain TableFormatter.Builder#withWidthHistograms(boolean)}).
+     */
+    public WidthHistogram getWidthHistogram(int columnIndex) {
+        return widthHistograms ? columns.get(columnIndex).getHistogram() : null;
+    }
+
+    /**
+     * Reports the width histograms to the listener (if collected).
+     * <p>
+     * The histograms of the table are cleared and refilled when the render
+     * state is reused, so the listener gets copies it may keep.
+     * </p>
+     *
+     * @param listener
+     *            The listener to report to.
+     */
+    void reportWidthHistograms(RenderListener listener) {
+        if (!widthHistograms) {
+            return;
+        }
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            listener.columnMeasured(columnIndex, pipelines[columnIndex].getDefinition().getTitle(),
+                    new WidthHistogram(columns.get(columnIndex).getHistogram()));
+        }
+    }
+
+    /**
+     * @return The column widths. The array is owned by this instance and
+     *         should not be modified.
+     */
+    int[] getColumnWidthArray() {
+        return widthArray;
+    }
+
+    /**
+     * @return The display widths of the column headers. The array is owned by
+     *         this instance and should not be modified.
+     */
+    int[] getHeaderWidthArray() {
+        return headerWidthArray;
+    }
+
+    /**
+     * @return The compiled column pipelines. The array is owned by this
+     *         instance and should not be modified.
+     */
+    ColumnPipeline<D, ?, ?>[] getPipelines() {
+        return pipelines;
+    }
+
     /**
      * @return The unmodifiable list of row data.
      */
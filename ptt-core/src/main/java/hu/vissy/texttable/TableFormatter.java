@@ -1,21 +1,37 @@
 package hu.vissy.texttable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import hu.vissy.texttable.BorderFormatter.LineType;
 import hu.vissy.texttable.BorderFormatter.RowType;
 import hu.vissy.texttable.TableRow.Type;
 import hu.vissy.texttable.column.ColumnDefinition;
 import hu.vissy.texttable.contentformatter.CellContentFormatter;
-import hu.vissy.texttable.contentformatter.EllipsisDecorator;
+import hu.vissy.texttable.contentformatter.CellStyle;
 import hu.vissy.texttable.dataconverter.DataConverter;
 import hu.vissy.texttable.dataconverter.NumberDataConverter;
 import hu.vissy.texttable.dataconverter.StringDataConverter;
 import hu.vissy.texttable.dataextractor.DataExtractor;
+import hu.vissy.texttable.dataextractor.LookaheadDataExtractor;
 import hu.vissy.texttable.dataextractor.StatelessDataExtractor;
+import hu.vissy.texttable.instrumentation.AbstractRenderEvent;
+import hu.vissy.texttable.instrumentation.CsvExportEvent;
+import hu.vissy.texttable.instrumentation.HistogramRenderListener;
+import hu.vissy.texttable.instrumentation.RenderListener;
+import hu.vissy.texttable.instrumentation.RenderPhase;
+import hu.vissy.texttable.instrumentation.TableRenderEvent;
 
 /**
  *
@@ -298,6 +314,26 @@ public class TableFormatter<D> {
         private boolean separateDataWithLines = false;
         private DataConverter<String> headerConverter = new StringDataConverter();
         private boolean showHeader = true;
+        private boolean reuseRenderBuffers = false;
+        private boolean stripStyles = false;
+        private int maxTableWidth = 0;
+        private boolean widthHistograms = false;
+        private int pageWidth = 0;
+        private int[] repeatedColumns = new int[0];
+        private RenderListener renderListener = RenderListener.NONE;
+        private boolean csvExport = false;
+        private boolean parallelAggregation = false;
+        private List<Function<D, ?>> groupKeyExtractors = new ArrayList<>();
+        private List<Object> groupAggregatorKeys = new ArrayList<>();
+        private GroupOrder hashGroupOrder = null;
+        private Comparator<? super D> sortComparator = null;
+        private int sortColumn = -1;
+        private boolean sortAscending = true;
+        private int limit = 0;
+        private Comparator<? super D> limitComparator = null;
+        private boolean aggregateRejected = true;
+        private Predicate<? super D> filter = null;
+        private boolean aggregateFiltered = false;
 
         /**
          * The constructor of the builder.
@@ -400,22 +436,465 @@ public class TableFormatter<D> {
             return this;
         }
 
+        /**
+         * Specifies whether to reuse the internal structures between the
+         * renders.
+         * <p>
+         * When enabled, each thread using the formatter keeps its own scratch
+         * structures (row objects, width array and output buffer)
+         * and reuses them in the next call. This makes the allocation per
+         * table nearly constant, which pays off when many small tables are
+         * rendered at a high rate. The price is the memory kept by each
+         * thread between the calls (large buffers are not kept).
+         * </p>
+         * <p>
+         * The returned strings and the channel output are the same in both
+         * modes. Default is false.
+         * </p>
+         *
+         * @param reuseRenderBuffers
+         *            If true, the render buffers are kept and reused per
+         *            thread.
+         * @return The builder instance.
+         */
+        public Builder<D> withReuseRenderBuffers(boolean reuseRenderBuffers) {
+            this.reuseRenderBuffers = reuseRenderBuffers;
+            return this;
+        }
+
+        /**
+         * Adds a group level with automatic subtotal rows.
+         * <p>
+         * The input should be sorted by the group keys. When the key of a
+         * level changes between consecutive data records, an aggregator row
+         * with the given aggregator key is inserted for the level (and for
+         * all its inner levels, innermost first). An explicit aggregator row
+         * and the end of the input close all the open groups, so the
+         * aggregator row added by {@linkplain #withShowAggregation(boolean)}
+         * becomes the grand total. The levels are added outermost first. The
+         * records are streamed, the groups are not buffered.
+         * </p>
+         * <p>
+         * Each level keeps its own state for the columns with mergeable
+         * extractors (see {@linkplain DataExtractor#getCombiner()}): a new
+         * state is started for each group and it is merged into the state of
+         * the enclosing group when the group is closed. The rest of the
+         * columns keep one state and receive the aggregator keys of the
+         * levels to handle the subtotals by themselves.
+         * </p>
+         *
+         * @param keyExtractor
+         *            The closure extracting the group key from a record. The
+         *            keys are compared by {@linkplain Object#equals(Object)}.
+         * @param aggregatorKey
+         *            The key of the aggregator rows of the level.
+         * @return The builder instance.
+         */
+        public Builder<D> withGroupBy(Function<D, ?> keyExtractor, Object aggregatorKey) {
+            groupKeyExtractors.add(keyExtractor);
+            groupAggregatorKeys.add(aggregatorKey);
+            return this;
+        }
+
+        /**
+         * Enables the grouping of unsorted input.
+         * <p>
+         * By default the group-by levels (see
+         * {@linkplain #withGroupBy(Function, Object)}) expect the input
+         * sorted by the group keys. With hash grouping, the records between
+         * the explicit separator and aggregator rows are grouped by hashing
+         * first, and the groups are rendered in the given order (the records
+         * of a group keep their input order). For key order the keys should
+         * be {@linkplain Comparable}.
+         * </p>
+         *
+         * @param order
+         *            The order of the groups or null to expect sorted input.
+         * @return The builder instance.
+         */
+        public Builder<D> withHashGrouping(GroupOrder order) {
+            this.hashGroupOrder = order;
+            return this;
+        }
+
+        /**
+         * Sorts the data records by the given comparator before rendering.
+         * <p>
+         * The records are sorted within each segment between the explicit
+         * separator and aggregator rows, so these rows keep their position.
+         * The sort is stable. Sorting happens before grouping (see
+         * {@linkplain #withGroupBy(Function, Object)}), so combined with
+         * {@linkplain #withHashGrouping(GroupOrder)} the records are sorted
+         * within each group.
+         * </p>
+         *
+         * @param comparator
+         *            The comparator of the records or null to keep the input
+         *            order.
+         * @return The builder instance.
+         */
+        public Builder<D> withSortBy(Comparator<? super D> comparator) {
+            this.sortComparator = comparator;
+            this.sortColumn = -1;
+            return this;
+        }
+
+        /**
+         * Sorts the data records by the extracted value of a column in
+         * ascending order.
+         *
+         * @param columnIndex
+         *            The index of the column.
+         * @return The builder instance.
+         * @see #withSortBy(int, boolean)
+         */
+        public Builder<D> withSortBy(int columnIndex) {
+            return withSortBy(columnIndex, true);
+        }
+
+        /**
+         * Sorts the data records by the extracted value of a column.
+         * <p>
+         * The values are extracted by the row extractor of the column before
+         * the records are processed, and compared by their natural order, the
+         * nulls first. The values must be {@linkplain Comparable}. Otherwise see
+         * {@linkplain #withSortBy(Comparator)}.
+         * </p>
+         * <p>
+         * The column must have a {@linkplain StatelessDataExtractor} (but not
+         * a {@linkplain LookaheadDataExtractor}), since the value of a stateful
+         * column depends on the preceding records. Otherwise the
+         * {@linkplain #build()} method throws an exception.
+         * </p>
+         *
+         * @param columnIndex
+         *            The index of the column.
+         * @param ascending
+         *            If false, the order is reversed.
+         * @return The builder instance.
+         */
+        public Builder<D> withSortBy(int columnIndex, boolean ascending) {
+            if (columnIndex < 0) {
+                throw new IllegalArgumentException("Invalid column index: " + columnIndex);
+            }
+            this.sortColumn = columnIndex;
+            this.sortAscending = ascending;
+            this.sortComparator = null;
+            return this;
+        }
+
+        /**
+         * Keeps only the best records of the table.
+         *
+         * @param limit
+         *            The maximum number of records shown per segment.
+         * @param comparator
+         *            The comparator ordering the best records first.
+         * @return The builder instance.
+         * @see #withLimit(int, Comparator, boolean)
+         */
+        public Builder<D> withLimit(int limit, Comparator<? super D> comparator) {
+            return withLimit(limit, comparator, true);
+        }
+
+        /**
+         * Keeps only the best records of the table (top-K mode).
+         * <p>
+         * The records are streamed through a bounded heap, so only the kept
+         * records are held in memory and converted. The limit applies to
+         * each segment between the separator and aggregator rows (including
+         * the subtotal rows of {@linkplain #withGroupBy(Function, Object)}),
+         * and the kept records are shown in the order of the comparator.
+         * Equal records keep their input order.
+         * </p>
+         * <p>
+         * If the left out records are aggregated, they are passed to the row
+         * extractors (without conversion) as soon as they are left out, so the
+         * aggregator rows cover all the records. Otherwise the aggregator rows
+         * only cover the shown records.
+         * </p>
+         *
+         * @param limit
+         *            The maximum number of records shown per segment.
+         * @param comparator
+         *            The comparator ordering the best records first.
+         * @param aggregateRejected
+         *            Whether the left out records are aggregated.
+         * @return The builder instance.
+         */
+        public Builder<D> withLimit(int limit, Comparator<? super D> comparator, boolean aggregateRejected) {
+            if (limit < 1) {
+                throw new IllegalArgumentException("Limit should be positive: " + limit);
+            }
+            this.limit = limit;
+            this.limitComparator = Objects.requireNonNull(comparator, "comparator");
+            this.aggregateRejected = aggregateRejected;
+            return this;
+        }
+
+        /**
+         * Shows only the records matching the predicate.
+         *
+         * @param filter
+         *            The predicate of the shown records or null to show all.
+         * @return The builder instance.
+         * @see #withFilter(Predicate, boolean)
+         */
+        public Builder<D> withFilter(Predicate<? super D> filter) {
+            return withFilter(filter, false);
+        }
+
+        /**
+         * Shows only the records matching the predicate.
+         * <p>
+         * If the rejected records are not aggregated, they are dropped before
+         * any other stage, so no {@linkplain DataExtractor} or
+         * {@linkplain DataConverter} is called for them.
+         * </p>
+         * <p>
+         * If the rejected records are aggregated, they are passed to the row
+         * extractors (without conversion), so the aggregator rows cover all
+         * the records. In this case the records are filtered after the sorting
+         * and the grouping, so the subtotals also cover them. When sorting by
+         * a column (see {@linkplain #withSortBy(int, boolean)}), the value of
+         * the sort column is therefore extracted for the rejected records as
+         * well.
+         * </p>
+         * <p>
+         * The filter is applied before the limit (see
+         * {@linkplain #withLimit(int, Comparator, boolean)}).
+         * </p>
+         *
+         * @param filter
+         *            The predicate of the shown records or null to show all.
+         * @param aggregateFiltered
+         *            Whether the rejected records are aggregated.
+         * @return The builder instance.
+         */
+        public Builder<D> withFilter(Predicate<? super D> filter, boolean aggregateFiltered) {
+            this.filter = filter;
+            this.aggregateFiltered = aggregateFiltered;
+            return this;
+        }
+
+        /**
+         * Specifies whether to process the data records in parallel.
+         * <p>
+         * When enabled, long runs of data records (between separator and
+         * aggregator rows) are cut into chunks, which are extracted and
+         * converted on the common fork-join pool, each chunk with its own
+         * state objects. The partial states are merged in the order of the
+         * chunks by the combiners of the data extractors before the next
+         * aggregator row is evaluated.
+         * </p>
+         * <p>
+         * All the columns must have mergeable extractors (see
+         * {@linkplain DataExtractor#getCombiner()}), and the row extractors
+         * must not depend on the state for their returned value. The
+         * extractors are also called from several threads. Default is false.
+         * </p>
+         *
+         * @param parallelAggregation
+         *            If true, the records are processed in parallel.
+         * @return The builder instance.
+         */
+        public Builder<D> withParallelAggregation(boolean parallelAggregation) {
+            this.parallelAggregation = parallelAggregation;
+            return this;
+        }
+
+        /**
+         * Attaches a listener receiving the timings and counts of each render
+         * phase.
+         * <p>
+         * The default is {@linkplain RenderListener#NONE}, in which case no
+         * measurement is done at all (unless the {@linkplain TableRenderEvent}
+         * is enabled in a flight recording). See
+         * {@linkplain HistogramRenderListener} for a built-in implementation.
+         * </p>
+         *
+         * @param renderListener
+         *            The listener to notify.
+         * @return The builder instance.
+         */
+        public Builder<D> withRenderListener(RenderListener renderListener) {
+            this.renderListener = renderListener == null ? RenderListener.NONE : renderListener;
+            return this;
+        }
+
+        /**
+         * Limits the total width of the table (including the borders).
+         * <p>
+         * When the columns at their natural width (the widest value bounded
+         * by {@linkplain CellContentFormatter#getMaxWidth()}) don't fit, they
+         * are shrunk based on the histograms of their cell widths collected
+         * while measuring the cells. Each character is taken away from the
+         * column where it cuts the fewest cells, so the few wide outliers are
+         * cut first and the columns with uniformly wide values are kept as
+         * long as possible. The cut values are shortened by the elipsis
+         * decorator or wrapped (see
+         * {@linkplain CellContentFormatter.Builder#withMaxLines(int)}) as
+         * configured for the column.
+         * </p>
+         * <p>
+         * The columns are not shrunk below their minimal width
+         * ({@linkplain CellContentFormatter#getMinWidth()}) or below
+         * {@value TableFormatter#MIN_FITTED_WIDTH} characters, so a table
+         * with many columns may still be wider than the limit. Default value
+         * if not set: no limit.
+         * </p>
+         *
+         * @param maxTableWidth
+         *            The maximal width of the table.
+         * @return The builder instance.
+         * @throws IllegalArgumentException
+         *             If the width is not positive.
+         */
+        public Builder<D> withMaxTableWidth(int maxTableWidth) {
+            if (maxTableWidth < 1) {
+                throw new IllegalArgumentException("Table width should be positive: " + maxTableWidth);
+            }
+            this.maxTableWidth = maxTableWidth;
+            return this;
+        }
+
+        /**
+         * Splits the columns of wide tables into pages fitting into the given
+         * width.
+         * <p>
+         * The pages are rendered one below the other, separated by an empty
+         * line, each as a complete table with its own borders, heading and
+         * header. The columns are put on the pages in their order, as many as
+         * fit (but at least one) on each page. The repeated columns (usually
+         * the key columns identifying the rows) are shown on every page, at
+         * their original position. All pages are rendered from the same
+         * processed data, so the records are extracted and converted only
+         * once, and a row has the same column widths on every page. Default
+         * value if not set: no paging.
+         * </p>
+         *
+         * @param pageWidth
+         *            The maximal width of a page (including the borders).
+         * @param repeatedColumns
+         *            The indexes of the columns to show on every page.
+         * @return The builder instance.
+         * @throws IllegalArgumentException
+         *             If the width is not positive.
+         */
+        public Builder<D> withPageWidth(int pageWidth, int... repeatedColumns) {
+            if (pageWidth < 1) {
+                throw new IllegalArgumentException("Page width should be positive: " + pageWidth);
+            }
+            this.pageWidth = pageWidth;
+            this.repeatedColumns = repeatedColumns.clone();
+            return this;
+        }
+
+        /**
+         * Specifies whether to collect the histograms of the cell widths.
+         * <p>
+         * The histograms are collected while measuring the cells for the
+         * column widths, so the cells are not scanned again. They are
+         * available through {@linkplain TableData#getWidthHistogram(int)},
+         * reported to the
+         * {@linkplain RenderListener#columnMeasured(int, String, WidthHistogram)
+         * render listener} and recorded as
+         * {@linkplain hu.vissy.texttable.instrumentation.ColumnWidthEvent flight
+         * recorder events}. They help to choose the maximal widths of the
+         * columns, for example the 99th percentile cuts only the widest 1% of
+         * the values. The histograms are always collected when
+         * {@linkplain #withMaxTableWidth(int)} is set. Default is false.
+         * </p>
+         *
+         * @param widthHistograms
+         *            If true, the width histograms are collected.
+         * @return The builder instance.
+         */
+        public Builder<D> withWidthHistograms(boolean widthHistograms) {
+            this.widthHistograms = widthHistograms;
+            return this;
+        }
+
+        /**
+         * Specifies whether to omit the cell styles from the output.
+         * <p>
+         * The styles set by the cell stylers of the columns (see
+         * <code>withCellStyler</code> of
+         * {@linkplain ColumnDefinition.StatelessBuilder} and
+         * {@linkplain ColumnDefinition.StatefulBuilder}) are emitted as ANSI
+         * escape sequences around the cell data. When the output is not
+         * written to a terminal (a file, a log, a pipe), these sequences are
+         * only noise, so they can be stripped. The layout of the table is the
+         * same in both modes, since the escape sequences are never counted
+         * into the column widths. CSV exports always strip the styles. Default
+         * is false.
+         * </p>
+         *
+         * @param stripStyles
+         *            If true, the cell styles are not emitted.
+         * @return The builder instance.
+         */
+        public Builder<D> withStripStyles(boolean stripStyles) {
+            this.stripStyles = stripStyles;
+            return this;
+        }
+
+        /**
+         * Marks the formatter as a CSV exporter, so it emits
+         * {@linkplain CsvExportEvent} instead of {@linkplain TableRenderEvent}.
+         *
+         * @return The builder instance.
+         */
+        Builder<D> withCsvExport() {
+            this.csvExport = true;
+            this.stripStyles = true;
+            return this;
+        }
+
         /**
          * @return The created {@linkplain TableFormatter} istance.
          */
         public TableFormatter<D> build() {
+            if (sortColumn >= columns.size()) {
+                throw new IllegalStateException("Invalid sort column index: " + sortColumn);
+            }
+            if (sortColumn >= 0) {
+                DataExtractor<D, ?, ?> extractor = columns.get(sortColumn).getDataExtractor();
+                if (!(extractor instanceof StatelessDataExtractor) || extractor instanceof LookaheadDataExtractor) {
+                    throw new IllegalStateException("Sort column should have a stateless data extractor: "
+                            + columns.get(sortColumn).getTitle());
+                }
+            }
+            for (int columnIndex : repeatedColumns) {
+                if (columnIndex < 0 || columnIndex >= columns.size()) {
+                    throw new IllegalStateException("Invalid repeated column index: " + columnIndex);
+                }
+            }
+            if (parallelAggregation) {
+                for (ColumnDefinition<D, ?, ?> cd : columns) {
+                    if (!cd.getDataExtractor().isMergeable()) {
+                        throw new IllegalStateException("Parallel aggregation needs mergeable data extractors: " + cd.getTitle());
+                    }
+                }
+            }
             return new TableFormatter<>(this);
         }
     }
 
     class IndexedColumnDefinition<S, T> {
-        private ColumnDefinition<D, S, T> definition;
-        private int index;
+        private final ColumnDefinition<D, S, T> definition;
+        private final int index;
+        private final ColumnPipeline<D, S, T> pipeline;
 
-        public IndexedColumnDefinition(int index, ColumnDefinition<D, S, T> definition) {
+        public IndexedColumnDefinition(int index, ColumnDefinition<D, S, T> definition, DataConverter<String> headerConverter) {
             super();
             this.definition = definition;
             this.index = index;
+            this.pipeline = new ColumnPipeline<>(definition, headerConverter);
+        }
+
+        ColumnPipeline<D, S, T> getPipeline() {
+            return pipeline;
         }
 
         public ColumnDefinition<D, S, T> getDefinition() {
@@ -431,24 +910,220 @@ public class TableFormatter<D> {
         }
     }
 
-    private List<IndexedColumnDefinition<?, ?>> columns;
-    private BorderFormatter borderFormatter;
-    private String heading;
-    private boolean showAggregation;
-    private boolean separateDataWithLines;
-    private boolean showHeader;
-    private DataConverter<String> headerConverter;
+    /**
+     * The structures reused between renders on the same thread.
+     */
+    private static final class RenderScratch<D> {
+        private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+        private StringBuilder buffer = new StringBuilder(1024);
+        private final TableData<D> tableData;
+        private boolean inUse = false;
+
+        RenderScratch(TableFormatter<D> formatter) {
+            tableData = new TableData<>(formatter);
+        }
+
+        void release() {
+            tableData.clear();
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                buffer = new StringBuilder(1024);
+            }
+            buffer.setLength(0);
+            inUse = false;
+        }
+    }
+
+    private static final CellContentFormatter HEADING_FORMATTER = CellContentFormatter.leftAlignedCell();
+
+    /**
+     * The width the columns are not shrunk below when fitting the table into
+     * the maximal table width.
+     */
+    static final int MIN_FITTED_WIDTH = 4;
+
+    private static final LineSink NO_SINK = buffer -> {
+    };
+
+    /**
+     * The state of one render call. The formatter itself is never modified
+     * while rendering, everything derived from the actual data lives here, so
+     * the same formatter may be used by several threads concurrently. It also
+     * writes the cells of the actual row directly into the row buffer.
+     */
+    private final class RenderContext implements BorderFormatter.CellWriter {
+        private final TableData<D> tableData;
+        private final int[] columnIndexes;
+        private final int[] widths;
+        private final int[] headerWidths;
+        private final String headingCell;
+        private final StringBuilder buffer;
+        private final ColumnPipeline<D, ?, ?>[] pipelines;
+        private final RenderStatistics stats;
+        private final int[] lineStarts;
+        private final CellStyle[] styles;
+        private final int fromRow;
+        private final int toRow;
+        private TableRow row;
+        private int line;
+
+        RenderContext(TableData<D> tableData, StringBuilder buffer, RenderStatistics stats) {
+            this(tableData, buffer, stats, null, 0, tableData.getRows().size());
+        }
+
+        /**
+         * Creates the context of a page containing only the given columns
+         * (all if null) and rows.
+         */
+        @SuppressWarnings("unchecked")
+        RenderContext(TableData<D> tableData, StringBuilder buffer, RenderStatistics stats, int[] columnIndexes,
+                int fromRow, int toRow) {
+            this.tableData = tableData;
+            this.buffer = buffer;
+            this.stats = stats;
+            this.columnIndexes = columnIndexes;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            if (columnIndexes == null) {
+                this.widths = tableData.getColumnWidthArray();
+                this.headerWidths = tableData.getHeaderWidthArray();
+                this.pipelines = tableData.getPipelines();
+                this.styles = null;
+            } else {
+                this.widths = new int[columnIndexes.length];
+                this.headerWidths = new int[columnIndexes.length];
+                this.pipelines = (ColumnPipeline<D, ?, ?>[]) new ColumnPipeline<?, ?, ?>[columnIndexes.length];
+                this.styles = new CellStyle[columnIndexes.length];
+                for (int i = 0; i < columnIndexes.length; i++) {
+                    widths[i] = tableData.getColumnWidthArray()[columnIndexes[i]];
+                    headerWidths[i] = tableData.getHeaderWidthArray()[columnIndexes[i]];
+                    pipelines[i] = tableData.getPipelines()[columnIndexes[i]];
+                }
+            }
+            this.lineStarts = new int[pipelines.length];
+            if (heading != null) {
+                headingCell = HEADING_FORMATTER.formatCell(heading, borderFormatter.calculateOneColumnWidth(widths));
+            } else {
+                headingCell = null;
+            }
+        }
+
+        @Override
+        public void writeCell(StringBuilder sb, int columnIndex) {
+            CellContentFormatter formatter = pipelines[columnIndex].getCellContentFormatter();
+            int tableColumn = columnIndexes == null ? columnIndex : columnIndexes[columnIndex];
+            if (row == null) {
+                formatter.formatCell(sb, pipelines[columnIndex].getHeaderText(), headerWidths[columnIndex], widths[columnIndex]);
+            } else if (row.getHeight() == 1) {
+                formatter.formatCell(sb, row.getValue(tableColumn), row.getWidth(tableColumn), widths[columnIndex]);
+            } else {
+                lineStarts[columnIndex] = formatter.formatLine(sb, row.getValue(tableColumn), row.getWidth(tableColumn),
+                        widths[columnIndex], line, line == 0 ? 0 : lineStarts[columnIndex]);
+            }
+        }
+
+        /**
+         * @return The number of lines of the row on this page.
+         */
+        int heightOf(TableRow tr) {
+            if (tr == null || tr.getHeight() == 1 || columnIndexes == null) {
+                return tr == null ? 1 : tr.getHeight();
+            }
+            int height = 1;
+            for (int columnIndex : columnIndexes) {
+                height = Math.max(height, tr.getLines(columnIndex));
+            }
+            return height;
+        }
+
+        /**
+         * @return The styles of the cells of the row on this page.
+         */
+        CellStyle[] stylesOf(TableRow tr) {
+            if (tr == null || stripStyles || tr.getStyles() == null || columnIndexes == null) {
+                return tr == null || stripStyles ? null : tr.getStyles();
+            }
+            for (int i = 0; i < columnIndexes.length; i++) {
+                styles[i] = tr.getStyles()[columnIndexes[i]];
+            }
+            return styles;
+        }
+    }
+
+    private final List<IndexedColumnDefinition<?, ?>> columns;
+    private final BorderFormatter borderFormatter;
+    private final String heading;
+    private final boolean showAggregation;
+    private final boolean separateDataWithLines;
+    private final boolean showHeader;
+    private final DataConverter<String> headerConverter;
+    private final ThreadLocal<RenderScratch<D>> scratch;
+    private final RenderListener renderListener;
+    private final boolean csvExport;
+    private final boolean stripStyles;
+    private final int maxTableWidth;
+    private final boolean widthHistograms;
+    private final int pageWidth;
+    private final int[] repeatedColumns;
+    private final boolean parallelAggregation;
+    private final List<Function<D, ?>> groupKeyExtractors;
+    private final List<Object> groupAggregatorKeys;
+    private final GroupOrder hashGroupOrder;
+    private final Comparator<? super D> sortComparator;
+    private final int sortColumn;
+    private final boolean sortAscending;
+    private final int limit;
+    private final Comparator<? super D> limitComparator;
+    private final boolean aggregateRejected;
+    private final Predicate<? super D> filter;
+    private final boolean aggregateFiltered;
 
     private TableFormatter(Builder<D> builder) {
         this.showAggregation = builder.showAggregation;
         List<IndexedColumnDefinition<?, ?>> cols = new ArrayList<>();
-        builder.columns.stream().forEach(cd -> cols.add(new IndexedColumnDefinition<>(cols.size(), cd)));
+        builder.columns.stream().forEach(cd -> cols.add(new IndexedColumnDefinition<>(cols.size(), cd, builder.headerConverter)));
         this.columns = Collections.unmodifiableList(cols);
         this.borderFormatter = builder.borderFormatter;
         this.heading = builder.heading;
         this.showHeader = builder.showHeader;
         this.separateDataWithLines = builder.separateDataWithLines;
         this.headerConverter = builder.headerConverter;
+        this.renderListener = builder.renderListener;
+        this.csvExport = builder.csvExport;
+        this.stripStyles = builder.stripStyles;
+        this.maxTableWidth = builder.maxTableWidth;
+        this.widthHistograms = builder.widthHistograms;
+        this.pageWidth = builder.pageWidth;
+        this.repeatedColumns = builder.repeatedColumns;
+        this.parallelAggregation = builder.parallelAggregation;
+        this.groupKeyExtractors = Collections.unmodifiableList(new ArrayList<>(builder.groupKeyExtractors));
+        this.groupAggregatorKeys = Collections.unmodifiableList(new ArrayList<>(builder.groupAggregatorKeys));
+        this.hashGroupOrder = builder.hashGroupOrder;
+        this.sortComparator = builder.sortComparator;
+        this.sortColumn = builder.sortColumn;
+        this.sortAscending = builder.sortAscending;
+        this.limit = builder.limit;
+        this.limitComparator = builder.limitComparator;
+        this.aggregateRejected = builder.aggregateRejected;
+        this.filter = builder.filter;
+        this.aggregateFiltered = builder.aggregateFiltered;
+        this.scratch = builder.reuseRenderBuffers ? ThreadLocal.withInitial(() -> new RenderScratch<>(this)) : null;
+    }
+
+    /**
+     * @return The scratch structures of the current thread or null if reuse is
+     *         disabled or the scratch is already in use (nested render).
+     */
+    private RenderScratch<D> acquireScratch() {
+        if (scratch == null) {
+            return null;
+        }
+        RenderScratch<D> rs = scratch.get();
+        if (rs.inUse) {
+            return null;
+        }
+        rs.inUse = true;
+        return rs;
     }
 
 
@@ -463,58 +1138,366 @@ public class TableFormatter<D> {
         return applyToInput(InputBuilder.<D> convertFromVersion1(showAggregation, data));
     }
 
+    /**
+     * Applies the formatter on the list of input rows.
+     *
+     * @param data
+     *            The input rows (data, separator and aggregator rows) to apply
+     *            the formatter to.
+     * @return The formatted table.
+     */
     public String applyToInput(List<InputRow<D>> data) {
-        // Building intermediate structure
-        TableData<D> td = processData(data);
-        // Calculating column widths
-        List<Integer> widths = td.getColumnWidths();
+        AbstractRenderEvent event = createEvent();
+        RenderStatistics stats = createStatistics(event);
+        RenderScratch<D> rs = acquireScratch();
+        event.begin();
+        try {
+            TableData<D> td = rs == null ? new TableData<>(this) : rs.tableData;
+            StringBuilder sb = rs == null ? new StringBuilder() : rs.buffer;
+            td.populate(data, this, stats);
+            render(new RenderContext(td, sb, stats), NO_SINK);
+            String result = sb.toString();
+            report(stats, event, td, -1);
+            return result;
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        } finally {
+            if (rs != null) {
+                rs.release();
+            }
+        }
+    }
+
+    /**
+     * Renders a range of the rows of processed data.
+     * <p>
+     * The range is rendered as a complete table, with the heading, the header
+     * and the borders, using the column widths of the whole data. So the
+     * consecutive ranges (pages) of the same data line up with each other.
+     * The rows are accessed directly, the cost of the render is proportional
+     * to the size of the range, not to the size of the data. This allows
+     * paging through a large table (for example in a user interface) by
+     * processing the data once (see {@linkplain #processData(List)}) and
+     * rendering only the requested page on each request.
+     * </p>
+     * <p>
+     * The indexes refer to {@linkplain TableData#getRowsUnmodifiable()}
+     * (including the separator and aggregator rows). Each range starts as if
+     * it was the start of the table, so the line drawn above a row depends
+     * only on the rows within the range.
+     * </p>
+     *
+     * @param tableData
+     *            The data processed by this formatter.
+     * @param fromIndex
+     *            The index of the first row to render (inclusive).
+     * @param toIndex
+     *            The index after the last row to render (exclusive).
+     * @return The formatted rows.
+     * @throws IllegalArgumentException
+     *             If the data has different columns than the formatter.
+     * @throws IndexOutOfBoundsException
+     *             If the range is out of the rows of the data.
+     */
+    public String applyToRows(TableData<D> tableData, int fromIndex, int toIndex) {
+        if (tableData.getColumnCount() != columns.size()) {
+            throw new IllegalArgumentException("The data is processed by an other formatter.");
+        }
+        int rowCount = tableData.getRowCount();
+        if (fromIndex < 0 || toIndex > rowCount || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid row range " + fromIndex + "-" + toIndex + " of " + rowCount + " rows.");
+        }
+        AbstractRenderEvent event = createEvent();
+        RenderStatistics stats = createStatistics(event);
+        event.begin();
+        try {
+            StringBuilder sb = new StringBuilder();
+            render(new RenderContext(tableData, sb, stats, null, fromIndex, toIndex), NO_SINK);
+            report(stats, event, tableData, -1);
+            return sb.toString();
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Applies the formatter on the list of records and writes the result into
+     * a channel using UTF-8 encoding.
+     *
+     * @param data
+     *            The data apply the formatter to.
+     * @param channel
+     *            The channel to write the formatted table to.
+     * @throws IOException
+     *             When writing to the channel fails.
+     * @see #applyToChannel(List, WritableByteChannel, Charset)
+     */
+    public void apply(List<D> data, WritableByteChannel channel) throws IOException {
+        applyToChannel(InputBuilder.<D> convertFromVersion1(showAggregation, data), channel, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Applies the formatter on the list of input rows and writes the result
+     * into a channel.
+     *
+     * <p>
+     * The rows are rendered into a reused row buffer and encoded directly into
+     * pooled direct byte buffers. A full buffer is written to the channel and
+     * then reused, so the table is never built up as a whole string. The
+     * channel should be a blocking one (such as a {@linkplain FileChannel} or
+     * a blocking socket channel) and is not closed by this method.
+     * </p>
+     *
+     * @param data
+     *            The input rows (data, separator and aggregator rows) to apply
+     *            the formatter to.
+     * @param channel
+     *            The channel to write the formatted table to.
+     * @param charset
+     *            The charset to encode the table with.
+     * @throws IOException
+     *             When writing to the channel fails.
+     */
+    public void applyToChannel(List<InputRow<D>> data, WritableByteChannel channel, Charset charset) throws IOException {
+        AbstractRenderEvent event = createEvent();
+        RenderStatistics stats = createStatistics(event);
+        RenderScratch<D> rs = acquireScratch();
+        event.begin();
+        ByteChannelWriter writer = new ByteChannelWriter(channel, charset, DirectBufferPool.SHARED);
+        TableData<D> td = rs == null ? new TableData<>(this) : rs.tableData;
+        try {
+            StringBuilder sb = rs == null ? new StringBuilder(DirectBufferPool.SHARED.getBufferSize()) : rs.buffer;
+            td.populate(data, this, stats);
+            int flushLimit = DirectBufferPool.SHARED.getBufferSize() / 2;
+            render(new RenderContext(td, sb, stats), rowBuffer -> {
+                if (rowBuffer.length() >= flushLimit) {
+                    writer.write(rowBuffer);
+                    rowBuffer.setLength(0);
+                }
+            });
+            writer.write(sb);
+        } catch (Throwable e) {
+            // The partial table is not flushed
+            writer.abort();
+            throw e;
+        } finally {
+            if (rs != null) {
+                rs.release();
+            }
+        }
+        writer.finish();
+        report(stats, event, td, writer.getBytesWritten());
+    }
+
+    private AbstractRenderEvent createEvent() {
+        return csvExport ? new CsvExportEvent() : new TableRenderEvent();
+    }
+
+    private RenderStatistics createStatistics(AbstractRenderEvent event) {
+        if (renderListener == RenderListener.NONE && !event.isEnabled()) {
+            return null;
+        }
+        return new RenderStatistics(columns.size());
+    }
+
+    private void report(RenderStatistics stats, AbstractRenderEvent event, TableData<D> td, long bytes) {
+        if (stats == null) {
+            return;
+        }
+        if (renderListener != RenderListener.NONE) {
+            stats.report(renderListener, td.getPipelines(), bytes);
+            td.reportWidthHistograms(renderListener);
+        }
+        if (event.shouldCommit()) {
+            event.setTable(heading, columns.size());
+            stats.report(event, td.getPipelines(), bytes);
+            event.commit();
+        }
+    }
+
+    /**
+     * Receives the render buffer after each completed line.
+     */
+    @FunctionalInterface
+    private interface LineSink {
+        void lineCompleted(StringBuilder buffer) throws IOException;
+    }
+
+    /**
+     * A sink counting the produced characters before passing the buffer on.
+     */
+    private static final class CountingLineSink implements LineSink {
+        private final LineSink target;
+        private final RenderStatistics stats;
+        private int mark = 0;
+
+        CountingLineSink(LineSink target, RenderStatistics stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public void lineCompleted(StringBuilder buffer) throws IOException {
+            stats.addCharacters(buffer.length() - mark);
+            target.lineCompleted(buffer);
+            mark = buffer.length();
+        }
+    }
+
+    private void drawLine(RenderContext ctx, LineType lineType, boolean skipInternal) {
+        long start = ctx.stats == null ? 0 : System.nanoTime();
+        borderFormatter.drawLine(ctx.buffer, ctx.widths, lineType, skipInternal);
+        if (ctx.stats != null) {
+            ctx.stats.addSince(RenderPhase.LINE_DRAWING, start, 1);
+        }
+    }
+
+    private void drawRow(RenderContext ctx, TableRow tr, RowType rowType) {
+        long start = ctx.stats == null ? 0 : System.nanoTime();
+        ctx.row = tr;
+        int height = ctx.heightOf(tr);
+        CellStyle[] styles = ctx.stylesOf(tr);
+        for (int line = 0; line < height; line++) {
+            ctx.line = line;
+            borderFormatter.drawData(ctx.buffer, ctx.pipelines.length, ctx, styles, rowType);
+        }
+        if (ctx.stats != null) {
+            ctx.stats.addSince(RenderPhase.ROW_RENDERING, start, 1);
+            if (tr != null) {
+                ctx.stats.addRow();
+            }
+        }
+    }
+
+    private void render(RenderContext ctx, LineSink lineSink) throws IOException {
+        LineSink sink = ctx.stats == null ? lineSink : new CountingLineSink(lineSink, ctx.stats);
+        if (pageWidth == 0) {
+            renderPage(ctx, sink);
+            return;
+        }
+        int[][] pages = splitPages(ctx.tableData.getColumnWidthArray());
+        for (int page = 0; page < pages.length; page++) {
+            if (page > 0) {
+                ctx.buffer.append('\n');
+            }
+            renderPage(pages.length == 1 ? ctx
+                    : new RenderContext(ctx.tableData, ctx.buffer, ctx.stats, pages[page], ctx.fromRow, ctx.toRow), sink);
+        }
+    }
+
+    /**
+     * Splits the columns into pages fitting into the page width. The repeated
+     * columns are put on each page, the rest of the columns are distributed in
+     * order, at least one on each page.
+     *
+     * @param widths
+     *            The column widths.
+     * @return The column indexes of each page, in ascending order.
+     */
+    private int[][] splitPages(int[] widths) {
+        boolean[] repeated = new boolean[widths.length];
+        for (int columnIndex : repeatedColumns) {
+            repeated[columnIndex] = true;
+        }
+        List<int[]> pages = new ArrayList<>();
+        List<Integer> page = new ArrayList<>();
+        for (int columnIndex = 0; columnIndex < widths.length; columnIndex++) {
+            if (repeated[columnIndex]) {
+                continue;
+            }
+            page.add(columnIndex);
+            if (page.size() > 1 && borderFormatter.calculateTableWidth(pageWidths(page, repeated, widths)) > pageWidth) {
+                page.remove(page.size() - 1);
+                pages.add(pageColumns(page, repeated));
+                page.clear();
+                page.add(columnIndex);
+            }
+        }
+        if (!page.isEmpty() || pages.isEmpty()) {
+            pages.add(pageColumns(page, repeated));
+        }
+        return pages.toArray(new int[pages.size()][]);
+    }
+
+    private static int[] pageColumns(List<Integer> page, boolean[] repeated) {
+        int[] result = new int[page.size() + countTrue(repeated)];
+        int i = 0;
+        int next = 0;
+        for (int columnIndex = 0; columnIndex < repeated.length; columnIndex++) {
+            if (repeated[columnIndex] || (next < page.size() && page.get(next) == columnIndex)) {
+                result[i++] = columnIndex;
+                if (!repeated[columnIndex]) {
+                    next++;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int[] pageWidths(List<Integer> page, boolean[] repeated, int[] widths) {
+        int[] columns = pageColumns(page, repeated);
+        int[] result = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            result[i] = widths[columns[i]];
+        }
+        return result;
+    }
+
+    private static int countTrue(boolean[] values) {
+        int count = 0;
+        for (boolean v : values) {
+            if (v) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void renderPage(RenderContext ctx, LineSink sink) throws IOException {
 
-        StringBuilder sb = new StringBuilder();
         // Printing heading
-        if (heading != null) {
-            sb.append(borderFormatter.drawLine(widths, LineType.TOP_EDGE, true));
-            int maxHeadingWidth = borderFormatter.calculateOneColumnWidth(widths);
-            if (heading.length() > maxHeadingWidth) {
-                heading = new EllipsisDecorator.Builder().build().decorate(heading, maxHeadingWidth);
+        if (ctx.headingCell != null) {
+            drawLine(ctx, LineType.TOP_EDGE, true);
+            long start = ctx.stats == null ? 0 : System.nanoTime();
+            borderFormatter.drawData(ctx.buffer, new String[] { ctx.headingCell }, RowType.HEADING);
+            if (ctx.stats != null) {
+                ctx.stats.addSince(RenderPhase.ROW_RENDERING, start, 1);
             }
-            sb.append(borderFormatter.drawData(
-                    Collections.singletonList(String.format("%1$-" + maxHeadingWidth + "s", heading)),
-                    RowType.HEADING));
-            sb.append(borderFormatter.drawLine(widths, LineType.HEADING_LINE, false));
+            drawLine(ctx, LineType.HEADING_LINE, false);
         } else {
-            sb.append(borderFormatter.drawLine(widths, LineType.TOP_EDGE, false));
+            drawLine(ctx, LineType.TOP_EDGE, false);
         }
 
         // Printing header
         if (showHeader) {
-            sb.append(borderFormatter.drawData(columns.stream()
-                    .map(cd -> cd.getDefinition().getCellContentFormatter()
-                            .formatCell(headerConverter.convert(cd.getTitle()), widths.get(cd.getIndex())))
-                    .collect(Collectors.toList()), RowType.HEADER));
-            sb.append(borderFormatter.drawLine(widths, LineType.HEADER_LINE, false));
+            drawRow(ctx, null, RowType.HEADER);
+            drawLine(ctx, LineType.HEADER_LINE, false);
         }
+        sink.lineCompleted(ctx.buffer);
 
         // Printing data rows
         Type prevType = null;
-        for (TableRow tr : td.getRows()) {
+        List<TableRow> rows = ctx.tableData.getRows();
+        for (int rowIndex = ctx.fromRow; rowIndex < ctx.toRow; rowIndex++) {
+            TableRow tr = rows.get(rowIndex);
             if (prevType == Type.AGGREGATOR || tr.getType() == Type.AGGREGATOR) {
-                sb.append(borderFormatter.drawLine(widths, LineType.AGGREGATE_LINE, false));
+                drawLine(ctx, LineType.AGGREGATE_LINE, false);
             } else if (tr.getType() == Type.SEPARATOR) {
-                sb.append(borderFormatter.drawLine(widths, LineType.SEPARATOR_LINE, false));
+                drawLine(ctx, LineType.SEPARATOR_LINE, false);
             } else if (separateDataWithLines && prevType == Type.DATA) {
-                sb.append(borderFormatter.drawLine(widths, LineType.INTERNAL_LINE, false));
+                drawLine(ctx, LineType.INTERNAL_LINE, false);
             }
             if (tr.getType() != Type.SEPARATOR) {
-                sb.append(borderFormatter.drawData(columns.stream()
-                        .map(cd -> cd.getDefinition().getCellContentFormatter().formatCell(tr.getValue(cd.getIndex()), widths.get(cd.getIndex())))
-                        .collect(Collectors.toList()), RowType.DATA));
+                drawRow(ctx, tr, RowType.DATA);
             }
             prevType = tr.getType();
+            sink.lineCompleted(ctx.buffer);
         }
 
-        sb.append(borderFormatter.drawLine(widths, LineType.BOTTOM_EDGE, false));
-
-        return sb.toString();
+        drawLine(ctx, LineType.BOTTOM_EDGE, false);
+        sink.lineCompleted(ctx.buffer);
     }
 
 
@@ -522,8 +1505,8 @@ public class TableFormatter<D> {
      * Produces the intermediate data structure. The transformation applies the
      * data extraction and data conversion steps.
      * <p>
-     * <i>Note: this function has not much use except for debugging purposes,
-     * but is kept for future use, such as CSV export.</i>
+     * The processed data can be rendered in parts by
+     * {@linkplain #applyToRows(TableData, int, int)}.
      * </p>
      *
      * @param data
@@ -584,6 +1567,124 @@ public class TableFormatter<D> {
     }
 
 
+    /**
+     * @return Whether the cell styles are omitted from the output
+     */
+    public boolean isStripStyles() {
+        return stripStyles;
+    }
+
+
+    /**
+     * @return Whether the data records are processed in parallel
+     */
+    public boolean isParallelAggregation() {
+        return parallelAggregation;
+    }
+
+
+    /**
+     * @return The group key extractors, outermost level first
+     */
+    List<Function<D, ?>> getGroupKeyExtractors() {
+        return groupKeyExtractors;
+    }
+
+    /**
+     * @return The aggregator keys of the group levels, outermost level first
+     */
+    List<Object> getGroupAggregatorKeys() {
+        return groupAggregatorKeys;
+    }
+
+
+    /**
+     * @return The group order of the hash grouping or null if the input is
+     *         expected to be sorted
+     */
+    GroupOrder getHashGroupOrder() {
+        return hashGroupOrder;
+    }
+
+    /**
+     * @return The maximal width of the table or 0 if not limited
+     */
+    int getMaxTableWidth() {
+        return maxTableWidth;
+    }
+
+    /**
+     * @return Whether the width histograms are collected
+     */
+    boolean isWidthHistograms() {
+        return widthHistograms;
+    }
+
+    /**
+     * @return The comparator of the records or null
+     */
+    Comparator<? super D> getSortComparator() {
+        return sortComparator;
+    }
+
+    /**
+     * @return The index of the sort column or -1
+     */
+    int getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * @return Whether the sort column is in ascending order
+     */
+    boolean isSortAscending() {
+        return sortAscending;
+    }
+
+    /**
+     * @return The maximum number of records shown per segment or 0
+     */
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return The comparator of the limit or null
+     */
+    Comparator<? super D> getLimitComparator() {
+        return limitComparator;
+    }
+
+    /**
+     * @return Whether the records left out by the limit are aggregated
+     */
+    boolean isAggregateRejected() {
+        return aggregateRejected;
+    }
+
+    /**
+     * @return The predicate of the shown records or null
+     */
+    Predicate<? super D> getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return Whether the records rejected by the filter are aggregated
+     */
+    boolean isAggregateFiltered() {
+        return aggregateFiltered;
+    }
+
+
+    /**
+     * @return The render listener
+     */
+    public RenderListener getRenderListener() {
+        return renderListener;
+    }
+
+
     /**
      * @return The header converter
      */
@@ -4,6 +4,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import hu.vissy.texttable.contentformatter.CellStyle;
+
 /**
  * This class represents a data row in the table.
  *
@@ -26,20 +28,132 @@ public final class TableRow {
     }
 
     private String[] values;
+    private int[] widths;
+    private CellStyle[] styles;
     private Type type;
+    private int height = 1;
+    private int[] lines;
 
     TableRow(Type type, int columnCount) {
         this.type = type;
         values = new String[columnCount];
+        widths = new int[columnCount];
         Arrays.fill(values, "");
     }
 
 
+    void reset(Type type) {
+        this.type = type;
+        if (height > 1) {
+            Arrays.fill(lines, 1);
+            height = 1;
+        }
+        Arrays.fill(values, "");
+        if (styles != null) {
+            Arrays.fill(styles, null);
+        }
+    }
+
     void setData(int columnIndex, String value) {
         values[columnIndex] = value;
     }
 
+    /**
+     * Sets the style of a cell.
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @param style
+     *            The style or null.
+     */
+    void setStyle(int columnIndex, CellStyle style) {
+        if (styles == null) {
+            if (style == null) {
+                return;
+            }
+            styles = new CellStyle[values.length];
+        }
+        styles[columnIndex] = style;
+    }
 
+    /**
+     * @return The styles of the cells or null if none of them is styled. The
+     *         array is owned by this instance and should not be modified.
+     */
+    CellStyle[] getStyles() {
+        return styles;
+    }
+
+    /**
+     * @param columnIndex
+     *            The index of the column.
+     * @return The style of the cell or null.
+     */
+    public CellStyle getStyle(int columnIndex) {
+        return styles == null ? null : styles[columnIndex];
+    }
+
+    /**
+     * Caches the display width of a cell value.
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @param width
+     *            The display width of the value (or the null value).
+     */
+    void setWidth(int columnIndex, int width) {
+        widths[columnIndex] = width;
+    }
+
+    /**
+     * @param columnIndex
+     *            The index of the column.
+     * @return The cached display width of the value, valid after the column
+     *         widths are calculated.
+     */
+    int getWidth(int columnIndex) {
+        return widths[columnIndex];
+    }
+
+
+
+    /**
+     * Sets the number of lines of a wrapped cell (and raises the height of the
+     * row if needed).
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @param lineCount
+     *            The number of lines of the cell.
+     */
+    void setLines(int columnIndex, int lineCount) {
+        if (lines == null) {
+            lines = new int[values.length];
+            Arrays.fill(lines, 1);
+        }
+        lines[columnIndex] = lineCount;
+        if (lineCount > height) {
+            height = lineCount;
+        }
+    }
+
+    /**
+     * @param columnIndex
+     *            The index of the column.
+     * @return The number of lines of the cell, valid after the column widths
+     *         are calculated.
+     */
+    int getLines(int columnIndex) {
+        return lines == null ? 1 : lines[columnIndex];
+    }
+
+    /**
+     * @return The number of lines of the row, valid after the column widths
+     *         are calculated.
+     */
+    public int getHeight() {
+        return height;
+    }
 
     /**
      * @return An unmodifiable list of values of the row. (Note: this is for
@@ -0,0 +1,66 @@
+package hu.vissy.texttable;
+
+/**
+ * Shrinks the column widths to fit the table into a total width.
+ * <p>
+ * The width is taken away one character at a time from the column where it
+ * cuts the fewest cells, based on the width histograms of the columns. The
+ * number of cells cut by a step never decreases as a column gets narrower, so
+ * this greedy choice minimizes the total number of hidden characters. Wide
+ * outliers are therefore cut first, and the columns with uniformly wide
+ * values are kept as long as possible. On equal cost, the wider column is
+ * shrunk.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class WidthFitter {
+
+    private WidthFitter() {
+    }
+
+    /**
+     * Shrinks the widths so their sum doesn't exceed the available width.
+     *
+     * @param widths
+     *            The column widths to shrink in place.
+     * @param floors
+     *            The widths the columns should not be shrunk below.
+     * @param headerWidths
+     *            The widths of the column headers.
+     * @param histograms
+     *            The width histograms of the columns.
+     * @param available
+     *            The available total width of the columns.
+     * @return Whether the widths could fit (false if the floors exceed the
+     *         available width, in which case the columns are shrunk to their
+     *         floors).
+     */
+    static boolean fit(int[] widths, int[] floors, int[] headerWidths, WidthHistogram[] histograms, int available) {
+        long excess = -available;
+        for (int w : widths) {
+            excess += w;
+        }
+        while (excess > 0) {
+            int best = -1;
+            int bestCost = 0;
+            for (int i = 0; i < widths.length; i++) {
+                if (widths[i] <= floors[i]) {
+                    continue;
+                }
+                int cost = histograms[i].countWiderThan(widths[i] - 1) + (headerWidths[i] >= widths[i] ? 1 : 0);
+                if (best < 0 || cost < bestCost || (cost == bestCost && widths[i] > widths[best])) {
+                    best = i;
+                    bestCost = cost;
+                }
+            }
+            if (best < 0) {
+                return false;
+            }
+            widths[best]--;
+            excess--;
+        }
+        return true;
+    }
+}
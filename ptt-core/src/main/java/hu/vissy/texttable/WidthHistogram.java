@@ -0,0 +1,299 @@
+package hu.vissy.texttable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compact histogram of the display widths of the cells of a column.
+ *
+ * <p>
+ * The histogram is collected by {@linkplain TableData} while measuring the
+ * cells (see
+ * {@linkplain TableFormatter.Builder#withWidthHistograms(boolean)}). It counts
+ * the cells of the data and aggregator rows, the header is not included. The
+ * null values are counted by the width of the null value of the column and
+ * also in {@linkplain #getNullCount()}.
+ * </p>
+ * <p>
+ * The widths below {@value #EXACT_LIMIT} are counted exactly, the wider ones
+ * in buckets doubling in size (256-511, 512-1023, ...). Within these buckets
+ * the statistics are conservative: the percentiles return the upper bound of
+ * the bucket.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class WidthHistogram {
+
+    /**
+     * A range of widths and the number of cells falling into it.
+     *
+     * @author Balage
+     *
+     */
+    public static final class Bucket {
+        private final int minWidth;
+        private final int maxWidth;
+        private final int count;
+
+        private Bucket(int minWidth, int maxWidth, int count) {
+            this.minWidth = minWidth;
+            this.maxWidth = maxWidth;
+            this.count = count;
+        }
+
+        /**
+         * @return The lowest width of the bucket (inclusive).
+         */
+        public int getMinWidth() {
+            return minWidth;
+        }
+
+        /**
+         * @return The highest width of the bucket (inclusive).
+         */
+        public int getMaxWidth() {
+            return maxWidth;
+        }
+
+        /**
+         * @return The number of cells in the bucket.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return (minWidth == maxWidth ? String.valueOf(minWidth) : minWidth + "-" + maxWidth) + ": " + count;
+        }
+    }
+
+    /**
+     * The widths below this limit are counted exactly.
+     */
+    public static final int EXACT_LIMIT = 256;
+
+    private static final int EXACT_BITS = 8;
+    private static final int LARGE_BUCKETS = Integer.SIZE - 1 - EXACT_BITS;
+
+    private final int[] exact = new int[EXACT_LIMIT];
+    private final int[] large = new int[LARGE_BUCKETS];
+    private int count;
+    private int nullCount;
+    private int max;
+    private int[] wider;
+
+    /**
+     * Constructor of an empty histogram.
+     */
+    WidthHistogram() {
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other
+     *            The histogram to copy.
+     */
+    WidthHistogram(WidthHistogram other) {
+        System.arraycopy(other.exact, 0, exact, 0, EXACT_LIMIT);
+        System.arraycopy(other.large, 0, large, 0, LARGE_BUCKETS);
+        count = other.count;
+        nullCount = other.nullCount;
+        max = other.max;
+    }
+
+    /**
+     * Counts a cell.
+     *
+     * @param width
+     *            The display width of the cell.
+     */
+    void add(int width) {
+        if (width < EXACT_LIMIT) {
+            exact[width]++;
+        } else {
+            large[largeBucket(width)]++;
+        }
+        count++;
+        if (width > max) {
+            max = width;
+        }
+        wider = null;
+    }
+
+    /**
+     * Counts a null cell.
+     *
+     * @param width
+     *            The display width of the null value.
+     */
+    void addNull(int width) {
+        add(width);
+        nullCount++;
+    }
+
+    /**
+     * Drops all counts.
+     */
+    void clear() {
+        Arrays.fill(exact, 0);
+        Arrays.fill(large, 0);
+        count = 0;
+        nullCount = 0;
+        max = 0;
+        wider = null;
+    }
+
+    /**
+     * Returns the number of cells wider than the given width. Above
+     * {@value #EXACT_LIMIT} the bucket containing the width is counted as a
+     * whole.
+     *
+     * @param width
+     *            The width.
+     * @return The number of cells wider than the width.
+     */
+    public int countWiderThan(int width) {
+        if (width >= max) {
+            return 0;
+        }
+        if (width < 0) {
+            return count;
+        }
+        if (width < EXACT_LIMIT) {
+            if (wider == null) {
+                wider = suffixCounts();
+            }
+            return wider[width];
+        }
+        int sum = 0;
+        for (int i = largeBucket(width); i < LARGE_BUCKETS; i++) {
+            sum += large[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the smallest width not exceeded by the given percent of the
+     * cells.
+     * <p>
+     * For example <code>getPercentile(95)</code> is the width which cuts only
+     * the widest 5% of the cells when used as the maximal column width.
+     * </p>
+     *
+     * @param percent
+     *            The percent of the cells (between 0 and 100).
+     * @return The width or 0 if the histogram is empty.
+     * @throws IllegalArgumentException
+     *             If the percent is out of range.
+     */
+    public int getPercentile(double percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Percent should be between 0 and 100: " + percent);
+        }
+        long needed = (long) Math.ceil(count * percent / 100);
+        if (needed == 0) {
+            return 0;
+        }
+        long seen = 0;
+        for (int w = 0; w < EXACT_LIMIT; w++) {
+            seen += exact[w];
+            if (seen >= needed) {
+                return w;
+            }
+        }
+        for (int i = 0; i < LARGE_BUCKETS; i++) {
+            seen += large[i];
+            if (seen >= needed) {
+                return Math.min(max, largeBucketMax(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return The median width.
+     */
+    public int getP50() {
+        return getPercentile(50);
+    }
+
+    /**
+     * @return The width not exceeded by 95% of the cells.
+     */
+    public int getP95() {
+        return getPercentile(95);
+    }
+
+    /**
+     * @return The non-empty buckets in increasing width order. The buckets
+     *         below {@value #EXACT_LIMIT} contain a single width.
+     */
+    public List<Bucket> getBuckets() {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int w = 0; w < EXACT_LIMIT; w++) {
+            if (exact[w] > 0) {
+                buckets.add(new Bucket(w, w, exact[w]));
+            }
+        }
+        for (int i = 0; i < LARGE_BUCKETS; i++) {
+            if (large[i] > 0) {
+                buckets.add(new Bucket(EXACT_LIMIT << i, largeBucketMax(i), large[i]));
+            }
+        }
+        return Collections.unmodifiableList(buckets);
+    }
+
+    /**
+     * @return The number of counted cells (including the null values).
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return The number of null values.
+     */
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * @return The largest counted width.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "WidthHistogram [count=" + count + ", nullCount=" + nullCount + ", p50=" + getP50() + ", p95=" + getP95()
+                + ", max=" + max + "]";
+    }
+
+    private int[] suffixCounts() {
+        int[] result = new int[EXACT_LIMIT];
+        int sum = 0;
+        for (int b : large) {
+            sum += b;
+        }
+        for (int w = EXACT_LIMIT - 1; w >= 0; w--) {
+            result[w] = sum;
+            sum += exact[w];
+        }
+        return result;
+    }
+
+    private static int largeBucket(int width) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(width) - EXACT_BITS;
+    }
+
+    private static int largeBucketMax(int bucket) {
+        return bucket == LARGE_BUCKETS - 1 ? Integer.MAX_VALUE : (EXACT_LIMIT << (bucket + 1)) - 1;
+    }
+}
@@ -0,0 +1,121 @@
+package hu.vissy.texttable.aggregation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The common part of the aggregator builders: the mapping of the aggregator
+ * row keys to the shown value (a statistic, a quantile, etc.) and the group
+ * keys.
+ *
+ * @author Balage
+ *
+ * @param <A>
+ *            The type of the concrete builder.
+ * @param <V>
+ *            The type of the selection of the shown value.
+ */
+abstract class AggregatorBuilderBase<A extends AggregatorBuilderBase<A, V>, V> {
+
+    protected V selection;
+    protected Map<Object, V> keySelections = new HashMap<>();
+    protected Set<Object> groupKeys = new HashSet<>();
+
+    /**
+     * Constructor.
+     *
+     * @param selection
+     *            The default selection.
+     */
+    protected AggregatorBuilderBase(V selection) {
+        this.selection = selection;
+    }
+
+    /**
+     * Marks a key as a group (subtotal) key.
+     * <p>
+     * The aggregator rows with a group key show the value calculated from the
+     * records since the previous aggregator row with a group key, and start a
+     * new group. The rest of the aggregator rows show the value calculated
+     * from all the records so far.
+     * </p>
+     *
+     * @param key
+     *            The key of the aggregator row.
+     * @return The builder instance.
+     */
+    @SuppressWarnings("unchecked")
+    public A withGroupKey(Object key) {
+        groupKeys.add(key);
+        return (A) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected A select(V selection) {
+        this.selection = selection;
+        return (A) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected A select(Object key, V selection) {
+        keySelections.put(key, selection);
+        return (A) this;
+    }
+
+    /**
+     * @param selection
+     *            The selection to look for.
+     * @return Whether any aggregator row shows the given selection.
+     */
+    protected boolean isSelected(V selection) {
+        return this.selection == selection || keySelections.containsValue(selection);
+    }
+
+    /**
+     * @return Whether a group accumulator is needed (there is a group key).
+     */
+    protected boolean hasGroupKeys() {
+        return !groupKeys.isEmpty();
+    }
+
+    /**
+     * Creates the aggregate extractor closure from the current settings.
+     *
+     * @param total
+     *            Returns the accumulator of all the records from the state.
+     * @param group
+     *            Returns the accumulator of the current group from the state.
+     * @param value
+     *            Calculates the shown value from an accumulator.
+     * @param reset
+     *            Resets an accumulator.
+     * @param <S>
+     *            The type of the state.
+     * @param <G>
+     *            The type of the accumulator.
+     * @param <T>
+     *            The type of the shown value.
+     * @return The aggregate extractor closure.
+     */
+    protected <S, G, T> BiFunction<Object, S, T> createAggregateExtractor(Function<S, G> total, Function<S, G> group,
+            BiFunction<G, V, T> value, Consumer<G> reset) {
+        V defaultSelection = selection;
+        Map<Object, V> selections = new HashMap<>(keySelections);
+        Set<Object> groups = new HashSet<>(groupKeys);
+        return (k, s) -> {
+            V v = selections.getOrDefault(k, defaultSelection);
+            if (!groups.contains(k)) {
+                return value.apply(total.apply(s), v);
+            }
+            G accumulator = group.apply(s);
+            T result = value.apply(accumulator, v);
+            reset.accept(accumulator);
+            return result;
+        };
+    }
+}
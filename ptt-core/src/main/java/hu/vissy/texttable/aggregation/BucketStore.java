@@ -0,0 +1,107 @@
+package hu.vissy.texttable.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Counts of consecutive integer indexed buckets with a limited number of
+ * buckets.
+ *
+ * <p>
+ * The counts are stored in an array which grows as needed. When the range of
+ * the indexes would exceed the limit, the lowest buckets are collapsed into
+ * the lowest kept one.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class BucketStore {
+
+    private static final int INITIAL_SIZE = 32;
+
+    private final int maxBuckets;
+    private long[] counts = new long[0];
+    private int offset;
+    private int minIndex;
+    private int maxIndex;
+    private long total;
+
+    /**
+     * Constructor.
+     *
+     * @param maxBuckets
+     *            The maximum number of buckets.
+     */
+    BucketStore(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    void add(int index, long count) {
+        if (count == 0) {
+            return;
+        }
+        int newMin = total == 0 ? index : Math.min(minIndex, index);
+        int newMax = total == 0 ? index : Math.max(maxIndex, index);
+        long collapsed = 0;
+        if (newMax - newMin + 1 > maxBuckets) {
+            int lowest = newMax - maxBuckets + 1;
+            if (total > 0) {
+                for (int i = minIndex; i < lowest && i <= maxIndex; i++) {
+                    collapsed += counts[i - offset];
+                    counts[i - offset] = 0;
+                }
+            }
+            newMin = lowest;
+            index = Math.max(index, lowest);
+        }
+        ensureRange(newMin, newMax);
+        minIndex = newMin;
+        maxIndex = newMax;
+        counts[newMin - offset] += collapsed;
+        counts[index - offset] += count;
+        total += count;
+    }
+
+    private void ensureRange(int newMin, int newMax) {
+        if (counts.length > 0 && newMin >= offset && newMax < offset + counts.length) {
+            return;
+        }
+        int size = Math.min(maxBuckets, Math.max(newMax - newMin + 1, Math.max(INITIAL_SIZE, 2 * counts.length)));
+        int newOffset = total > 0 && newMin < minIndex ? newMax - size + 1 : newMin;
+        long[] newCounts = new long[size];
+        if (total > 0) {
+            for (int i = Math.max(minIndex, newMin); i <= Math.min(maxIndex, newMax); i++) {
+                newCounts[i - newOffset] = counts[i - offset];
+            }
+        }
+        counts = newCounts;
+        offset = newOffset;
+    }
+
+    void addAll(BucketStore other) {
+        for (int i = other.minIndex; other.total > 0 && i <= other.maxIndex; i++) {
+            add(i, other.counts[i - other.offset]);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    int getMinIndex() {
+        return minIndex;
+    }
+
+    int getMaxIndex() {
+        return maxIndex;
+    }
+
+    long getCount(int index) {
+        return index < minIndex || index > maxIndex ? 0 : counts[index - offset];
+    }
+}
@@ -0,0 +1,120 @@
+package hu.vissy.texttable.aggregation;
+
+/**
+ * A sum of double values calculated with Neumaier's variant of the Kahan
+ * compensated summation.
+ *
+ * <p>
+ * Adding many values of different magnitudes to a plain double loses
+ * precision. The compensated sum keeps the lost low-order part in a separate
+ * compensation term and adds it back when the sum is read. Beside the
+ * accumulator instance, the static methods allow keeping the sum and the
+ * compensation in primitive arrays.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+
+    /**
+     * Adds a value.
+     *
+     * @param value
+     *            The value to add.
+     */
+    public void add(double value) {
+        double t = sum + value;
+        compensation += error(sum, value, t);
+        sum = t;
+    }
+
+    /**
+     * Adds an other sum to this one.
+     *
+     * @param other
+     *            The sum to add. It is not modified.
+     */
+    public void add(CompensatedSum other) {
+        add(other.sum);
+        if (!Double.isInfinite(other.sum)) {
+            // The compensation of an infinite sum is meaningless (NaN)
+            add(other.compensation);
+        }
+    }
+
+    /**
+     * Sets this sum to the value of an other one.
+     *
+     * @param other
+     *            The sum to copy.
+     */
+    public void set(CompensatedSum other) {
+        sum = other.sum;
+        compensation = other.compensation;
+    }
+
+    /**
+     * Clears the sum.
+     */
+    public void reset() {
+        sum = 0;
+        compensation = 0;
+    }
+
+    /**
+     * @return The compensated sum of the values.
+     */
+    public double get() {
+        return total(sum, compensation);
+    }
+
+    /**
+     * Returns the rounding error of an addition.
+     *
+     * @param sum
+     *            The running (uncompensated) sum.
+     * @param value
+     *            The added value.
+     * @param t
+     *            The result of <code>sum + value</code>.
+     * @return The error to add to the compensation.
+     */
+    public static double error(double sum, double value, double t) {
+        if (Math.abs(sum) >= Math.abs(value)) {
+            return (sum - t) + value;
+        }
+        return (value - t) + sum;
+    }
+
+    /**
+     * Returns the compensated sum.
+     * <p>
+     * Once an infinite value is added, the compensation becomes NaN. In this
+     * case the plain sum is returned (like
+     * {@linkplain java.util.DoubleSummaryStatistics#getSum()} does), so the
+     * sum of finite and infinite values is infinite, and it is only NaN when
+     * a NaN or both infinities are added.
+     * </p>
+     *
+     * @param sum
+     *            The running (uncompensated) sum.
+     * @param compensation
+     *            The accumulated compensation.
+     * @return The compensated sum.
+     */
+    public static double total(double sum, double compensation) {
+        double total = sum + compensation;
+        if (Double.isNaN(total) && Double.isInfinite(sum)) {
+            return sum;
+        }
+        return total;
+    }
+}
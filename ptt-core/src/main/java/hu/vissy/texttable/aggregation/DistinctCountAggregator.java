@@ -0,0 +1,132 @@
+package hu.vissy.texttable.aggregation;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+/**
+ * Ready-made data extractors showing the estimated number of distinct values
+ * in the aggregator rows.
+ *
+ * <p>
+ * The state is a pair of {@linkplain HyperLogLog} sketches (the total and the
+ * current group). The group sketch is only created if there is a group key.
+ * The data rows show the extracted value and the aggregator rows show the
+ * estimate as a {@linkplain Long}, so the cell type is {@linkplain Object}
+ * and the column should use a converter accepting both (such as the default
+ * trivial converter).
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class DistinctCountAggregator {
+
+    /**
+     * The state of a distinct count aggregator column.
+     */
+    public static final class State {
+        private final HyperLogLog total;
+        private final HyperLogLog group;
+
+        private State(boolean grouped, int precision) {
+            total = new HyperLogLog(precision);
+            group = grouped ? new HyperLogLog(precision) : null;
+        }
+
+        /**
+         * @return The sketch of all the values.
+         */
+        public HyperLogLog getTotal() {
+            return total;
+        }
+
+        /**
+         * @return The sketch of the values of the current group or
+         *         <code>null</code> if the extractor has no group key.
+         */
+        public HyperLogLog getGroup() {
+            return group;
+        }
+
+        private State combine(State other) {
+            total.combine(other.total);
+            if (group != null) {
+                group.combine(other.group);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Builder of distinct count aggregator extractors.
+     *
+     * @param <D>
+     *            The type of the input record.
+     */
+    public static final class Builder<D> extends AggregatorBuilderBase<Builder<D>, Void> {
+        private final Function<D, ?> valueExtractor;
+        private int precision = HyperLogLog.DEFAULT_PRECISION;
+
+        /**
+         * Constructor.
+         *
+         * @param valueExtractor
+         *            The closure to extract the value from the record.
+         */
+        public Builder(Function<D, ?> valueExtractor) {
+            super(null);
+            this.valueExtractor = valueExtractor;
+        }
+
+        /**
+         * Sets the precision of the sketches.
+         * <p>
+         * Default value if not set: 14 (16 KB per sketch, 0.8% standard error)
+         * </p>
+         *
+         * @param precision
+         *            The precision (between 4 and 18).
+         * @return The builder instance.
+         */
+        public Builder<D> withPrecision(int precision) {
+            this.precision = precision;
+            return this;
+        }
+
+        /**
+         * @return The data extractor.
+         */
+        public StatefulDataExtractor<D, State, Object> build() {
+            Function<D, ?> extractor = valueExtractor;
+            int p = HyperLogLog.checkPrecision(precision);
+            boolean grouped = hasGroupKeys();
+            Supplier<State> initializer = () -> new State(grouped, p);
+            return new StatefulDataExtractor<>((d, s) -> {
+                Object v = extractor.apply(d);
+                s.total.offer(v);
+                if (s.group != null) {
+                    s.group.offer(v);
+                }
+                return v;
+            }, initializer, createAggregateExtractor(State::getTotal, State::getGroup, (h, v) -> h.getEstimate(),
+                    HyperLogLog::reset), State::combine);
+        }
+    }
+
+    private DistinctCountAggregator() {
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the estimated number of distinct values in
+     *         aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Object> distinctCount(Function<D, ?> valueExtractor) {
+        return new Builder<>(valueExtractor).build();
+    }
+}
@@ -0,0 +1,184 @@
+package hu.vissy.texttable.aggregation;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+/**
+ * Ready-made aggregating data extractors for double columns.
+ *
+ * <p>
+ * The extractors show the extracted value in the data rows and the selected
+ * {@linkplain Statistic} in the aggregator rows. The state is a pair of
+ * primitive {@linkplain DoubleStatistics} accumulators (the total and the
+ * current group), so no objects are created while the records are processed
+ * apart from the boxed cell values. The group accumulator is only created if
+ * there is a group key, and the running mean and variance are only maintained
+ * if the average or the standard deviation is shown. The extractors are
+ * mergeable, so they can be used with parallel aggregation.
+ * </p>
+ *
+ * <pre>
+ * new ColumnDefinition.StatefulBuilder&lt;Sale, DoubleAggregator.State, Double&gt;()
+ *         .withTitle("Amount")
+ *         .withDataConverter(NumberDataConverter.defaultDoubleFormatter())
+ *         .withDataExtractor(DoubleAggregator.sum(Sale::getAmount))
+ *         .build();
+ * </pre>
+ *
+ * @author Balage
+ *
+ */
+public final class DoubleAggregator {
+
+    /**
+     * The state of a double aggregator column.
+     */
+    public static final class State {
+        private final DoubleStatistics total;
+        private final DoubleStatistics group;
+
+        private State(boolean grouped, boolean trackMoments) {
+            total = new DoubleStatistics(trackMoments);
+            group = grouped ? new DoubleStatistics(trackMoments) : null;
+        }
+
+        /**
+         * @return The statistics of all the values.
+         */
+        public DoubleStatistics getTotal() {
+            return total;
+        }
+
+        /**
+         * @return The statistics of the values of the current group or
+         *         <code>null</code> if the extractor has no group key.
+         */
+        public DoubleStatistics getGroup() {
+            return group;
+        }
+
+        private State combine(State other) {
+            total.combine(other.total);
+            if (group != null) {
+                group.combine(other.group);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Builder of double aggregator extractors.
+     *
+     * @param <D>
+     *            The type of the input record.
+     */
+    public static final class Builder<D> extends StatisticBuilderBase<Builder<D>> {
+        private final ToDoubleFunction<D> valueExtractor;
+
+        /**
+         * Constructor.
+         *
+         * @param valueExtractor
+         *            The closure to extract the value from the record.
+         */
+        public Builder(ToDoubleFunction<D> valueExtractor) {
+            this.valueExtractor = valueExtractor;
+        }
+
+        /**
+         * @return The data extractor.
+         */
+        public StatefulDataExtractor<D, State, Double> build() {
+            ToDoubleFunction<D> extractor = valueExtractor;
+            boolean grouped = hasGroupKeys();
+            boolean trackMoments = isSelected(Statistic.AVERAGE) || isSelected(Statistic.STANDARD_DEVIATION);
+            Supplier<State> initializer = () -> new State(grouped, trackMoments);
+            return new StatefulDataExtractor<>((d, s) -> {
+                double v = extractor.applyAsDouble(d);
+                s.total.accept(v);
+                if (s.group != null) {
+                    s.group.accept(v);
+                }
+                return v;
+            }, initializer, createAggregateExtractor(State::getTotal, State::getGroup, DoubleAggregator::valueOf, DoubleStatistics::reset),
+                    State::combine);
+        }
+    }
+
+    private DoubleAggregator() {
+    }
+
+    private static Double valueOf(DoubleStatistics statistics, Statistic statistic) {
+        double value = statistics.get(statistic);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the (compensated) sum in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> sum(ToDoubleFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.SUM).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the number of values in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> count(ToDoubleFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.COUNT).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the smallest value in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> min(ToDoubleFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.MIN).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the largest value in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> max(ToDoubleFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.MAX).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the mean in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> average(ToDoubleFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.AVERAGE).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the sample standard deviation in
+     *         aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> standardDeviation(ToDoubleFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.STANDARD_DEVIATION).build();
+    }
+}
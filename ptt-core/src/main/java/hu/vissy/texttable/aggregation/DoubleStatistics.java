@@ -0,0 +1,203 @@
+package hu.vissy.texttable.aggregation;
+
+/**
+ * A mergeable accumulator of double values.
+ *
+ * <p>
+ * The sum is a {@linkplain CompensatedSum}, so adding many values of
+ * different magnitudes doesn't lose precision. The mean and the variance are
+ * maintained by Welford's online algorithm. Two accumulators can be merged, which gives the same result (up
+ * to rounding) as if all the values were added to one.
+ * </p>
+ *
+ * <p>
+ * The Welford update costs a division and two multiply-adds per value, so it
+ * can be switched off when neither the average nor the standard deviation is
+ * needed. Then the average is calculated from the sum, and the standard
+ * deviation is not available.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class DoubleStatistics {
+
+    private long count;
+    private final CompensatedSum sum = new CompensatedSum();
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final boolean trackMoments;
+    private double mean;
+    private double m2;
+
+    /**
+     * Constructor of an accumulator maintaining all the statistics.
+     */
+    public DoubleStatistics() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param trackMoments
+     *            Whether to maintain the running mean and variance. Without
+     *            them the standard deviation is not available.
+     */
+    public DoubleStatistics(boolean trackMoments) {
+        this.trackMoments = trackMoments;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value
+     *            The value to add.
+     */
+    public void accept(double value) {
+        count++;
+        sum.add(value);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        if (!trackMoments) {
+            return;
+        }
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Adds the values of an other accumulator to this one.
+     *
+     * @param other
+     *            The accumulator to merge. It is not modified.
+     * @return This instance.
+     */
+    public DoubleStatistics combine(DoubleStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            copy(other);
+            return this;
+        }
+        long total = count + other.count;
+        if (trackMoments) {
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * count * other.count / total;
+        }
+        count = total;
+        sum.add(other.sum);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Clears the accumulator.
+     */
+    public void reset() {
+        count = 0;
+        sum.reset();
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        mean = 0;
+        m2 = 0;
+    }
+
+    private void copy(DoubleStatistics other) {
+        count = other.count;
+        sum.set(other.sum);
+        min = other.min;
+        max = other.max;
+        mean = other.mean;
+        m2 = other.m2;
+    }
+
+    /**
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The compensated sum of the values.
+     */
+    public double getSum() {
+        return sum.get();
+    }
+
+    /**
+     * @return The smallest value or NaN if there is no value.
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * @return The largest value or NaN if there is no value.
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * @return The mean of the values or NaN if there is no value.
+     */
+    public double getAverage() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return trackMoments ? mean : getSum() / count;
+    }
+
+    /**
+     * @return The sample standard deviation or NaN if there are less than two
+     *         values.
+     * @throws IllegalStateException
+     *             If the moments are not tracked.
+     */
+    public double getStandardDeviation() {
+        if (!trackMoments) {
+            throw new IllegalStateException("The standard deviation is not tracked");
+        }
+        return count < 2 ? Double.NaN : Math.sqrt(m2 / (count - 1));
+    }
+
+    /**
+     * Returns a statistic of the values.
+     *
+     * @param statistic
+     *            The statistic to return.
+     * @return The value of the statistic.
+     */
+    public double get(Statistic statistic) {
+        switch (statistic) {
+        case COUNT:
+            return count;
+        case SUM:
+            return getSum();
+        case MIN:
+            return getMin();
+        case MAX:
+            return getMax();
+        case AVERAGE:
+            return getAverage();
+        case STANDARD_DEVIATION:
+            return getStandardDeviation();
+        default:
+            throw new IllegalArgumentException("Unknown statistic: " + statistic);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package hu.vissy.texttable.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable, fixed memory sketch to estimate the number of distinct values
+ * (HyperLogLog).
+ *
+ * <p>
+ * The sketch uses <code>2^precision</code> one byte registers. The standard
+ * error of the estimate is about <code>1.04 / sqrt(2^precision)</code>, that
+ * is 0.8% with the default precision (14, 16 KB). The values are hashed into
+ * 64 bits; strings are hashed by their characters, other objects by their
+ * {@linkplain Object#hashCode()}, which limits the accuracy for objects with
+ * poor hash codes.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class HyperLogLog {
+
+    /**
+     * The default precision.
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Creates a sketch with the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param precision
+     *            The number of index bits (between 4 and 18).
+     */
+    public HyperLogLog(int precision) {
+        this.precision = checkPrecision(precision);
+        this.registers = new byte[1 << precision];
+    }
+
+    static int checkPrecision(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision should be between 4 and 18: " + precision);
+        }
+        return precision;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void offerHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value
+     *            The value.
+     */
+    public void offer(long value) {
+        offerHash(mix(value));
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value
+     *            The value.
+     */
+    public void offer(double value) {
+        offerHash(mix(Double.doubleToLongBits(value == 0 ? 0 : value)));
+    }
+
+    /**
+     * Adds a value. Null is ignored.
+     *
+     * @param value
+     *            The value.
+     */
+    public void offer(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof CharSequence) {
+            CharSequence cs = (CharSequence) value;
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < cs.length(); i++) {
+                h = (h ^ cs.charAt(i)) * 0x100000001b3L;
+            }
+            offerHash(mix(h));
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            offer(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            offer(((Number) value).doubleValue());
+        } else {
+            offerHash(mix(value.hashCode()));
+        }
+    }
+
+    /**
+     * Merges an other sketch into this one.
+     *
+     * @param other
+     *            The sketch to merge. It should have the same precision. It is
+     *            not modified.
+     * @return This instance.
+     */
+    public HyperLogLog combine(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Sketches with different precision can't be merged: " + precision + " and "
+                    + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Clears the sketch.
+     */
+    public void reset() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    /**
+     * @return The estimated number of distinct values.
+     */
+    public long getEstimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Small range correction (linear counting)
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return The precision of the sketch.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+}
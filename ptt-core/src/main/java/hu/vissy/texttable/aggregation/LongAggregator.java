@@ -0,0 +1,168 @@
+package hu.vissy.texttable.aggregation;
+
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+/**
+ * Ready-made aggregating data extractors for integral columns.
+ *
+ * <p>
+ * Works the same way as {@linkplain DoubleAggregator}, but the values and the
+ * statistics are exact longs, so only {@linkplain Statistic#COUNT},
+ * {@linkplain Statistic#SUM}, {@linkplain Statistic#MIN} and
+ * {@linkplain Statistic#MAX} can be shown. For the average or the standard
+ * deviation use {@linkplain DoubleAggregator}.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class LongAggregator {
+
+    /**
+     * The state of a long aggregator column.
+     */
+    public static final class State {
+        private final LongStatistics total = new LongStatistics();
+        private final LongStatistics group;
+
+        private State(boolean grouped) {
+            group = grouped ? new LongStatistics() : null;
+        }
+
+        /**
+         * @return The statistics of all the values.
+         */
+        public LongStatistics getTotal() {
+            return total;
+        }
+
+        /**
+         * @return The statistics of the values of the current group or
+         *         <code>null</code> if the extractor has no group key.
+         */
+        public LongStatistics getGroup() {
+            return group;
+        }
+
+        private State combine(State other) {
+            total.combine(other.total);
+            if (group != null) {
+                group.combine(other.group);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Builder of long aggregator extractors.
+     *
+     * @param <D>
+     *            The type of the input record.
+     */
+    public static final class Builder<D> extends StatisticBuilderBase<Builder<D>> {
+        private final ToLongFunction<D> valueExtractor;
+
+        /**
+         * Constructor.
+         *
+         * @param valueExtractor
+         *            The closure to extract the value from the record.
+         */
+        public Builder(ToLongFunction<D> valueExtractor) {
+            this.valueExtractor = valueExtractor;
+        }
+
+        /**
+         * @return The data extractor.
+         * @throws IllegalStateException
+         *             If a statistic is not integral.
+         */
+        public StatefulDataExtractor<D, State, Long> build() {
+            checkIntegral(selection);
+            keySelections.values().forEach(LongAggregator::checkIntegral);
+            ToLongFunction<D> extractor = valueExtractor;
+            boolean grouped = hasGroupKeys();
+            Supplier<State> initializer = () -> new State(grouped);
+            return new StatefulDataExtractor<>((d, s) -> {
+                long v = extractor.applyAsLong(d);
+                s.total.accept(v);
+                if (s.group != null) {
+                    s.group.accept(v);
+                }
+                return v;
+            }, initializer, createAggregateExtractor(State::getTotal, State::getGroup, LongAggregator::valueOf, LongStatistics::reset),
+                    State::combine);
+        }
+    }
+
+    private LongAggregator() {
+    }
+
+    private static void checkIntegral(Statistic statistic) {
+        if (statistic == Statistic.AVERAGE || statistic == Statistic.STANDARD_DEVIATION) {
+            throw new IllegalStateException("Long aggregator can't show " + statistic + ", use DoubleAggregator instead");
+        }
+    }
+
+    private static Long valueOf(LongStatistics statistics, Statistic statistic) {
+        switch (statistic) {
+        case COUNT:
+            return statistics.getCount();
+        case SUM:
+            return statistics.getSum();
+        case MIN:
+            return statistics.getCount() == 0 ? null : statistics.getMin();
+        case MAX:
+            return statistics.getCount() == 0 ? null : statistics.getMax();
+        default:
+            throw new IllegalArgumentException("Not an integral statistic: " + statistic);
+        }
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the sum in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Long> sum(ToLongFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.SUM).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the number of values in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Long> count(ToLongFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.COUNT).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the smallest value in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Long> min(ToLongFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.MIN).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the largest value in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Long> max(ToLongFunction<D> valueExtractor) {
+        return new Builder<>(valueExtractor).withStatistic(Statistic.MAX).build();
+    }
+}
@@ -0,0 +1,106 @@
+package hu.vissy.texttable.aggregation;
+
+/**
+ * A mergeable accumulator of long values.
+ *
+ * <p>
+ * The sum is exact (an overflow throws {@linkplain ArithmeticException}). Only
+ * the statistics shown by the {@linkplain LongAggregator} are maintained, the
+ * average is calculated from the sum on request. For the variance use
+ * {@linkplain DoubleStatistics}.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class LongStatistics {
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Adds a value.
+     *
+     * @param value
+     *            The value to add.
+     */
+    public void accept(long value) {
+        count++;
+        sum = Math.addExact(sum, value);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds the values of an other accumulator to this one.
+     *
+     * @param other
+     *            The accumulator to merge. It is not modified.
+     * @return This instance.
+     */
+    public LongStatistics combine(LongStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        count += other.count;
+        sum = Math.addExact(sum, other.sum);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Clears the accumulator.
+     */
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The sum of the values.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The smallest value. Only meaningful if there is a value.
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * @return The largest value. Only meaningful if there is a value.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return The mean of the values or NaN if there is no value.
+     */
+    public double getAverage() {
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+}
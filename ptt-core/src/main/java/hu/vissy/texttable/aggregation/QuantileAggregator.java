@@ -0,0 +1,209 @@
+package hu.vissy.texttable.aggregation;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+/**
+ * Ready-made data extractors showing estimated quantiles in the aggregator
+ * rows.
+ *
+ * <p>
+ * The state is a pair of {@linkplain QuantileSketch}es (the total and the
+ * current group), so the memory use doesn't depend on the number of records.
+ * The group sketch is only created if there is a group key.
+ * Each aggregator row key can be mapped to a different quantile, so one
+ * column can show the median, p95 and p99 in consecutive aggregator rows:
+ * </p>
+ *
+ * <pre>
+ * new QuantileAggregator.Builder&lt;Request&gt;(Request::getLatency)
+ *         .withQuantile("p50", 0.5)
+ *         .withQuantile("p95", 0.95)
+ *         .withQuantile("p99", 0.99)
+ *         .build();
+ * </pre>
+ *
+ * @author Balage
+ *
+ */
+public final class QuantileAggregator {
+
+    /**
+     * The state of a quantile aggregator column.
+     */
+    public static final class State {
+        private final QuantileSketch total;
+        private final QuantileSketch group;
+
+        private State(boolean grouped, double relativeAccuracy, int maxBuckets) {
+            total = new QuantileSketch(relativeAccuracy, maxBuckets);
+            group = grouped ? new QuantileSketch(relativeAccuracy, maxBuckets) : null;
+        }
+
+        /**
+         * @return The sketch of all the values.
+         */
+        public QuantileSketch getTotal() {
+            return total;
+        }
+
+        /**
+         * @return The sketch of the values of the current group or
+         *         <code>null</code> if the extractor has no group key.
+         */
+        public QuantileSketch getGroup() {
+            return group;
+        }
+
+        private State combine(State other) {
+            total.combine(other.total);
+            if (group != null) {
+                group.combine(other.group);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Builder of quantile aggregator extractors.
+     *
+     * @param <D>
+     *            The type of the input record.
+     */
+    public static final class Builder<D> extends AggregatorBuilderBase<Builder<D>, Double> {
+        private final ToDoubleFunction<D> valueExtractor;
+        private double relativeAccuracy = QuantileSketch.DEFAULT_RELATIVE_ACCURACY;
+        private int maxBuckets = QuantileSketch.DEFAULT_MAX_BUCKETS;
+
+        /**
+         * Constructor.
+         *
+         * @param valueExtractor
+         *            The closure to extract the value from the record.
+         */
+        public Builder(ToDoubleFunction<D> valueExtractor) {
+            super(0.5);
+            this.valueExtractor = valueExtractor;
+        }
+
+        /**
+         * Sets the quantile shown in aggregator rows without specific
+         * quantile.
+         * <p>
+         * Default value if not set: 0.5 (median)
+         * </p>
+         *
+         * @param quantile
+         *            The quantile (between 0 and 1).
+         * @return The builder instance.
+         */
+        public Builder<D> withQuantile(double quantile) {
+            return select(checkQuantile(quantile));
+        }
+
+        /**
+         * Sets the quantile shown in the aggregator rows with the given key.
+         *
+         * @param key
+         *            The key of the aggregator row.
+         * @param quantile
+         *            The quantile (between 0 and 1).
+         * @return The builder instance.
+         */
+        public Builder<D> withQuantile(Object key, double quantile) {
+            return select(key, checkQuantile(quantile));
+        }
+
+        /**
+         * Sets the relative accuracy of the sketches.
+         * <p>
+         * Default value if not set: 0.01 (1%)
+         * </p>
+         *
+         * @param relativeAccuracy
+         *            The relative accuracy (between 0 and 1 exclusive).
+         * @return The builder instance.
+         */
+        public Builder<D> withRelativeAccuracy(double relativeAccuracy) {
+            this.relativeAccuracy = relativeAccuracy;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of buckets of a sketch per sign.
+         * <p>
+         * Default value if not set: 2048
+         * </p>
+         *
+         * @param maxBuckets
+         *            The maximum number of buckets.
+         * @return The builder instance.
+         */
+        public Builder<D> withMaxBuckets(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+            return this;
+        }
+
+        /**
+         * @return The data extractor.
+         */
+        public StatefulDataExtractor<D, State, Double> build() {
+            ToDoubleFunction<D> extractor = valueExtractor;
+            double accuracy = relativeAccuracy;
+            int buckets = maxBuckets;
+            QuantileSketch.checkParameters(accuracy, buckets);
+            boolean grouped = hasGroupKeys();
+            Supplier<State> initializer = () -> new State(grouped, accuracy, buckets);
+            return new StatefulDataExtractor<>((d, s) -> {
+                double v = extractor.applyAsDouble(d);
+                s.total.accept(v);
+                if (s.group != null) {
+                    s.group.accept(v);
+                }
+                return v;
+            }, initializer, createAggregateExtractor(State::getTotal, State::getGroup, QuantileAggregator::valueOf,
+                    QuantileSketch::reset), State::combine);
+        }
+    }
+
+    private QuantileAggregator() {
+    }
+
+    private static double checkQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile should be between 0 and 1: " + quantile);
+        }
+        return quantile;
+    }
+
+    private static Double valueOf(QuantileSketch sketch, Double quantile) {
+        double value = sketch.getQuantile(quantile);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @param quantile
+     *            The quantile to show (between 0 and 1).
+     * @return An extractor showing the estimated quantile in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> quantile(ToDoubleFunction<D> valueExtractor, double quantile) {
+        return new Builder<>(valueExtractor).withQuantile(quantile).build();
+    }
+
+    /**
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the estimated median in aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, State, Double> median(ToDoubleFunction<D> valueExtractor) {
+        return quantile(valueExtractor, 0.5);
+    }
+}
@@ -0,0 +1,203 @@
+package hu.vissy.texttable.aggregation;
+
+/**
+ * A mergeable, bounded memory sketch to estimate quantiles.
+ *
+ * <p>
+ * The values are counted in logarithmic buckets (as in DDSketch): the bucket
+ * boundaries grow by the factor <code>(1 + a) / (1 - a)</code>, where
+ * <code>a</code> is the relative accuracy. Any returned quantile is within
+ * <code>a</code> relative error of a value at the requested rank. Positive and
+ * negative values are kept in separate bucket stores, values close to zero
+ * are counted together.
+ * </p>
+ *
+ * <p>
+ * The memory use is proportional to the logarithm of the range of the values
+ * (about 460 buckets cover 1 microsecond to 1 hour with 1% accuracy), and is
+ * limited by the maximum number of buckets. When the limit is reached, the
+ * buckets of the smallest magnitudes are collapsed, so the accuracy is lost
+ * for the lowest quantiles first.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class QuantileSketch {
+
+    /**
+     * The default relative accuracy.
+     */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    /**
+     * The default maximum number of buckets per sign.
+     */
+    public static final int DEFAULT_MAX_BUCKETS = 2048;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final double minIndexableValue;
+    private final BucketStore positive;
+    private final BucketStore negative;
+    private long zeroCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a sketch with the default accuracy and bucket limit.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param relativeAccuracy
+     *            The relative accuracy of the quantiles (between 0 and 1
+     *            exclusive).
+     * @param maxBuckets
+     *            The maximum number of buckets per sign.
+     */
+    public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+        checkParameters(relativeAccuracy, maxBuckets);
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.minIndexableValue = Math.max(Math.exp((Integer.MIN_VALUE + 1) * logGamma), Double.MIN_NORMAL * gamma);
+        this.positive = new BucketStore(maxBuckets);
+        this.negative = new BucketStore(maxBuckets);
+    }
+
+    static void checkParameters(double relativeAccuracy, int maxBuckets) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy should be between 0 and 1: " + relativeAccuracy);
+        }
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("Maximum bucket count should be positive: " + maxBuckets);
+        }
+    }
+
+    private int index(double value) {
+        double i = Math.ceil(Math.log(value) / logGamma);
+        return i >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) i;
+    }
+
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Adds a value. NaN values are ignored.
+     *
+     * @param value
+     *            The value to add.
+     */
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value > minIndexableValue) {
+            positive.add(index(value), 1);
+        } else if (value < -minIndexableValue) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds the values of an other sketch to this one.
+     *
+     * @param other
+     *            The sketch to merge. It should have the same accuracy. It is
+     *            not modified.
+     * @return This instance.
+     */
+    public QuantileSketch combine(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches with different accuracy can't be merged: " + relativeAccuracy + " and "
+                    + other.relativeAccuracy);
+        }
+        positive.addAll(other.positive);
+        negative.addAll(other.negative);
+        zeroCount += other.zeroCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Clears the sketch.
+     */
+    public void reset() {
+        positive.clear();
+        negative.clear();
+        zeroCount = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @return The number of values.
+     */
+    public long getCount() {
+        return positive.getTotal() + negative.getTotal() + zeroCount;
+    }
+
+    /**
+     * @return The relative accuracy of the sketch.
+     */
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param quantile
+     *            The quantile (between 0 and 1, 0.5 is the median).
+     * @return The estimated value or NaN if there is no value.
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile should be between 0 and 1: " + quantile);
+        }
+        long count = getCount();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        double value;
+        if (rank < negative.getTotal()) {
+            long seen = 0;
+            int i = negative.getMaxIndex();
+            while ((seen += negative.getCount(i)) <= rank) {
+                i--;
+            }
+            value = -valueOf(i);
+        } else if (rank < negative.getTotal() + zeroCount) {
+            value = 0;
+        } else {
+            long seen = negative.getTotal() + zeroCount;
+            int i = positive.getMinIndex();
+            while ((seen += positive.getCount(i)) <= rank) {
+                i++;
+            }
+            value = valueOf(i);
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,34 @@
+package hu.vissy.texttable.aggregation;
+
+/**
+ * The statistics the built-in aggregators can report.
+ *
+ * @author Balage
+ *
+ */
+public enum Statistic {
+    /**
+     * The number of values.
+     */
+    COUNT,
+    /**
+     * The sum of the values.
+     */
+    SUM,
+    /**
+     * The smallest value.
+     */
+    MIN,
+    /**
+     * The largest value.
+     */
+    MAX,
+    /**
+     * The arithmetic mean of the values.
+     */
+    AVERAGE,
+    /**
+     * The sample standard deviation of the values.
+     */
+    STANDARD_DEVIATION;
+}
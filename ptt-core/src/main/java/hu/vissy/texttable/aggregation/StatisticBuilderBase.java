@@ -0,0 +1,44 @@
+package hu.vissy.texttable.aggregation;
+
+/**
+ * The common part of the builders of the aggregators showing a
+ * {@linkplain Statistic}.
+ *
+ * @author Balage
+ *
+ * @param <A>
+ *            The type of the concrete builder.
+ */
+abstract class StatisticBuilderBase<A extends StatisticBuilderBase<A>> extends AggregatorBuilderBase<A, Statistic> {
+
+    protected StatisticBuilderBase() {
+        super(Statistic.SUM);
+    }
+
+    /**
+     * Sets the statistic shown in aggregator rows without specific statistic.
+     * <p>
+     * Default value if not set: {@linkplain Statistic#SUM}
+     * </p>
+     *
+     * @param statistic
+     *            The statistic to show.
+     * @return The builder instance.
+     */
+    public A withStatistic(Statistic statistic) {
+        return select(statistic);
+    }
+
+    /**
+     * Sets the statistic shown in the aggregator rows with the given key.
+     *
+     * @param key
+     *            The key of the aggregator row.
+     * @param statistic
+     *            The statistic to show.
+     * @return The builder instance.
+     */
+    public A withStatistic(Object key, Statistic statistic) {
+        return select(key, statistic);
+    }
+}
@@ -1,11 +1,13 @@
 package hu.vissy.texttable.column;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
 import hu.vissy.texttable.contentformatter.CellContentFormatter;
+import hu.vissy.texttable.contentformatter.CellStyle;
 import hu.vissy.texttable.dataconverter.DataConverter;
 import hu.vissy.texttable.dataconverter.TrivialDataConverter;
 import hu.vissy.texttable.dataextractor.DataExtractor;
@@ -39,6 +41,7 @@ public class ColumnDefinition<D, S, T> {
         protected DataConverter<T> dataConverter = new TrivialDataConverter<>();
         protected DataExtractor<D, S, T> dataExtractor;
         protected Map<Object, String> aggregateRowConstants = new HashMap<>();
+        protected Function<T, CellStyle> cellStyler = null;
 
 
         /**
@@ -89,6 +92,27 @@ public class ColumnDefinition<D, S, T> {
             return (A) this;
         }
 
+        /**
+         * Sets the closure choosing the terminal style of the data cells.
+         * <p>
+         * The closure receives the extracted value of each data row and
+         * returns the {@linkplain CellStyle} of the cell or null for no style.
+         * The style is emitted around the formatted cell while rendering, it
+         * doesn't count to the width. See
+         * {@linkplain hu.vissy.texttable.TableFormatter.Builder#withStripStyles(boolean)}
+         * for output which is not a terminal.
+         * </p>
+         *
+         * @param cellStyler
+         *            The style closure or null.
+         * @return The builder instance.
+         */
+        @SuppressWarnings("unchecked")
+        public A withCellStyler(Function<T, CellStyle> cellStyler) {
+            this.cellStyler = cellStyler;
+            return (A) this;
+        }
+
         /**
          * When the column is stateless, an empty value is returned as
          * aggregated value by default. With this setter, an alternative
@@ -271,18 +295,20 @@ public class ColumnDefinition<D, S, T> {
                 .build();
     }
 
-    private String title;
-    private DataExtractor<D, S, T> dataExtractor;
-    private DataConverter<T> dataConverter;
-    private CellContentFormatter cellContentFormatter;
-    private Map<Object, String> aggregateRowConstants;
+    private final String title;
+    private final DataExtractor<D, S, T> dataExtractor;
+    private final DataConverter<T> dataConverter;
+    private final CellContentFormatter cellContentFormatter;
+    private final Map<Object, String> aggregateRowConstants;
+    private final Function<T, CellStyle> cellStyler;
 
     private ColumnDefinition(BuilderBase<D, S, T, ?> builder) {
         this.title = builder.title;
         this.cellContentFormatter = builder.cellContentFormatter;
         this.dataConverter = builder.dataConverter;
         this.dataExtractor = builder.dataExtractor;
-        this.aggregateRowConstants = builder.aggregateRowConstants;
+        this.aggregateRowConstants = Collections.unmodifiableMap(new HashMap<>(builder.aggregateRowConstants));
+        this.cellStyler = builder.cellStyler;
     }
 
 
@@ -310,6 +336,14 @@ public class ColumnDefinition<D, S, T> {
     }
 
 
+    /**
+     * @return The closure choosing the style of the data cells or null.
+     */
+    public Function<T, CellStyle> getCellStyler() {
+        return cellStyler;
+    }
+
+
     /**
      * @return The cell formatter instance.
      */
@@ -348,6 +382,15 @@ public class ColumnDefinition<D, S, T> {
     }
 
 
+    /**
+     * @return The unmodifiable map of the aggregate row constants by
+     *         aggregation key.
+     */
+    public Map<Object, String> getAggregateRowConstants() {
+        return aggregateRowConstants;
+    }
+
+
     /**
      * @param key
      *            The aggregation key to query value of.
@@ -8,12 +8,26 @@ package hu.vissy.texttable.contentformatter;
  */
 public abstract class CellAlignment {
 
-    private char paddingCharacter = ' ';
+    private static final ClassValue<Boolean> STRING_ALIGN_OVERRIDDEN = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return !isBuiltIn(type.getMethod("align", String.class, int.class).getDeclaringClass())
+                        || !isBuiltIn(type.getMethod("align", String.class, int.class, int.class).getDeclaringClass());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private final char paddingCharacter;
+    private final Padding padding;
 
     /**
      * Constructor with space as padding character.
      */
     protected CellAlignment() {
+        this(' ');
     }
 
     /**
@@ -25,6 +39,7 @@ public abstract class CellAlignment {
      */
     protected CellAlignment(char paddingCharacter) {
         this.paddingCharacter = paddingCharacter;
+        padding = Padding.of(paddingCharacter);
     }
 
     /**
@@ -39,6 +54,108 @@ public abstract class CellAlignment {
      */
     public abstract String align(String data, int width);
 
+    /**
+     * Aligns the data of the given display width to the given width.
+     * <p>
+     * The display width of the data may differ from its length (see
+     * {@linkplain WidthCalculator}). The default implementation calls
+     * {@linkplain #align(String, int)} with the width shifted by the
+     * difference, so the implementations padding by the length of the data
+     * add the right number of padding characters.
+     * </p>
+     *
+     * @param data
+     *            The data to align.
+     * @param dataWidth
+     *            The display width of the data.
+     * @param width
+     *            The width to align to.
+     * @return The aligned (padded) string.
+     */
+    public String align(String data, int dataWidth, int width) {
+        if (dataWidth == data.length()) {
+            return align(data, width);
+        }
+        return align(data, width - dataWidth + data.length());
+    }
+
+    /**
+     * Aligns the data of the given display width to the given width and
+     * appends the result to the buffer.
+     * <p>
+     * The default implementation appends the result of
+     * {@linkplain #align(String, int, int)}, so existing subclasses work
+     * without change. The built-in alignments override it to write the data
+     * and the padding directly into the buffer without allocating anything,
+     * unless a subclass of them overrides the string alignment.
+     * </p>
+     *
+     * @param target
+     *            The buffer to append the aligned data to.
+     * @param data
+     *            The data to align.
+     * @param dataWidth
+     *            The display width of the data.
+     * @param width
+     *            The width to align to.
+     */
+    public void align(StringBuilder target, CharSequence data, int dataWidth, int width) {
+        target.append(align(data.toString(), dataWidth, width));
+    }
+
+    /**
+     * Aligns a part of the data to the given width and appends the result to
+     * the buffer.
+     * <p>
+     * The default implementation aligns the extracted part by
+     * {@linkplain #align(StringBuilder, CharSequence, int, int)}. The built-in
+     * alignments override it to copy the part directly into the buffer.
+     * </p>
+     *
+     * @param target
+     *            The buffer to append the aligned data to.
+     * @param data
+     *            The data containing the part to align.
+     * @param start
+     *            The start index of the part (inclusive).
+     * @param end
+     *            The end index of the part (exclusive).
+     * @param dataWidth
+     *            The display width of the part.
+     * @param width
+     *            The width to align to.
+     */
+    public void align(StringBuilder target, CharSequence data, int start, int end, int dataWidth, int width) {
+        align(target, data.subSequence(start, end), dataWidth, width);
+    }
+
+    /**
+     * Checks whether the class of the alignment overrides the string
+     * alignment methods of a built-in alignment.
+     * <p>
+     * The built-in alignments write directly into the buffer, bypassing their
+     * string alignment methods. A subclass overriding those should still be
+     * aligned through them. The classes of this package don't, so they are not
+     * inspected, and the result of the (reflective) check of the other classes
+     * is cached per class.
+     * </p>
+     *
+     * @return Whether the alignment is a subclass overriding
+     *         {@linkplain #align(String, int)} or
+     *         {@linkplain #align(String, int, int)}.
+     */
+    boolean overridesStringAlign() {
+        Class<?> type = getClass();
+        if (isBuiltIn(type)) {
+            return false;
+        }
+        return STRING_ALIGN_OVERRIDDEN.get(type);
+    }
+
+    private static boolean isBuiltIn(Class<?> type) {
+        return type.getPackageName().equals(CellAlignment.class.getPackageName());
+    }
+
     /**
      * @return The character used for padding.
      */
@@ -54,7 +171,24 @@ public abstract class CellAlignment {
      * @return A string containing <code>size</code> padding character.
      */
     protected String createPad(int size) {
-        return new String(new char[size]).replace('\0', paddingCharacter);
+        return padding.toString(size);
+    }
+
+    /**
+     * Appends <code>size</code> padding character to the buffer.
+     * <p>
+     * The characters are copied from a buffer shared by all alignments using
+     * the same padding character.
+     * </p>
+     *
+     * @param target
+     *            The buffer to append to.
+     * @param size
+     *            The number of characters to append (nothing is appended if
+     *            not positive).
+     */
+    protected void appendPad(StringBuilder target, int size) {
+        padding.append(target, size);
     }
 
 }
\ No newline at end of file
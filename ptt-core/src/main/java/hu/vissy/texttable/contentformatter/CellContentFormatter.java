@@ -4,8 +4,8 @@ import hu.vissy.texttable.BorderFormatter;
 
 /**
  * The cell content formatter responsible to convert the string value of a cell
- * to the exact width of the column. It may align and pad the value or shorten
- * it.
+ * to the exact width of the column. It may align and pad the value, shorten it
+ * or wrap it into several lines.
  *
  * <p>
  * This class is immutable and follows the builder pattern.
@@ -29,6 +29,8 @@ public class CellContentFormatter {
         private CellAlignment cellAlignment = new LeftCellAlignment();
         private int minWidth = 0;
         private int maxWidth = Integer.MAX_VALUE;
+        private WidthCalculator widthCalculator = WidthCalculator.UNICODE;
+        private int maxLines = 1;
 
         /**
          * Constructor.
@@ -109,6 +111,53 @@ public class CellContentFormatter {
             return this;
         }
 
+        /**
+         * Sets the calculator of the display width of the values.
+         * <p>
+         * Default value if not set: {@linkplain WidthCalculator#UNICODE}. Use
+         * {@linkplain WidthCalculator#CHARACTER_COUNT} to measure the values
+         * by their length.
+         * </p>
+         *
+         * @param widthCalculator
+         *            The width calculator.
+         * @return The builder instance.
+         */
+        public Builder withWidthCalculator(WidthCalculator widthCalculator) {
+            this.widthCalculator = widthCalculator;
+            return this;
+        }
+
+        /**
+         * Sets the maximal number of lines a value may be wrapped into.
+         * <p>
+         * When it is more than one, the values wider than the column are
+         * broken into several lines at word boundaries (or within a word when
+         * it doesn't fit into a line on its own), and the row gets as many
+         * lines as its highest cell needs. The value remaining for the last
+         * allowed line is shortened by the elipsis decorator. Wrapping is
+         * useful together with {@linkplain #withMaxWidth(int)}, otherwise the
+         * column is as wide as its widest value.
+         * </p>
+         * <p>
+         * Default value if not set: 1 (no wrapping). Use
+         * {@linkplain Integer#MAX_VALUE} for no limit.
+         * </p>
+         *
+         * @param maxLines
+         *            The maximal number of lines (at least 1).
+         * @return The builder instance.
+         * @throws IllegalArgumentException
+         *             If the maximal number of lines is less than 1.
+         */
+        public Builder withMaxLines(int maxLines) {
+            if (maxLines < 1) {
+                throw new IllegalArgumentException("The maximal number of lines should be at least 1: " + maxLines);
+            }
+            this.maxLines = maxLines;
+            return this;
+        }
+
         /**
          * @return The constructed {@linkplain CellContentFormatter} instance.
          */
@@ -149,6 +198,8 @@ public class CellContentFormatter {
     private EllipsisDecorator ellipsesDecorator;
     private int minWidth;
     private int maxWidth;
+    private WidthCalculator widthCalculator;
+    private int maxLines;
 
     private CellContentFormatter(Builder builder) {
         ellipsesDecorator = builder.ellipsesDecorator;
@@ -156,6 +207,8 @@ public class CellContentFormatter {
         cellAlignment = builder.cellAlignment;
         minWidth = builder.minWidth;
         maxWidth = builder.maxWidth;
+        widthCalculator = builder.widthCalculator;
+        maxLines = builder.maxLines;
     }
 
 
@@ -163,10 +216,11 @@ public class CellContentFormatter {
      * Formats a value to the specified width.
      * <p>
      * It first checks if the value is null and replaces it with the value
-     * returned by {@linkplain #getNullValue()}. If the value is longer than the
-     * given <code>width</code>, the elipsis decorator
+     * returned by {@linkplain #getNullValue()}. The widths are display widths
+     * measured by {@linkplain #getWidthCalculator()}. If the value is wider
+     * than the given <code>width</code>, the elipsis decorator
      * ({@linkplain #getEllipsesDecorator()}) is called and the value is updated
-     * by it. If the value is still shorter than the <code>width</code>, the
+     * by it. If the value is still narrower than the <code>width</code>, the
      * value is aligned and padded by the implementation from
      * {@linkplain #getCellAlignment()}. The result value has always the width
      * equal to the <code>width</code> value.
@@ -183,24 +237,161 @@ public class CellContentFormatter {
         if (value == null) {
             value = nullValue;
         }
+        return formatCell(value, widthCalculator.width(value), width);
+    }
 
-        if (value.length() == width) {
+    /**
+     * Formats a value of known display width to the specified width.
+     * <p>
+     * The same as {@linkplain #formatCell(String, int)}, but the display width
+     * of the value (or the null value) is not calculated again.
+     * </p>
+     *
+     * @param value
+     *            The value to convert.
+     * @param valueWidth
+     *            The display width of the value.
+     * @param width
+     *            The required width to convert the value to.
+     * @return The converted, decorated value which will always have the given
+     *         width.
+     */
+    public String formatCell(String value, int valueWidth, int width) {
+        if (value == null) {
+            value = nullValue;
+        }
+
+        if (valueWidth == width) {
             return value;
         }
 
-        if (value.length() > width) {
-            value = ellipsesDecorator.decorate(value, width);
+        if (valueWidth > width) {
+            StringBuilder sb = new StringBuilder(width + 2 * ellipsesDecorator.getEllipsisSign().length());
+            valueWidth = ellipsesDecorator.decorate(sb, value, valueWidth, width, widthCalculator, null);
+            value = sb.toString();
         }
 
-        if (value.length() < width) {
-            value = cellAlignment.align(value, width);
+        if (valueWidth < width) {
+            value = cellAlignment.align(value, valueWidth, width);
         }
 
         return value;
     }
 
+    /**
+     * Formats a value of known display width to the specified width and
+     * appends the result to the buffer.
+     * <p>
+     * The same as {@linkplain #formatCell(String, int, int)}, but the result
+     * is written directly into the target buffer (typically the row buffer).
+     * The value is decorated and aligned in place, so no intermediate strings
+     * are created (unless a custom {@linkplain CellAlignment} doesn't
+     * implement the appending alignment).
+     * </p>
+     *
+     * @param target
+     *            The buffer to append the formatted value to.
+     * @param value
+     *            The value to convert.
+     * @param valueWidth
+     *            The display width of the value.
+     * @param width
+     *            The required width to convert the value to.
+     */
+    public void formatCell(StringBuilder target, String value, int valueWidth, int width) {
+        if (value == null) {
+            value = nullValue;
+        }
+
+        if (valueWidth == width) {
+            target.append(value);
+        } else if (valueWidth > width) {
+            int start = target.length();
+            valueWidth = ellipsesDecorator.decorate(target, value, valueWidth, width, widthCalculator, null);
+            if (valueWidth < width) {
+                // Only when trimmed to word or a wide character doesn't fit
+                String decorated = target.substring(start);
+                target.setLength(start);
+                cellAlignment.align(target, decorated, valueWidth, width);
+            }
+        } else {
+            cellAlignment.align(target, value, valueWidth, width);
+        }
+    }
+
 
 
+    /**
+     * Counts the lines a value is wrapped into.
+     *
+     * @param value
+     *            The value to wrap.
+     * @param valueWidth
+     *            The display width of the value.
+     * @param width
+     *            The width of the column.
+     * @return The number of lines, 1 if the value fits into the width or the
+     *         wrapping is disabled.
+     * @see Builder#withMaxLines(int)
+     */
+    public int countLines(String value, int valueWidth, int width) {
+        if (valueWidth <= width || maxLines == 1) {
+            return 1;
+        }
+        return LineBreaker.countLines(value == null ? nullValue : value, width, maxLines, widthCalculator);
+    }
+
+    /**
+     * Formats one line of a wrapped value and appends it to the buffer.
+     * <p>
+     * The lines are formatted one after the other, each starting where the
+     * previous one (as returned by this method) ended, so formatting all lines
+     * of a value takes linear time. The first line starts at zero. If the
+     * value fits into the width (or wrapping is disabled), the first line is
+     * formatted by {@linkplain #formatCell(StringBuilder, String, int, int)}.
+     * The lines after the end of the value are filled with padding.
+     * </p>
+     *
+     * @param target
+     *            The buffer to append the formatted line to.
+     * @param value
+     *            The value to convert.
+     * @param valueWidth
+     *            The display width of the value.
+     * @param width
+     *            The required width to convert the line to.
+     * @param line
+     *            The index of the line.
+     * @param start
+     *            The start of the line in the value, as returned for the
+     *            previous line.
+     * @return The start of the next line.
+     */
+    public int formatLine(StringBuilder target, String value, int valueWidth, int width, int line, int start) {
+        if (value == null) {
+            value = nullValue;
+        }
+
+        if (line == 0 && (valueWidth <= width || maxLines == 1)) {
+            formatCell(target, value, valueWidth, width);
+            return value.length();
+        }
+        if (start >= value.length()) {
+            cellAlignment.align(target, value, start, start, 0, width);
+            return start;
+        }
+
+        int end = LineBreaker.lineEnd(value, start, width, widthCalculator);
+        if (end < value.length() && line >= maxLines - 1) {
+            // The last allowed line holds the rest of the value
+            String rest = value.substring(start);
+            formatCell(target, rest, widthCalculator.width(rest), width);
+            return value.length();
+        }
+        cellAlignment.align(target, value, start, end, widthCalculator.width(value, start, end), width);
+        return LineBreaker.nextLineStart(value, end);
+    }
+
     /**
      * @return The string used for null values.
      */
@@ -224,6 +415,20 @@ public class CellContentFormatter {
 
 
 
+    /**
+     * @return The calculator of the display width of the values.
+     */
+    public WidthCalculator getWidthCalculator() {
+        return widthCalculator;
+    }
+
+    /**
+     * @return The maximal number of lines a value may be wrapped into.
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+
     /**
      * @return The minimal column width allowed.
      */
@@ -0,0 +1,247 @@
+package hu.vissy.texttable.contentformatter;
+
+/**
+ * The ANSI terminal style of a cell.
+ *
+ * <p>
+ * A style is rendered as an SGR escape sequence in front of the cell content
+ * and a reset sequence after it. The sequences are built once, when the style
+ * is created, so rendering a styled cell only appends the cached strings.
+ * The sequences are not part of the cell value: they don't count to the
+ * width, and the value is shortened and padded as plain text.
+ * </p>
+ *
+ * <p>
+ * This class is immutable and follows the builder pattern. The styles are
+ * meant to be created once and shared.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class CellStyle {
+
+    /**
+     * The sequence resetting all the attributes.
+     */
+    public static final String RESET_SEQUENCE = "\u001B[0m";
+
+    /**
+     * The terminal colors.
+     *
+     * @author Balage
+     *
+     */
+    public enum Color {
+        BLACK(0), RED(1), GREEN(2), YELLOW(3), BLUE(4), MAGENTA(5), CYAN(6), WHITE(7),
+        BRIGHT_BLACK(60), BRIGHT_RED(61), BRIGHT_GREEN(62), BRIGHT_YELLOW(63),
+        BRIGHT_BLUE(64), BRIGHT_MAGENTA(65), BRIGHT_CYAN(66), BRIGHT_WHITE(67);
+
+        private final int offset;
+
+        private Color(int offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * @return The SGR code of the color as foreground.
+         */
+        public int getForegroundCode() {
+            return 30 + offset;
+        }
+
+        /**
+         * @return The SGR code of the color as background.
+         */
+        public int getBackgroundCode() {
+            return 40 + offset;
+        }
+    }
+
+    /**
+     * The builder of {@linkplain CellStyle}.
+     *
+     * @author Balage
+     *
+     */
+    public static class Builder {
+        private Color foreground = null;
+        private Color background = null;
+        private boolean bold = false;
+        private boolean italic = false;
+        private boolean underline = false;
+
+        /**
+         * Constructor.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Sets the text color. Default is the color of the terminal.
+         *
+         * @param foreground
+         *            The color or null.
+         * @return The builder instance.
+         */
+        public Builder withForeground(Color foreground) {
+            this.foreground = foreground;
+            return this;
+        }
+
+        /**
+         * Sets the background color. Default is the color of the terminal.
+         *
+         * @param background
+         *            The color or null.
+         * @return The builder instance.
+         */
+        public Builder withBackground(Color background) {
+            this.background = background;
+            return this;
+        }
+
+        /**
+         * Sets bold (increased intensity) text. Default is false.
+         *
+         * @param bold
+         *            If true, the text is bold.
+         * @return The builder instance.
+         */
+        public Builder withBold(boolean bold) {
+            this.bold = bold;
+            return this;
+        }
+
+        /**
+         * Sets italic text. Default is false.
+         *
+         * @param italic
+         *            If true, the text is italic.
+         * @return The builder instance.
+         */
+        public Builder withItalic(boolean italic) {
+            this.italic = italic;
+            return this;
+        }
+
+        /**
+         * Sets underlined text. Default is false.
+         *
+         * @param underline
+         *            If true, the text is underlined.
+         * @return The builder instance.
+         */
+        public Builder withUnderline(boolean underline) {
+            this.underline = underline;
+            return this;
+        }
+
+        /**
+         * @return The constructed {@linkplain CellStyle} instance.
+         */
+        public CellStyle build() {
+            return new CellStyle(this);
+        }
+    }
+
+    /**
+     * Creates a style with a text color.
+     *
+     * @param foreground
+     *            The text color.
+     * @return The style.
+     */
+    public static CellStyle of(Color foreground) {
+        return new Builder().withForeground(foreground).build();
+    }
+
+    private final Color foreground;
+    private final Color background;
+    private final boolean bold;
+    private final boolean italic;
+    private final boolean underline;
+    private final String startSequence;
+
+    private CellStyle(Builder builder) {
+        foreground = builder.foreground;
+        background = builder.background;
+        bold = builder.bold;
+        italic = builder.italic;
+        underline = builder.underline;
+
+        StringBuilder sb = new StringBuilder("\u001B[");
+        if (bold) {
+            sb.append("1;");
+        }
+        if (italic) {
+            sb.append("3;");
+        }
+        if (underline) {
+            sb.append("4;");
+        }
+        if (foreground != null) {
+            sb.append(foreground.getForegroundCode()).append(';');
+        }
+        if (background != null) {
+            sb.append(background.getBackgroundCode()).append(';');
+        }
+        if (sb.charAt(sb.length() - 1) == ';') {
+            sb.setLength(sb.length() - 1);
+            startSequence = sb.append('m').toString();
+        } else {
+            startSequence = "";
+        }
+    }
+
+    /**
+     * @return The escape sequence starting the style (empty if the style has
+     *         no attributes).
+     */
+    public String getStartSequence() {
+        return startSequence;
+    }
+
+    /**
+     * @return The escape sequence ending the style (empty if the style has no
+     *         attributes).
+     */
+    public String getEndSequence() {
+        return startSequence.isEmpty() ? "" : RESET_SEQUENCE;
+    }
+
+    /**
+     * @return The text color or null.
+     */
+    public Color getForeground() {
+        return foreground;
+    }
+
+    /**
+     * @return The background color or null.
+     */
+    public Color getBackground() {
+        return background;
+    }
+
+    /**
+     * @return Whether the text is bold.
+     */
+    public boolean isBold() {
+        return bold;
+    }
+
+    /**
+     * @return Whether the text is italic.
+     */
+    public boolean isItalic() {
+        return italic;
+    }
+
+    /**
+     * @return Whether the text is underlined.
+     */
+    public boolean isUnderline() {
+        return underline;
+    }
+}
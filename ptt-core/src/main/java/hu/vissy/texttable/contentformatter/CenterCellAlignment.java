@@ -11,6 +11,8 @@ package hu.vissy.texttable.contentformatter;
  */
 public class CenterCellAlignment extends CellAlignment {
 
+    // A subclass overriding the string alignment is aligned through it
+    private final boolean stringAlignOverridden = overridesStringAlign();
 
     /**
      * Constructor with space as padding character.
@@ -32,12 +34,46 @@ public class CenterCellAlignment extends CellAlignment {
 
     @Override
     public String align(String data, int width) {
-        if (data.length() > width) {
+        if (data.length() >= width) {
             return data;
         }
-        int leftPad = (width - data.length()) / 2;
-        int rightPad = width - data.length() - leftPad;
-        return createPad(leftPad) + data + createPad(rightPad);
+        StringBuilder sb = new StringBuilder(width);
+        appendAligned(sb, data, 0, data.length(), data.length(), width);
+        return sb.toString();
+    }
+
+    @Override
+    public String align(String data, int dataWidth, int width) {
+        if (stringAlignOverridden) {
+            return super.align(data, dataWidth, width);
+        }
+        if (dataWidth >= width) {
+            return data;
+        }
+        StringBuilder sb = new StringBuilder(data.length() + width - dataWidth);
+        appendAligned(sb, data, 0, data.length(), dataWidth, width);
+        return sb.toString();
+    }
+
+    @Override
+    public void align(StringBuilder target, CharSequence data, int dataWidth, int width) {
+        align(target, data, 0, data.length(), dataWidth, width);
+    }
+
+    @Override
+    public void align(StringBuilder target, CharSequence data, int start, int end, int dataWidth, int width) {
+        if (stringAlignOverridden) {
+            target.append(align(data.subSequence(start, end).toString(), dataWidth, width));
+        } else {
+            appendAligned(target, data, start, end, dataWidth, width);
+        }
+    }
+
+    private void appendAligned(StringBuilder target, CharSequence data, int start, int end, int dataWidth, int width) {
+        int leftPad = Math.max(0, (width - dataWidth) / 2);
+        appendPad(target, leftPad);
+        target.append(data, start, end);
+        appendPad(target, width - dataWidth - leftPad);
     }
 
 
@@ -1,5 +1,7 @@
 package hu.vissy.texttable.contentformatter;
 
+import java.util.Arrays;
+
 /**
  * This decorator shortens a string and adds elipsis to it.
  *
@@ -147,80 +149,208 @@ public class EllipsisDecorator {
      * @return The optionally shortened and decorated value.
      */
     public String decorate(String value, int width) {
-        if (value.length() <= width) {
+        return decorate(value, width, WidthCalculator.UNICODE);
+    }
+
+    /**
+     * Shortens the value if needed and decorates the result string with the
+     * elipsis string, measuring the display width by the given calculator.
+     * <p>
+     * The shortening never splits a character (grapheme cluster), so the
+     * result may be narrower than <code>width</code> when a wide character
+     * doesn't fit.
+     * </p>
+     *
+     * @param value
+     *            The value to decorate.
+     * @param width
+     *            The maximum display width allowed.
+     * @param widthCalculator
+     *            The calculator of the display width.
+     * @return The optionally shortened and decorated value.
+     * @see #decorate(String, int)
+     */
+    public String decorate(String value, int width, WidthCalculator widthCalculator) {
+        int valueWidth = widthCalculator.width(value);
+        if (valueWidth <= width) {
             return value;
         }
+        StringBuilder sb = new StringBuilder(width + keptPart.getNumberOfEllipsises() * ellipsisSign.length());
+        decorate(sb, value, valueWidth, width, widthCalculator, null);
+        return sb.toString();
+    }
+
+    /**
+     * Shortens the value if needed and appends the decorated result to the
+     * buffer.
+     * <p>
+     * The result is the same as of
+     * {@linkplain #decorate(String, int, WidthCalculator)}, but it is written
+     * directly into the target buffer (typically the row buffer), so no
+     * intermediate strings are created.
+     * </p>
+     * <p>
+     * When {@linkplain #isTrimToWord()} is set, the word boundaries are looked
+     * up in <code>wordBoundaries</code> if given (see
+     * {@linkplain #findWordBoundaries(CharSequence)}), so values decorated
+     * several times are scanned only once. Otherwise the value is scanned from
+     * the cut position.
+     * </p>
+     *
+     * @param target
+     *            The buffer to append the result to.
+     * @param value
+     *            The value to decorate.
+     * @param valueWidth
+     *            The display width of the value.
+     * @param width
+     *            The maximum display width allowed.
+     * @param widthCalculator
+     *            The calculator of the display width.
+     * @param wordBoundaries
+     *            The ascending indices of the spaces in the value or null if
+     *            not known.
+     * @return The display width of the appended text.
+     */
+    public int decorate(StringBuilder target, CharSequence value, int valueWidth, int width,
+            WidthCalculator widthCalculator, int[] wordBoundaries) {
+        if (valueWidth <= width) {
+            target.append(value);
+            return valueWidth;
+        }
 
-        int usefulWidth = Math.max(0, width - keptPart.getNumberOfEllipsises() * ellipsisSign.length());
-        String keptText = "";
+        int ellipsisWidth = widthCalculator.width(ellipsisSign);
+        int usefulWidth = Math.max(0, width - keptPart.getNumberOfEllipsises() * ellipsisWidth);
         if (usefulWidth == 0) {
-            keptText = "";
-        } else {
-            int i;
-            switch (keptPart) {
-            case START:
-                i = usefulWidth;
-                if (trimToWord) {
-                    while (i >= 0 && value.charAt(i) != ' ') {
-                        i--;
-                    }
-                    if (i < 0) {
-                        // No words
-                        i = usefulWidth;
-                    }
-                }
-                i--;
-                keptText = value.substring(0, i + 1);
-                break;
-
-            case CENTER:
-                int sp = (value.length() - usefulWidth) / 2;
-                i = sp + usefulWidth;
-                if (trimToWord) {
-                    while (i >= 0 && value.charAt(i) != ' ') {
-                        i--;
-                    }
-                    if (i < 0) {
-                        // No words
-                        i = sp + usefulWidth;
-                    }
-                }
-                i--;
-                keptText = value.substring(sp, i + 1);
-                break;
-
-
-            case END:
-                i = value.length() - usefulWidth - 1;
-                if (trimToWord) {
-                    while (i < value.length() && value.charAt(i) != ' ') {
-                        i++;
-                    }
-                    if (i >= value.length()) {
-                        // No words
-                        i = value.length() - usefulWidth - 1;
-                    }
-                }
-                i++;
-                keptText = value.substring(i);
-                break;
+            int used = appendEllipsis(target, width, ellipsisWidth, widthCalculator);
+            if (keptPart == TextSegment.CENTER) {
+                used += appendEllipsis(target, width - used, ellipsisWidth, widthCalculator);
             }
+            return used;
         }
 
-        String decorated = "";
+        int limit;
+        int boundary;
         switch (keptPart) {
         case START:
-            decorated = (keptText + ellipsisSign);
-            break;
+            limit = widthCalculator.advance(value, 0, usefulWidth);
+            boundary = trimToWord ? lastBoundary(value, wordBoundaries, limit, 0) : -1;
+            int end = boundary < 0 ? limit : boundary;
+            int keptWidth = widthCalculator.width(value, 0, end);
+            target.append(value, 0, end);
+            return keptWidth + appendEllipsis(target, width - keptWidth, ellipsisWidth, widthCalculator);
+
         case CENTER:
-            decorated = (ellipsisSign + keptText + ellipsisSign);
-            break;
+            int sp = widthCalculator.advance(value, 0, (valueWidth - usefulWidth) / 2);
+            limit = widthCalculator.advance(value, sp, usefulWidth);
+            boundary = trimToWord ? lastBoundary(value, wordBoundaries, limit, sp) : -1;
+            int ep = boundary < 0 ? limit : boundary;
+            target.append(ellipsisSign).append(value, sp, ep).append(ellipsisSign);
+            return 2 * ellipsisWidth + widthCalculator.width(value, sp, ep);
+
         case END:
-            decorated = (ellipsisSign + keptText);
-            break;
+        default:
+            limit = suffixStart(value, valueWidth, usefulWidth, widthCalculator) - 1;
+            boundary = trimToWord ? firstBoundary(value, wordBoundaries, limit) : -1;
+            int st = (boundary < 0 ? limit : boundary) + 1;
+            target.append(ellipsisSign).append(value, st, value.length());
+            return ellipsisWidth + widthCalculator.width(value, st, value.length());
+        }
+    }
+
+    /**
+     * Collects the word boundaries (the indices of the spaces) of a value.
+     *
+     * @param value
+     *            The value to scan.
+     * @return The ascending indices of the spaces in the value.
+     * @see #decorate(StringBuilder, CharSequence, int, int, WidthCalculator,
+     *      int[])
+     */
+    public static int[] findWordBoundaries(CharSequence value) {
+        int count = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == ' ') {
+                count++;
+            }
+        }
+        int[] boundaries = new int[count];
+        for (int i = 0, j = 0; j < count; i++) {
+            if (value.charAt(i) == ' ') {
+                boundaries[j++] = i;
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Appends the ellipsis sign (or its start fitting into the available
+     * width).
+     */
+    private int appendEllipsis(StringBuilder target, int available, int ellipsisWidth, WidthCalculator widthCalculator) {
+        if (ellipsisWidth <= available) {
+            target.append(ellipsisSign);
+            return ellipsisWidth;
+        }
+        if (available <= 0) {
+            return 0;
+        }
+        int end = widthCalculator.advance(ellipsisSign, 0, available);
+        target.append(ellipsisSign, 0, end);
+        return widthCalculator.width(ellipsisSign, 0, end);
+    }
+
+    /**
+     * Finds the last space at or before <code>from</code>, but not before
+     * <code>lowerBound</code>.
+     *
+     * @return The index of the space or -1 if there is none.
+     */
+    private static int lastBoundary(CharSequence value, int[] boundaries, int from, int lowerBound) {
+        if (boundaries != null) {
+            int pos = Arrays.binarySearch(boundaries, from);
+            pos = pos >= 0 ? pos : -pos - 2;
+            return pos >= 0 && boundaries[pos] >= lowerBound ? boundaries[pos] : -1;
+        }
+        for (int i = from; i >= lowerBound; i--) {
+            if (value.charAt(i) == ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first space at or after <code>from</code>.
+     *
+     * @return The index of the space or -1 if there is none.
+     */
+    private static int firstBoundary(CharSequence value, int[] boundaries, int from) {
+        if (boundaries != null) {
+            int pos = Arrays.binarySearch(boundaries, from);
+            pos = pos >= 0 ? pos : -pos - 1;
+            return pos < boundaries.length ? boundaries[pos] : -1;
+        }
+        for (int i = from; i < value.length(); i++) {
+            if (value.charAt(i) == ' ') {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        return decorated.substring(0, Math.min(width, decorated.length()));
+    /**
+     * Finds the start of the longest end part of the value fitting into the
+     * given width.
+     */
+    private static int suffixStart(CharSequence value, int valueWidth, int width, WidthCalculator widthCalculator) {
+        int start = widthCalculator.advance(value, 0, valueWidth - width);
+        while (widthCalculator.width(value, start, value.length()) > width) {
+            // A wide character straddles the boundary
+            int next = widthCalculator.advance(value, start, 1);
+            start = next > start ? next : widthCalculator.advance(value, start, 2);
+        }
+        return start;
     }
 
     /**
@@ -0,0 +1,103 @@
+package hu.vissy.texttable.contentformatter;
+
+/**
+ * Greedy line breaking of the cell values at word boundaries (spaces).
+ * <p>
+ * A line is broken at the last space fitting into the width, or at the width
+ * itself when the line contains no space. The search for the space goes
+ * backward from the width limit. The part of the scanned range after the last
+ * space contains no space, so the next line ends beyond it: a character is in
+ * the scanned range of at most two lines, and it is scanned at most four
+ * times (once forward and once backward for each line). So breaking a value
+ * into any number of lines takes linear time.
+ * </p>
+ * <p>
+ * If not even the first character (grapheme cluster) of a line fits into the
+ * width, the line contains that character alone, so it is wider than the
+ * width, but the cluster is never split.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class LineBreaker {
+
+    private LineBreaker() {
+    }
+
+    /**
+     * Finds the end of the line starting at the given position.
+     *
+     * @param text
+     *            The text to break.
+     * @param start
+     *            The start of the line.
+     * @param width
+     *            The maximal display width of the line.
+     * @param widthCalculator
+     *            The calculator of the display width.
+     * @return The end (exclusive) of the line. It is the length of the text if
+     *         the rest of the text fits into the width.
+     */
+    static int lineEnd(CharSequence text, int start, int width, WidthCalculator widthCalculator) {
+        int limit = widthCalculator.advance(text, start, width);
+        if (limit >= text.length()) {
+            return text.length();
+        }
+        for (int i = limit; i > start; i--) {
+            if (text.charAt(i) == ' ') {
+                return i;
+            }
+        }
+        if (limit > start) {
+            return limit;
+        }
+        // Not even one character fits: it is put into the line alone
+        return widthCalculator.clusterEnd(text, start);
+    }
+
+    /**
+     * Finds the start of the next line.
+     *
+     * @param text
+     *            The text to break.
+     * @param end
+     *            The end of the previous line.
+     * @return The position of the first non-space character at or after
+     *         <code>end</code>.
+     */
+    static int nextLineStart(CharSequence text, int end) {
+        while (end < text.length() && text.charAt(end) == ' ') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Counts the lines of the text broken into the given width.
+     *
+     * @param text
+     *            The text to break.
+     * @param width
+     *            The maximal display width of the lines.
+     * @param maxLines
+     *            The maximal number of lines to count.
+     * @param widthCalculator
+     *            The calculator of the display width.
+     * @return The number of lines (at least one, at most
+     *         <code>maxLines</code>).
+     */
+    static int countLines(CharSequence text, int width, int maxLines, WidthCalculator widthCalculator) {
+        int lines = 1;
+        int start = 0;
+        while (lines < maxLines) {
+            int end = lineEnd(text, start, width, widthCalculator);
+            start = nextLineStart(text, end);
+            if (start >= text.length()) {
+                break;
+            }
+            lines++;
+        }
+        return lines;
+    }
+}
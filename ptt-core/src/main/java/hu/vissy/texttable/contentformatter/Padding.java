@@ -0,0 +1,91 @@
+package hu.vissy.texttable.contentformatter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A shared, lazily grown buffer of a padding character.
+ * <p>
+ * The paddings are appended as slices of the buffer, so padding a cell
+ * allocates nothing once the buffer is long enough. The buffer is never
+ * modified after it is published, a longer one replaces it instead, so it can
+ * be used by any number of threads.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+final class Padding {
+
+    private static final int INITIAL_SIZE = 64;
+
+    private static final ConcurrentMap<Character, Padding> PADDINGS = new ConcurrentHashMap<>();
+
+    private final char character;
+    private volatile char[] buffer;
+
+    private Padding(char character) {
+        this.character = character;
+        buffer = filled(INITIAL_SIZE);
+    }
+
+    /**
+     * Returns the shared padding of the character.
+     *
+     * @param character
+     *            The padding character.
+     * @return The padding instance.
+     */
+    static Padding of(char character) {
+        return PADDINGS.computeIfAbsent(character, Padding::new);
+    }
+
+    /**
+     * Appends <code>size</code> padding characters to the buffer.
+     *
+     * @param target
+     *            The buffer to append to.
+     * @param size
+     *            The number of padding characters (nothing is done if not
+     *            positive).
+     */
+    void append(StringBuilder target, int size) {
+        if (size <= 0) {
+            return;
+        }
+        char[] pad = buffer;
+        if (pad.length < size) {
+            pad = grow(size);
+        }
+        target.append(pad, 0, size);
+    }
+
+    /**
+     * @param size
+     *            The number of padding characters.
+     * @return A string of <code>size</code> padding characters.
+     */
+    String toString(int size) {
+        char[] pad = buffer;
+        if (pad.length < size) {
+            pad = grow(size);
+        }
+        return new String(pad, 0, size);
+    }
+
+    private synchronized char[] grow(int size) {
+        char[] pad = buffer;
+        if (pad.length < size) {
+            pad = filled(Math.max(size, pad.length * 2));
+            buffer = pad;
+        }
+        return pad;
+    }
+
+    private char[] filled(int size) {
+        char[] pad = new char[size];
+        Arrays.fill(pad, character);
+        return pad;
+    }
+}
@@ -9,6 +9,8 @@ package hu.vissy.texttable.contentformatter;
  */
 public class RightCellAlignment extends CellAlignment {
 
+    // A subclass overriding the string alignment is aligned through it
+    private final boolean stringAlignOverridden = overridesStringAlign();
 
     /**
      * Constructor with space as padding character.
@@ -30,11 +32,44 @@ public class RightCellAlignment extends CellAlignment {
 
     @Override
     public String align(String data, int width) {
-        if (data.length() > width) {
+        if (data.length() >= width) {
             return data;
         }
-        int diff = width - data.length();
-        return createPad(diff) + data;
+        StringBuilder sb = new StringBuilder(width);
+        appendAligned(sb, data, 0, data.length(), data.length(), width);
+        return sb.toString();
+    }
+
+    @Override
+    public String align(String data, int dataWidth, int width) {
+        if (stringAlignOverridden) {
+            return super.align(data, dataWidth, width);
+        }
+        if (dataWidth >= width) {
+            return data;
+        }
+        StringBuilder sb = new StringBuilder(data.length() + width - dataWidth);
+        appendAligned(sb, data, 0, data.length(), dataWidth, width);
+        return sb.toString();
+    }
+
+    @Override
+    public void align(StringBuilder target, CharSequence data, int dataWidth, int width) {
+        align(target, data, 0, data.length(), dataWidth, width);
+    }
+
+    @Override
+    public void align(StringBuilder target, CharSequence data, int start, int end, int dataWidth, int width) {
+        if (stringAlignOverridden) {
+            target.append(align(data.subSequence(start, end).toString(), dataWidth, width));
+        } else {
+            appendAligned(target, data, start, end, dataWidth, width);
+        }
+    }
+
+    private void appendAligned(StringBuilder target, CharSequence data, int start, int end, int dataWidth, int width) {
+        appendPad(target, width - dataWidth);
+        target.append(data, start, end);
     }
 
 
@@ -0,0 +1,201 @@
+package hu.vissy.texttable.contentformatter;
+
+import java.util.Arrays;
+
+/**
+ * A display width calculator following the Unicode standard.
+ *
+ * <p>
+ * The text is split into (simplified) extended grapheme clusters: a base
+ * character is followed by its combining marks, format characters, variation
+ * selectors and emoji modifiers, emoji joined by zero width joiners belong to
+ * one cluster, and the regional indicators form flags in pairs. The width of a
+ * cluster is the width of its base character: 2 for the wide and fullwidth
+ * characters of the East Asian Width property (CJK, Hangul, fullwidth forms,
+ * emoji presentation), 0 for a lone combining character and 1 for the rest. A
+ * narrow symbol with the emoji variation selector (U+FE0F) and a flag are 2
+ * wide.
+ * </p>
+ * <p>
+ * The wide ranges are held in a sorted table and looked up by binary search.
+ * Text consisting of Latin-1 characters only (each counted as one column) is
+ * detected by a branch-free scan and measured by its length.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class UnicodeWidthCalculator implements WidthCalculator {
+
+    private static final int ZERO_WIDTH_JOINER = 0x200D;
+    private static final int EMOJI_PRESENTATION_SELECTOR = 0xFE0F;
+
+    /**
+     * The East Asian Wide (W) and Fullwidth (F) ranges: start and end
+     * (inclusive) pairs in increasing order.
+     */
+    private static final int[] WIDE_RANGES = {
+            0x1100, 0x115F, 0x231A, 0x231B, 0x2329, 0x232A, 0x23E9, 0x23EC, 0x23F0, 0x23F0, 0x23F3, 0x23F3,
+            0x25FD, 0x25FE, 0x2614, 0x2615, 0x2648, 0x2653, 0x267F, 0x267F, 0x2693, 0x2693, 0x26A1, 0x26A1,
+            0x26AA, 0x26AB, 0x26BD, 0x26BE, 0x26C4, 0x26C5, 0x26CE, 0x26CE, 0x26D4, 0x26D4, 0x26EA, 0x26EA,
+            0x26F2, 0x26F3, 0x26F5, 0x26F5, 0x26FA, 0x26FA, 0x26FD, 0x26FD, 0x2705, 0x2705, 0x270A, 0x270B,
+            0x2728, 0x2728, 0x274C, 0x274C, 0x274E, 0x274E, 0x2753, 0x2755, 0x2757, 0x2757, 0x2795, 0x2797,
+            0x27B0, 0x27B0, 0x27BF, 0x27BF, 0x2B1B, 0x2B1C, 0x2B50, 0x2B50, 0x2B55, 0x2B55, 0x2E80, 0x2E99,
+            0x2E9B, 0x2EF3, 0x2F00, 0x2FD5, 0x2FF0, 0x2FFF, 0x3000, 0x303E, 0x3041, 0x3096, 0x3099, 0x30FF,
+            0x3105, 0x312F, 0x3131, 0x318E, 0x3190, 0x31E3, 0x31EF, 0x321E, 0x3220, 0x3247, 0x3250, 0x4DBF,
+            0x4E00, 0xA48C, 0xA490, 0xA4C6, 0xA960, 0xA97C, 0xAC00, 0xD7A3, 0xF900, 0xFAFF, 0xFE10, 0xFE19,
+            0xFE30, 0xFE52, 0xFE54, 0xFE66, 0xFE68, 0xFE6B, 0xFF01, 0xFF60, 0xFFE0, 0xFFE6,
+            0x16FE0, 0x16FE4, 0x16FF0, 0x16FF1, 0x17000, 0x187F7, 0x18800, 0x18CD5, 0x18D00, 0x18D08,
+            0x1AFF0, 0x1AFF3, 0x1AFF5, 0x1AFFB, 0x1AFFD, 0x1AFFE, 0x1B000, 0x1B122, 0x1B132, 0x1B132,
+            0x1B150, 0x1B152, 0x1B155, 0x1B155, 0x1B164, 0x1B167, 0x1B170, 0x1B2FB, 0x1F004, 0x1F004,
+            0x1F0CF, 0x1F0CF, 0x1F18E, 0x1F18E, 0x1F191, 0x1F19A, 0x1F200, 0x1F202, 0x1F210, 0x1F23B,
+            0x1F240, 0x1F248, 0x1F250, 0x1F251, 0x1F260, 0x1F265, 0x1F300, 0x1F320, 0x1F32D, 0x1F335,
+            0x1F337, 0x1F37C, 0x1F37E, 0x1F393, 0x1F3A0, 0x1F3CA, 0x1F3CF, 0x1F3D3, 0x1F3E0, 0x1F3F0,
+            0x1F3F4, 0x1F3F4, 0x1F3F8, 0x1F43E, 0x1F440, 0x1F440, 0x1F442, 0x1F4FC, 0x1F4FF, 0x1F53D,
+            0x1F54B, 0x1F54E, 0x1F550, 0x1F567, 0x1F57A, 0x1F57A, 0x1F595, 0x1F596, 0x1F5A4, 0x1F5A4,
+            0x1F5FB, 0x1F64F, 0x1F680, 0x1F6C5, 0x1F6CC, 0x1F6CC, 0x1F6D0, 0x1F6D2, 0x1F6D5, 0x1F6D7,
+            0x1F6DC, 0x1F6DF, 0x1F6EB, 0x1F6EC, 0x1F6F4, 0x1F6FC, 0x1F7E0, 0x1F7EB, 0x1F7F0, 0x1F7F0,
+            0x1F90C, 0x1F93A, 0x1F93C, 0x1F945, 0x1F947, 0x1F9FF, 0x1FA70, 0x1FA7C, 0x1FA80, 0x1FA88,
+            0x1FA90, 0x1FABD, 0x1FABF, 0x1FAC5, 0x1FACE, 0x1FADB, 0x1FAE0, 0x1FAE8, 0x1FAF0, 0x1FAF8,
+            0x20000, 0x2FFFD, 0x30000, 0x3FFFD
+    };
+
+    @Override
+    public int width(CharSequence text, int start, int end) {
+        // Branch-free scan: the bits above the low byte are only zero for
+        // Latin-1 text
+        int bits = 0;
+        for (int i = start; i < end; i++) {
+            bits |= text.charAt(i);
+        }
+        if (bits < 0x100) {
+            return end - start;
+        }
+        int width = 0;
+        for (int i = start; i < end;) {
+            int next = clusterEnd(text, i, end);
+            width += clusterWidth(text, i, next);
+            i = next;
+        }
+        return width;
+    }
+
+    @Override
+    public int advance(CharSequence text, int start, int width) {
+        int end = text.length();
+        int remaining = width;
+        int i = start;
+        while (i < end) {
+            if (text.charAt(i) < 0x100 && (i + 1 == end || text.charAt(i + 1) < 0x300)) {
+                // A Latin-1 character not followed by a combining one
+                if (remaining == 0) {
+                    break;
+                }
+                remaining--;
+                i++;
+                continue;
+            }
+            int next = clusterEnd(text, i, end);
+            int w = clusterWidth(text, i, next);
+            if (w > remaining) {
+                break;
+            }
+            remaining -= w;
+            i = next;
+        }
+        return i;
+    }
+
+    @Override
+    public int clusterEnd(CharSequence text, int start) {
+        return clusterEnd(text, start, text.length());
+    }
+
+    /**
+     * Calculates the display width of a code point on its own.
+     *
+     * @param codePoint
+     *            The code point.
+     * @return The number of columns: 0, 1 or 2.
+     */
+    public static int width(int codePoint) {
+        if (codePoint < 0x100) {
+            return 1;
+        }
+        if (isZeroWidth(codePoint)) {
+            return 0;
+        }
+        return isWide(codePoint) ? 2 : 1;
+    }
+
+    private static boolean isWide(int codePoint) {
+        if (codePoint < WIDE_RANGES[0]) {
+            return false;
+        }
+        int index = Arrays.binarySearch(WIDE_RANGES, codePoint);
+        // An exact hit on a start (even) or end (odd) index is wide, else the
+        // insertion point is odd within a range
+        return index >= 0 || ((-index - 1) & 1) == 1;
+    }
+
+    private static boolean isZeroWidth(int codePoint) {
+        switch (Character.getType(codePoint)) {
+        case Character.NON_SPACING_MARK:
+        case Character.ENCLOSING_MARK:
+        case Character.FORMAT:
+            return true;
+        default:
+            // Hangul medial vowels and final consonants join the syllable
+            return codePoint >= 0x1160 && codePoint <= 0x11FF || codePoint == 0x200B;
+        }
+    }
+
+    private static boolean isExtending(int codePoint) {
+        return codePoint >= 0x300 && (isZeroWidth(codePoint) || codePoint >= 0x1F3FB && codePoint <= 0x1F3FF);
+    }
+
+    private static boolean isRegionalIndicator(int codePoint) {
+        return codePoint >= 0x1F1E6 && codePoint <= 0x1F1FF;
+    }
+
+    private static int clusterEnd(CharSequence text, int start, int end) {
+        int codePoint = Character.codePointAt(text, start);
+        int i = start + Character.charCount(codePoint);
+        if (isRegionalIndicator(codePoint) && i < end && isRegionalIndicator(Character.codePointAt(text, i))) {
+            // A flag
+            return i + 2;
+        }
+        while (i < end) {
+            int next = Character.codePointAt(text, i);
+            if (!isExtending(next)) {
+                break;
+            }
+            i += Character.charCount(next);
+            if (next == ZERO_WIDTH_JOINER && i < end) {
+                // The joined character belongs to the cluster
+                i += Character.charCount(Character.codePointAt(text, i));
+            }
+        }
+        return i;
+    }
+
+    private static int clusterWidth(CharSequence text, int start, int end) {
+        int codePoint = Character.codePointAt(text, start);
+        if (isRegionalIndicator(codePoint)) {
+            return end - start > 2 ? 2 : 1;
+        }
+        int width = width(codePoint);
+        if (width == 1 && end - start > 1) {
+            for (int i = start + Character.charCount(codePoint); i < end; i++) {
+                if (text.charAt(i) == EMOJI_PRESENTATION_SELECTOR) {
+                    return 2;
+                }
+            }
+        }
+        return width;
+    }
+}
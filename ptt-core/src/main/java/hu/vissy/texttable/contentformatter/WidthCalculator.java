@@ -0,0 +1,99 @@
+package hu.vissy.texttable.contentformatter;
+
+/**
+ * Calculates the display width of the cell values.
+ *
+ * <p>
+ * The display width is the number of terminal columns the text occupies,
+ * which differs from the number of UTF-16 characters for wide (East Asian
+ * and emoji), combining and supplementary characters. The column widths, the
+ * shortening and the padding of the cells are calculated with it.
+ * </p>
+ *
+ * <p>
+ * The implementations must be thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public interface WidthCalculator {
+
+    /**
+     * Counts each UTF-16 character as one column, the behaviour of the
+     * earlier versions.
+     */
+    WidthCalculator CHARACTER_COUNT = new WidthCalculator() {
+        @Override
+        public int width(CharSequence text, int start, int end) {
+            return end - start;
+        }
+
+        @Override
+        public int advance(CharSequence text, int start, int width) {
+            return (int) Math.min(text.length(), (long) start + width);
+        }
+    };
+
+    /**
+     * Follows the Unicode East Asian Width property and keeps the grapheme
+     * clusters together. See {@linkplain UnicodeWidthCalculator}.
+     */
+    WidthCalculator UNICODE = new UnicodeWidthCalculator();
+
+    /**
+     * Calculates the display width of a part of a text.
+     *
+     * @param text
+     *            The text.
+     * @param start
+     *            The index of the first character (inclusive).
+     * @param end
+     *            The index of the last character (exclusive).
+     * @return The number of columns the part occupies.
+     */
+    int width(CharSequence text, int start, int end);
+
+    /**
+     * Calculates the display width of a text.
+     *
+     * @param text
+     *            The text.
+     * @return The number of columns the text occupies.
+     */
+    default int width(CharSequence text) {
+        return width(text, 0, text.length());
+    }
+
+    /**
+     * Finds the end of the longest part of the text starting at the given
+     * index, which fits into the given width. The part never ends within a
+     * character (grapheme cluster), so it may be narrower than the width.
+     *
+     * @param text
+     *            The text.
+     * @param start
+     *            The index of the first character of the part.
+     * @param width
+     *            The available number of columns.
+     * @return The index after the last character of the part.
+     */
+    int advance(CharSequence text, int start, int width);
+
+    /**
+     * Finds the end of the character (grapheme cluster) starting at the given
+     * index.
+     * <p>
+     * The default implementation steps over one code point.
+     * </p>
+     *
+     * @param text
+     *            The text.
+     * @param start
+     *            The index of the first UTF-16 character of the cluster.
+     * @return The index after the last UTF-16 character of the cluster.
+     */
+    default int clusterEnd(CharSequence text, int start) {
+        return start + Character.charCount(Character.codePointAt(text, start));
+    }
+}
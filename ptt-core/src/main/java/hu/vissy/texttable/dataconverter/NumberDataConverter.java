@@ -2,6 +2,7 @@ package hu.vissy.texttable.dataconverter;
 
 import java.math.RoundingMode;
 import java.text.NumberFormat;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class NumberDataConverter<T extends Number> extends TypedDataConverter<T> {
 
@@ -33,12 +34,30 @@ public class NumberDataConverter<T extends Number> extends TypedDataConverter<T>
     }
 
 
-    NumberFormat formatter;
+    private final NumberFormat formatter;
+    private final AtomicReference<NumberFormat> spare = new AtomicReference<>();
 
 
+    /**
+     * Constructor.
+     * <p>
+     * {@linkplain NumberFormat} is not thread safe, so the converter keeps a
+     * copy of the formatter and formats with clones of it. One idle clone is
+     * kept for the next conversion, a thread finding none (because an other
+     * thread is formatting with it) creates a new one. So the converter holds
+     * at most one clone, regardless of the number of threads using it. Later
+     * changes of the passed formatter don't affect the converter.
+     * </p>
+     *
+     * @param clazz
+     *            The number class the converter accepts.
+     * @param formatter
+     *            The number format to use.
+     */
     public NumberDataConverter(Class<T> clazz, NumberFormat formatter) {
         super(clazz);
-        this.formatter = formatter;
+        this.formatter = (NumberFormat) formatter.clone();
+        spare.set((NumberFormat) this.formatter.clone());
     }
 
 
@@ -49,7 +68,13 @@ public class NumberDataConverter<T extends Number> extends TypedDataConverter<T>
             return null;
         }
 
-        return formatter.format(data);
+        NumberFormat f = spare.getAndSet(null);
+        if (f == null) {
+            f = (NumberFormat) formatter.clone();
+        }
+        String result = f.format(data);
+        spare.set(f);
+        return result;
     }
 
 }
@@ -1,6 +1,7 @@
 package hu.vissy.texttable.dataextractor;
 
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Supplier;
 
 /**
@@ -21,6 +22,7 @@ public abstract class DataExtractor<D, S, T> {
     private Supplier<S> stateInitializer = () -> null;
     private BiFunction<D, S, T> rowDataExtractor;
     private BiFunction<Object, S, T> aggregateDataExtractor = (k, s) -> null;
+    private BinaryOperator<S> combiner;
 
     /**
      * The constructor of the data extractor.
@@ -45,6 +47,27 @@ public abstract class DataExtractor<D, S, T> {
         this.aggregateDataExtractor = aggregateDataExtractor;
     }
 
+    /**
+     * The constructor of a mergeable data extractor.
+     *
+     * @param rowDataExtractor
+     *            A closure which extracts the value from the data record. This
+     *            closure also responsible to maintain and update the state
+     *            object.
+     * @param stateInitializer
+     *            A closure to initialize the state object.
+     * @param aggregateDataExtractor
+     *            A closure to return aggregated value from the state.
+     * @param combiner
+     *            A closure to merge two partial states (may be null if the
+     *            states can't be merged). See {@linkplain #getCombiner()}.
+     */
+    public DataExtractor(BiFunction<D, S, T> rowDataExtractor, Supplier<S> stateInitializer, BiFunction<Object, S, T> aggregateDataExtractor,
+            BinaryOperator<S> combiner) {
+        this(rowDataExtractor, stateInitializer, aggregateDataExtractor);
+        this.combiner = combiner;
+    }
+
     /**
      * @return The state initializer closure.
      */
@@ -66,6 +89,29 @@ public abstract class DataExtractor<D, S, T> {
         return aggregateDataExtractor;
     }
 
+    /**
+     * Returns the state combiner closure.
+     * <p>
+     * The combiner receives two states, the first one built from earlier
+     * records than the second one, and returns the state equivalent to
+     * processing all the records of both. It may modify and return the first
+     * state. The second state is not used afterwards.
+     * </p>
+     *
+     * @return The state combiner closure or null if the states can't be
+     *         merged.
+     */
+    public BinaryOperator<S> getCombiner() {
+        return combiner;
+    }
+
+    /**
+     * @return Whether the partial states of the extractor can be merged.
+     */
+    public boolean isMergeable() {
+        return combiner != null;
+    }
+
 
     /**
      * Extracts the cell data from a data record.
@@ -0,0 +1,68 @@
+package hu.vissy.texttable.dataextractor;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * A data extractor showing a value of a later record.
+ *
+ * <p>
+ * The closure extracts a value from each data record, but the value is shown
+ * in the row of the record preceding it by the given number of data rows.
+ * The table delays the cells of the column only as long as the lookahead
+ * requires: the last rows, which have no later record far enough, show null.
+ * The aggregator rows also show null.
+ * </p>
+ * <p>
+ * The extractor depends on the order of the records, so it can't be used with
+ * parallel aggregation.
+ * </p>
+ *
+ * @author Balage
+ *
+ * @param <D>
+ *            The type of the input record.
+ * @param <T>
+ *            The type of the cell value.
+ */
+public class LookaheadDataExtractor<D, T> extends StatelessDataExtractor<D, T> {
+
+    private final int lookahead;
+
+    /**
+     * Constructor.
+     *
+     * @param sourceExtractor
+     *            A closure which extracts the value from the data record,
+     *            which is shown in an earlier row.
+     * @param lookahead
+     *            The number of data rows to look ahead (at least 1).
+     */
+    public LookaheadDataExtractor(Function<D, T> sourceExtractor, int lookahead) {
+        super(sourceExtractor);
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("Lookahead should be positive: " + lookahead);
+        }
+        this.lookahead = lookahead;
+    }
+
+    /**
+     * @return The number of data rows to look ahead.
+     */
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * @return Always null, the values are moved between the rows in order.
+     */
+    @Override
+    public BinaryOperator<Void> getCombiner() {
+        return null;
+    }
+
+    @Override
+    public boolean isMergeable() {
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package hu.vissy.texttable.dataextractor;
 
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Supplier;
 
 /**
@@ -9,6 +10,12 @@ import java.util.function.Supplier;
  * The function of data extractor is to retrieve the value of a column from a
  * data record and to maintain state information while doing it.
  * </p>
+ * <p>
+ * An extractor created with a combiner is mergeable: the records may be
+ * processed in chunks, each with its own state, and the partial states merged
+ * before the aggregated value is extracted (see
+ * {@linkplain hu.vissy.texttable.TableFormatter.Builder#withParallelAggregation(boolean)}).
+ * </p>
  *
  * @author Balage
  *
@@ -43,4 +50,29 @@ public class StatefulDataExtractor<D, S, T> extends DataExtractor<D, S, T> {
         super(rowDataExtractor, stateInitializer, aggregateDataExtractor);
     }
 
+    /**
+     * The constructor of a mergeable data extractor.
+     *
+     * @param rowDataExtractor
+     *            A closure which extracts the value from the data record. This
+     *            closure also responsible to maintain and update the state
+     *            object. When the records are processed in chunks, it only
+     *            sees the state of its own chunk, so the returned value should
+     *            not depend on the state.
+     * @param stateInitializer
+     *            A closure to initialize the state object. It is called once
+     *            for each chunk.
+     * @param aggregateDataExtractor
+     *            A closure to return aggregated value from the state. It is
+     *            called with the merged state.
+     * @param combiner
+     *            A closure to merge two partial states. The first argument is
+     *            the state of the earlier records. It may be modified and
+     *            returned.
+     */
+    public StatefulDataExtractor(BiFunction<D, S, T> rowDataExtractor, Supplier<S> stateInitializer, BiFunction<Object, S, T> aggregateDataExtractor,
+            BinaryOperator<S> combiner) {
+        super(rowDataExtractor, stateInitializer, aggregateDataExtractor, combiner);
+    }
+
 }
@@ -30,7 +30,7 @@ public class StatelessDataExtractor<D, T> extends DataExtractor<D, Void, T> {
      *            same order they are in the input list.
      */
     public StatelessDataExtractor(Function<D, T> rowDataExtractor) {
-        super((d, s) -> rowDataExtractor.apply(d), () -> null, (k, s) -> null);
+        super((d, s) -> rowDataExtractor.apply(d), () -> null, (k, s) -> null, (a, b) -> null);
     }
 
 }
@@ -0,0 +1,111 @@
+package hu.vissy.texttable.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Timespan;
+
+/**
+ * Common base of the Java Flight Recorder events emitted for a complete
+ * render.
+ *
+ * <p>
+ * The event is filled by the formatter through the {@linkplain RenderListener}
+ * callbacks, so it carries the same phase durations a listener would receive.
+ * The formatter only measures the phases when the event is enabled in the
+ * running recording.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+@Category({ "Plain Text Table" })
+public abstract class AbstractRenderEvent extends Event implements RenderListener {
+
+    @Label("Heading")
+    String heading;
+
+    @Label("Columns")
+    int columns;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Characters")
+    long characters;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("State Initialization")
+    @Timespan(Timespan.NANOSECONDS)
+    long stateInitialization;
+
+    @Label("Extraction")
+    @Timespan(Timespan.NANOSECONDS)
+    long extraction;
+
+    @Label("Conversion")
+    @Timespan(Timespan.NANOSECONDS)
+    long conversion;
+
+    @Label("Width Computation")
+    @Timespan(Timespan.NANOSECONDS)
+    long widthComputation;
+
+    @Label("Line Drawing")
+    @Timespan(Timespan.NANOSECONDS)
+    long lineDrawing;
+
+    @Label("Row Rendering")
+    @Timespan(Timespan.NANOSECONDS)
+    long rowRendering;
+
+    /**
+     * Sets the table information.
+     *
+     * @param heading
+     *            The heading of the table (may be null).
+     * @param columns
+     *            The number of columns.
+     */
+    public void setTable(String heading, int columns) {
+        this.heading = heading;
+        this.columns = columns;
+    }
+
+    @Override
+    public void phaseCompleted(RenderPhase phase, long nanos, long count) {
+        switch (phase) {
+        case STATE_INITIALIZATION:
+            stateInitialization = nanos;
+            break;
+        case EXTRACTION:
+            extraction = nanos;
+            break;
+        case CONVERSION:
+            conversion = nanos;
+            break;
+        case WIDTH_COMPUTATION:
+            widthComputation = nanos;
+            break;
+        case LINE_DRAWING:
+            lineDrawing = nanos;
+            break;
+        case ROW_RENDERING:
+            rowRendering = nanos;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown phase: " + phase);
+        }
+    }
+
+    @Override
+    public void renderCompleted(long nanos, long rows, long characters, long bytes) {
+        this.rows = rows;
+        this.characters = characters;
+        this.bytes = bytes;
+    }
+}
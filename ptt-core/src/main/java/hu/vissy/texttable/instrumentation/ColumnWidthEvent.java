@@ -0,0 +1,79 @@
+package hu.vissy.texttable.instrumentation;
+
+import hu.vissy.texttable.WidthHistogram;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of the cell width distribution of a column.
+ * <p>
+ * The event is committed for each column after the population of a
+ * {@linkplain hu.vissy.texttable.TableData TableData}, when the width
+ * histograms are collected (see
+ * {@linkplain hu.vissy.texttable.TableFormatter.Builder#withWidthHistograms(boolean)}).
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+@Name(ColumnWidthEvent.NAME)
+@Label("Column Width")
+@Description("Distribution of the cell widths of a column")
+@Category({ "Plain Text Table" })
+public final class ColumnWidthEvent extends Event {
+
+    /**
+     * The name of the event type.
+     */
+    public static final String NAME = "hu.vissy.texttable.ColumnWidth";
+
+    @Label("Heading")
+    String heading;
+
+    @Label("Column Index")
+    int columnIndex;
+
+    @Label("Title")
+    String title;
+
+    @Label("Cells")
+    int count;
+
+    @Label("Null Values")
+    int nullCount;
+
+    @Label("Median Width")
+    int p50;
+
+    @Label("95th Percentile Width")
+    int p95;
+
+    @Label("Maximal Width")
+    int max;
+
+    /**
+     * Sets the column information.
+     *
+     * @param heading
+     *            The heading of the table (may be null).
+     * @param columnIndex
+     *            The index of the column.
+     * @param title
+     *            The title of the column.
+     * @param histogram
+     *            The histogram of the cell widths of the column.
+     */
+    public void setColumn(String heading, int columnIndex, String title, WidthHistogram histogram) {
+        this.heading = heading;
+        this.columnIndex = columnIndex;
+        this.title = title;
+        this.count = histogram.getCount();
+        this.nullCount = histogram.getNullCount();
+        this.p50 = histogram.getP50();
+        this.p95 = histogram.getP95();
+        this.max = histogram.getMax();
+    }
+}
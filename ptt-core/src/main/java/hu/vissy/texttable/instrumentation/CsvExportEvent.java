@@ -0,0 +1,24 @@
+package hu.vissy.texttable.instrumentation;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of a table exported by a formatter created by
+ * {@linkplain hu.vissy.texttable.CsvTableFormatterBuilder
+ * CsvTableFormatterBuilder}.
+ *
+ * @author Balage
+ *
+ */
+@Name(CsvExportEvent.NAME)
+@Label("CSV Export")
+@Description("A table exported as CSV into a string or a channel")
+public final class CsvExportEvent extends AbstractRenderEvent {
+
+    /**
+     * The name of the event type.
+     */
+    public static final String NAME = "hu.vissy.texttable.CsvExport";
+}
@@ -0,0 +1,231 @@
+package hu.vissy.texttable.instrumentation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A render listener collecting the timings into in-memory histograms.
+ *
+ * <p>
+ * For each phase and for the total render time a histogram is maintained
+ * with power of two (nanosecond) buckets, so percentiles are reported with at
+ * most a factor of two error. The cumulative conversion time is collected for
+ * each column to find the expensive data converters.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe, one instance may be shared by several
+ * formatters.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public class HistogramRenderListener implements RenderListener {
+
+    /**
+     * A histogram of durations with power of two buckets.
+     *
+     * @author Balage
+     *
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAdder items = new LongAdder();
+
+        private void record(long nanos, long itemCount) {
+            long value = Math.max(0, nanos);
+            // Bucket i holds the values in [2^(i-1), 2^i - 1]
+            buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+            count.increment();
+            sum.add(value);
+            items.add(itemCount);
+        }
+
+        /**
+         * @return The number of recorded durations.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return The sum of the recorded durations in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return sum.sum();
+        }
+
+        /**
+         * @return The sum of the item counts reported with the durations.
+         */
+        public long getItemCount() {
+            return items.sum();
+        }
+
+        /**
+         * @return The mean of the recorded durations in nanoseconds or 0 if
+         *         nothing is recorded.
+         */
+        public double getMeanNanos() {
+            long c = getCount();
+            return c == 0 ? 0 : (double) getTotalNanos() / c;
+        }
+
+        /**
+         * Estimates a percentile of the recorded durations.
+         *
+         * @param percentile
+         *            The percentile (between 0 and 100).
+         * @return The upper bound of the bucket containing the percentile in
+         *         nanoseconds or 0 if nothing is recorded.
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile should be between 0 and 100: " + percentile);
+            }
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100d));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return (1L << i) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static final class ColumnCounter {
+        private final String title;
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        ColumnCounter(String title) {
+            this.title = title;
+        }
+    }
+
+    private final Map<RenderPhase, Histogram> phases = new EnumMap<>(RenderPhase.class);
+    private final Histogram renders = new Histogram();
+    private final Map<Integer, ColumnCounter> columns = new ConcurrentHashMap<>();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder characters = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Constructor.
+     */
+    public HistogramRenderListener() {
+        for (RenderPhase phase : RenderPhase.values()) {
+            phases.put(phase, new Histogram());
+        }
+    }
+
+    @Override
+    public void phaseCompleted(RenderPhase phase, long nanos, long count) {
+        phases.get(phase).record(nanos, count);
+    }
+
+    @Override
+    public void columnConverted(int columnIndex, String title, long nanos, long count) {
+        ColumnCounter counter = columns.computeIfAbsent(columnIndex, i -> new ColumnCounter(title));
+        counter.nanos.add(nanos);
+        counter.count.add(count);
+    }
+
+    @Override
+    public void renderCompleted(long nanos, long rows, long characters, long bytes) {
+        renders.record(nanos, rows);
+        this.rows.add(rows);
+        this.characters.add(characters);
+        if (bytes > 0) {
+            this.bytes.add(bytes);
+        }
+    }
+
+    /**
+     * @param phase
+     *            The phase.
+     * @return The histogram of the phase.
+     */
+    public Histogram getPhase(RenderPhase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * @return The histogram of the total render times. The item count is the
+     *         number of rendered rows.
+     */
+    public Histogram getRenders() {
+        return renders;
+    }
+
+    /**
+     * @param columnIndex
+     *            The index of the column.
+     * @return The cumulative conversion time of the column in nanoseconds.
+     */
+    public long getColumnConversionNanos(int columnIndex) {
+        ColumnCounter counter = columns.get(columnIndex);
+        return counter == null ? 0 : counter.nanos.sum();
+    }
+
+    /**
+     * @param columnIndex
+     *            The index of the column.
+     * @return The number of values converted in the column.
+     */
+    public long getColumnConversionCount(int columnIndex) {
+        ColumnCounter counter = columns.get(columnIndex);
+        return counter == null ? 0 : counter.count.sum();
+    }
+
+    /**
+     * @param columnIndex
+     *            The index of the column.
+     * @return The title of the column as reported by the first render or null
+     *         if the column hasn't been reported yet.
+     */
+    public String getColumnTitle(int columnIndex) {
+        ColumnCounter counter = columns.get(columnIndex);
+        return counter == null ? null : counter.title;
+    }
+
+    /**
+     * @return The total number of rendered rows.
+     */
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    /**
+     * @return The total number of characters produced.
+     */
+    public long getCharacterCount() {
+        return characters.sum();
+    }
+
+    /**
+     * @return The total number of bytes written into channels.
+     */
+    public long getByteCount() {
+        return bytes.sum();
+    }
+}
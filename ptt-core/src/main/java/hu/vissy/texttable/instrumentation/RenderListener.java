@@ -0,0 +1,96 @@
+package hu.vissy.texttable.instrumentation;
+
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.WidthHistogram;
+
+/**
+ * Receives timing and count information about the renders of a
+ * {@linkplain TableFormatter}.
+ *
+ * <p>
+ * The listener is called once per phase and once per column at the end of
+ * each render, never per cell. All the methods have empty default
+ * implementations, so an implementation may pick the information it is
+ * interested in. The same listener may be called from several threads
+ * concurrently when the formatter is shared.
+ * </p>
+ *
+ * <p>
+ * When no listener is set ({@linkplain #NONE}), the formatter doesn't measure
+ * anything.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public interface RenderListener {
+
+    /**
+     * The default listener which ignores everything. Formatters using this
+     * listener skip the measurement completely.
+     */
+    RenderListener NONE = new RenderListener() {
+    };
+
+    /**
+     * Called when a phase is completed.
+     *
+     * @param phase
+     *            The phase.
+     * @param nanos
+     *            The total time spent in the phase in nanoseconds.
+     * @param count
+     *            The number of items processed in the phase (see
+     *            {@linkplain RenderPhase} for the meaning of it).
+     */
+    default void phaseCompleted(RenderPhase phase, long nanos, long count) {
+    }
+
+    /**
+     * Called for each column with the cumulative time spent in its data
+     * converter.
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @param title
+     *            The title of the column.
+     * @param nanos
+     *            The total time spent in conversion in nanoseconds.
+     * @param count
+     *            The number of converted values.
+     */
+    default void columnConverted(int columnIndex, String title, long nanos, long count) {
+    }
+
+    /**
+     * Called for each column with the histogram of its cell widths, when the
+     * histograms are collected (see
+     * {@linkplain TableFormatter.Builder#withWidthHistograms(boolean)}).
+     *
+     * @param columnIndex
+     *            The index of the column.
+     * @param title
+     *            The title of the column.
+     * @param histogram
+     *            The histogram of the cell widths. It is a snapshot owned by
+     *            the listener, later renders don't change it.
+     */
+    default void columnMeasured(int columnIndex, String title, WidthHistogram histogram) {
+    }
+
+    /**
+     * Called when the render is completed.
+     *
+     * @param nanos
+     *            The total time of the render in nanoseconds.
+     * @param rows
+     *            The number of rows rendered (data and aggregator rows).
+     * @param characters
+     *            The number of characters produced.
+     * @param bytes
+     *            The number of bytes written when the table is rendered into a
+     *            channel, or -1 when the table is rendered into a string.
+     */
+    default void renderCompleted(long nanos, long rows, long characters, long bytes) {
+    }
+}
@@ -0,0 +1,39 @@
+package hu.vissy.texttable.instrumentation;
+
+/**
+ * The measured phases of a table render.
+ *
+ * @author Balage
+ *
+ */
+public enum RenderPhase {
+    /**
+     * Initialization of the state objects of the columns. The count is the
+     * number of columns.
+     */
+    STATE_INITIALIZATION,
+    /**
+     * Extraction of the cell values (including the aggregated values) from
+     * the records. The count is the number of cells.
+     */
+    EXTRACTION,
+    /**
+     * Conversion of the cell values to string. The count is the number of
+     * cells.
+     */
+    CONVERSION,
+    /**
+     * Calculation of the column widths. The count is the number of cells
+     * measured.
+     */
+    WIDTH_COMPUTATION,
+    /**
+     * Drawing of the horizontal lines. The count is the number of lines.
+     */
+    LINE_DRAWING,
+    /**
+     * Formatting the cells and drawing the rows (including the heading and the
+     * header). The count is the number of rows.
+     */
+    ROW_RENDERING;
+}
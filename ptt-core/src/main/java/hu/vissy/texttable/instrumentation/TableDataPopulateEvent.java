@@ -0,0 +1,90 @@
+package hu.vissy.texttable.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event of the population of a
+ * {@linkplain hu.vissy.texttable.TableData TableData} (extraction, conversion
+ * and width computation of a render).
+ *
+ * @author Balage
+ *
+ */
+@Name(TableDataPopulateEvent.NAME)
+@Label("Table Data Populate")
+@Description("Extraction, conversion and width computation of the table data")
+@Category({ "Plain Text Table" })
+public final class TableDataPopulateEvent extends Event implements RenderListener {
+
+    /**
+     * The name of the event type.
+     */
+    public static final String NAME = "hu.vissy.texttable.TableDataPopulate";
+
+    @Label("Heading")
+    String heading;
+
+    @Label("Columns")
+    int columns;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("State Initialization")
+    @Timespan(Timespan.NANOSECONDS)
+    long stateInitialization;
+
+    @Label("Extraction")
+    @Timespan(Timespan.NANOSECONDS)
+    long extraction;
+
+    @Label("Conversion")
+    @Timespan(Timespan.NANOSECONDS)
+    long conversion;
+
+    @Label("Width Computation")
+    @Timespan(Timespan.NANOSECONDS)
+    long widthComputation;
+
+    /**
+     * Sets the table information.
+     *
+     * @param heading
+     *            The heading of the table (may be null).
+     * @param columns
+     *            The number of columns.
+     * @param rows
+     *            The number of populated rows (including separators).
+     */
+    public void setTable(String heading, int columns, long rows) {
+        this.heading = heading;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    @Override
+    public void phaseCompleted(RenderPhase phase, long nanos, long count) {
+        switch (phase) {
+        case STATE_INITIALIZATION:
+            stateInitialization = nanos;
+            break;
+        case EXTRACTION:
+            extraction = nanos;
+            break;
+        case CONVERSION:
+            conversion = nanos;
+            break;
+        case WIDTH_COMPUTATION:
+            widthComputation = nanos;
+            break;
+        default:
+            // Not part of the population
+            break;
+        }
+    }
+}
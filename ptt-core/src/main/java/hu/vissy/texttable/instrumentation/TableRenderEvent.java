@@ -0,0 +1,23 @@
+package hu.vissy.texttable.instrumentation;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of a table rendered by a
+ * {@linkplain hu.vissy.texttable.TableFormatter TableFormatter}.
+ *
+ * @author Balage
+ *
+ */
+@Name(TableRenderEvent.NAME)
+@Label("Table Render")
+@Description("A table rendered into a string or a channel")
+public final class TableRenderEvent extends AbstractRenderEvent {
+
+    /**
+     * The name of the event type.
+     */
+    public static final String NAME = "hu.vissy.texttable.TableRender";
+}
@@ -0,0 +1,95 @@
+package hu.vissy.texttable.window;
+
+/**
+ * A fixed capacity ring buffer of the last double values.
+ *
+ * <p>
+ * Adding a value to a full buffer evicts the oldest one. The values are held
+ * in a primitive array, so no object is created per value.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Balage
+ *
+ */
+public final class DoubleRingBuffer {
+
+    private final double[] values;
+    private int head = 0;
+    private int size = 0;
+    private double evicted;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity
+     *            The number of values kept (at least 1).
+     */
+    public DoubleRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity should be positive: " + capacity);
+        }
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value
+     *            The value to add.
+     * @return Whether the buffer was full and the oldest value was evicted
+     *         (see {@linkplain #getEvicted()}).
+     */
+    public boolean add(double value) {
+        boolean full = size == values.length;
+        evicted = values[head];
+        values[head] = value;
+        head = head + 1 == values.length ? 0 : head + 1;
+        if (!full) {
+            size++;
+        }
+        return full;
+    }
+
+    /**
+     * @return The value evicted by the last add (only valid if the add
+     *         returned true).
+     */
+    public double getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Returns a value by its distance from the newest one.
+     *
+     * @param back
+     *            The distance (0 is the newest value).
+     * @return The value.
+     * @throws IndexOutOfBoundsException
+     *             If the buffer holds no such value.
+     */
+    public double get(int back) {
+        if (back < 0 || back >= size) {
+            throw new IndexOutOfBoundsException("No value " + back + " back, size: " + size);
+        }
+        int index = head - 1 - back;
+        return values[index < 0 ? index + values.length : index];
+    }
+
+    /**
+     * @return The number of values held.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of values kept.
+     */
+    public int capacity() {
+        return values.length;
+    }
+}
@@ -0,0 +1,228 @@
+package hu.vissy.texttable.window;
+
+import java.util.function.ToDoubleFunction;
+
+import hu.vissy.texttable.aggregation.CompensatedSum;
+import hu.vissy.texttable.aggregation.DoubleStatistics;
+import hu.vissy.texttable.dataextractor.LookaheadDataExtractor;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+/**
+ * Ready-made data extractors referencing other rows of the table.
+ *
+ * <p>
+ * The window columns look back over the previous data records (lag, change,
+ * moving sum and average, cumulative sum) or ahead to the next ones (lead).
+ * The look-back state is a primitive {@linkplain DoubleRingBuffer} holding
+ * only as many values as the window needs, and the lead columns are delayed
+ * by the table only as many rows as the lookahead. The windows run over all
+ * the data rows of the table in order, across the separator and aggregator
+ * rows.
+ * </p>
+ * <p>
+ * The extractors depend on the order of the records, so they can't be used
+ * with parallel aggregation.
+ * </p>
+ *
+ * <pre>
+ * new ColumnDefinition.StatefulBuilder&lt;Sample, MovingWindow, Double&gt;()
+ *         .withTitle("Avg(5)")
+ *         .withDataConverter(NumberDataConverter.defaultDoubleFormatter())
+ *         .withDataExtractor(WindowFunctions.movingAverage(5, Sample::getValue))
+ *         .build();
+ * </pre>
+ *
+ * @author Balage
+ *
+ */
+public final class WindowFunctions {
+
+    /**
+     * The state of the moving window columns.
+     * <p>
+     * The finite values are summed, the infinite and NaN values are only
+     * counted while they are in the window. Subtracting them at eviction
+     * would leave the sum NaN forever.
+     * </p>
+     */
+    public static final class MovingWindow {
+        private final DoubleRingBuffer buffer;
+        private final CompensatedSum sum = new CompensatedSum();
+        private int positiveInfinities;
+        private int negativeInfinities;
+        private int nans;
+
+        private MovingWindow(int size) {
+            buffer = new DoubleRingBuffer(size);
+        }
+
+        private void add(double value) {
+            include(value, 1);
+            if (buffer.add(value)) {
+                include(buffer.getEvicted(), -1);
+            }
+        }
+
+        private void include(double value, int direction) {
+            if (Double.isNaN(value)) {
+                nans += direction;
+            } else if (value == Double.POSITIVE_INFINITY) {
+                positiveInfinities += direction;
+            } else if (value == Double.NEGATIVE_INFINITY) {
+                negativeInfinities += direction;
+            } else {
+                sum.add(direction * value);
+            }
+        }
+
+        /**
+         * @return The sum of the values in the window.
+         */
+        public double getSum() {
+            if (nans > 0 || (positiveInfinities > 0 && negativeInfinities > 0)) {
+                return Double.NaN;
+            } else if (positiveInfinities > 0) {
+                return Double.POSITIVE_INFINITY;
+            } else if (negativeInfinities > 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return sum.get();
+        }
+
+        /**
+         * @return The number of values in the window.
+         */
+        public int getCount() {
+            return buffer.size();
+        }
+    }
+
+    private WindowFunctions() {
+    }
+
+    private static void checkSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size should be positive: " + size);
+        }
+    }
+
+    /**
+     * Shows the value of an earlier record.
+     *
+     * @param <D>
+     *            The type of the input record.
+     * @param offset
+     *            The number of data rows to look back (at least 1).
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the value of the record the given number
+     *         of rows earlier, or null in the first rows.
+     */
+    public static <D> StatefulDataExtractor<D, DoubleRingBuffer, Double> lag(int offset, ToDoubleFunction<D> valueExtractor) {
+        checkSize(offset);
+        return new StatefulDataExtractor<>((d, s) -> {
+            Double previous = s.size() == offset ? s.get(offset - 1) : null;
+            s.add(valueExtractor.applyAsDouble(d));
+            return previous;
+        }, () -> new DoubleRingBuffer(offset), (k, s) -> null);
+    }
+
+    /**
+     * Shows the difference from an earlier record.
+     *
+     * @param <D>
+     *            The type of the input record.
+     * @param offset
+     *            The number of data rows to look back (at least 1).
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the value of the record minus the value of
+     *         the record the given number of rows earlier, or null in the
+     *         first rows.
+     */
+    public static <D> StatefulDataExtractor<D, DoubleRingBuffer, Double> change(int offset, ToDoubleFunction<D> valueExtractor) {
+        checkSize(offset);
+        return new StatefulDataExtractor<>((d, s) -> {
+            double value = valueExtractor.applyAsDouble(d);
+            Double change = s.size() == offset ? value - s.get(offset - 1) : null;
+            s.add(value);
+            return change;
+        }, () -> new DoubleRingBuffer(offset), (k, s) -> null);
+    }
+
+    /**
+     * Shows the value of a later record.
+     *
+     * @param <D>
+     *            The type of the input record.
+     * @param offset
+     *            The number of data rows to look ahead (at least 1).
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the value of the record the given number
+     *         of rows later, or null in the last rows.
+     */
+    public static <D> LookaheadDataExtractor<D, Double> lead(int offset, ToDoubleFunction<D> valueExtractor) {
+        return new LookaheadDataExtractor<>(valueExtractor::applyAsDouble, offset);
+    }
+
+    /**
+     * Shows the sum of the last values.
+     *
+     * @param <D>
+     *            The type of the input record.
+     * @param size
+     *            The number of data rows in the window (including the
+     *            current one).
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the sum of the values in the window.
+     */
+    public static <D> StatefulDataExtractor<D, MovingWindow, Double> movingSum(int size, ToDoubleFunction<D> valueExtractor) {
+        checkSize(size);
+        return new StatefulDataExtractor<>((d, s) -> {
+            s.add(valueExtractor.applyAsDouble(d));
+            return s.getSum();
+        }, () -> new MovingWindow(size), (k, s) -> null);
+    }
+
+    /**
+     * Shows the average of the last values.
+     * <p>
+     * In the first rows the average of the available values is shown.
+     * </p>
+     *
+     * @param <D>
+     *            The type of the input record.
+     * @param size
+     *            The number of data rows in the window (including the
+     *            current one).
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the average of the values in the window.
+     */
+    public static <D> StatefulDataExtractor<D, MovingWindow, Double> movingAverage(int size, ToDoubleFunction<D> valueExtractor) {
+        checkSize(size);
+        return new StatefulDataExtractor<>((d, s) -> {
+            s.add(valueExtractor.applyAsDouble(d));
+            return s.getSum() / s.getCount();
+        }, () -> new MovingWindow(size), (k, s) -> null);
+    }
+
+    /**
+     * Shows the running total of the values.
+     *
+     * @param <D>
+     *            The type of the input record.
+     * @param valueExtractor
+     *            The closure to extract the value from the record.
+     * @return An extractor showing the sum of the values up to the current
+     *         row, and the total in the aggregator rows.
+     */
+    public static <D> StatefulDataExtractor<D, DoubleStatistics, Double> cumulativeSum(ToDoubleFunction<D> valueExtractor) {
+        return new StatefulDataExtractor<>((d, s) -> {
+            s.accept(valueExtractor.applyAsDouble(d));
+            return s.getSum();
+        }, DoubleStatistics::new, (k, s) -> s.getSum());
+    }
+}
@@ -0,0 +1,148 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.BorderFormatter.DefaultFormatters;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellAlignment;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+
+public class ChannelRenderTest {
+
+    private TableFormatter<Integer> createFormatter() {
+        return new TableFormatter.Builder<Integer>()
+                .withHeading("Channel test")
+                .withBorderFormatter(new BorderFormatter.Builder(DefaultFormatters.UNICODE_LINEDRAW).build())
+                .withColumn(ColumnDefinition.createSimpleStateless("Number", CellContentFormatter.rightAlignedCell(), i -> i))
+                .withColumn(ColumnDefinition.createSimpleStateless("Text", i -> "árvíztűrő " + i))
+                .build();
+    }
+
+    private List<Integer> createData(int count) {
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            data.add(i % 10 == 9 ? null : i);
+        }
+        return data;
+    }
+
+    @Test
+    public void whenRenderingToFileChannel_theContentIsTheSameAsTheString() throws IOException {
+        TableFormatter<Integer> formatter = createFormatter();
+        List<Integer> data = createData(2000);
+        Path file = Files.createTempFile("ptt", ".txt");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                formatter.apply(data, channel);
+            }
+            assertEquals(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), formatter.apply(data));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenRenderingToPipe_theContentIsTheSameAsTheString() throws Exception {
+        TableFormatter<Integer> formatter = createFormatter();
+        List<Integer> data = createData(500);
+        Pipe pipe = Pipe.open();
+        CompletableFuture<byte[]> reader = CompletableFuture.supplyAsync(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            try (Pipe.SourceChannel source = pipe.source()) {
+                while (source.read(buffer) >= 0) {
+                    out.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return out.toByteArray();
+        });
+        try (Pipe.SinkChannel sink = pipe.sink()) {
+            formatter.apply(data, sink);
+        }
+        assertEquals(new String(reader.get(), StandardCharsets.UTF_8), formatter.apply(data));
+    }
+
+    @Test
+    public void whenRenderingEmptyTable_theFrameIsWritten() throws IOException {
+        TableFormatter<Integer> formatter = createFormatter();
+        Path file = Files.createTempFile("ptt", ".txt");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                formatter.apply(new ArrayList<>(), channel);
+            }
+            assertEquals(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), formatter.apply(new ArrayList<>()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenRenderingFails_thePartialTableIsNotFlushed() throws IOException {
+        AtomicBoolean failed = new AtomicBoolean();
+        TableFormatter<Integer> formatter = new TableFormatter.Builder<Integer>()
+                .withColumn(ColumnDefinition.createSimpleStateless("Number", new CellContentFormatter.Builder()
+                        .withCellAlignment(new CellAlignment() {
+                            @Override
+                            public String align(String data, int width) {
+                                if (data.equals("15000")) {
+                                    failed.set(true);
+                                    throw new IllegalStateException("Broken cell");
+                                }
+                                return data + createPad(width - data.length());
+                            }
+                        })
+                        .build(), i -> i))
+                .build();
+        AtomicInteger writesAfterFailure = new AtomicInteger();
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                if (failed.get()) {
+                    writesAfterFailure.incrementAndGet();
+                    throw new IOException("Channel closed");
+                }
+                int written = src.remaining();
+                src.position(src.limit());
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            formatter.apply(createData(20000), channel);
+            fail("The render should fail");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "Broken cell");
+        }
+        assertEquals(writesAfterFailure.get(), 0);
+    }
+}
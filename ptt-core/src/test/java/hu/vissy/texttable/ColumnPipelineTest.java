@@ -0,0 +1,84 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+import hu.vissy.texttable.dataextractor.StatelessDataExtractor;
+
+public class ColumnPipelineTest {
+
+    private static class UpperCaseExtractor extends StatelessDataExtractor<String, String> {
+        UpperCaseExtractor() {
+            super(s -> s);
+        }
+
+        @Override
+        public String extractRowData(String d, Void state) {
+            return super.extractRowData(d, state).toUpperCase();
+        }
+    }
+
+    private static class CountingExtractor extends StatefulDataExtractor<String, AtomicInteger, Integer> {
+        CountingExtractor() {
+            super((d, s) -> s.incrementAndGet(), AtomicInteger::new, (k, s) -> s.get());
+        }
+
+        @Override
+        public Integer extractAggregateData(Object key, AtomicInteger state) {
+            return -super.extractAggregateData(key, state);
+        }
+    }
+
+    private static List<String> column(ColumnDefinition<String, ?, ?> column, List<String> data) {
+        TableFormatter<String> formatter = new TableFormatter.Builder<String>()
+                .withShowAggregation(true)
+                .withColumn(column)
+                .build();
+        return formatter.processData(InputBuilder.convertFromVersion1(true, data)).getRowsUnmodifiable().stream()
+                .map(r -> r.getValue(0)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void whenExtractorOverridesRowExtraction_theOverrideIsUsed() {
+        assertEquals(column(new ColumnDefinition.StatelessBuilder<String, String>()
+                .withTitle("Name")
+                .withDataExtractor(new UpperCaseExtractor())
+                .build(), Arrays.asList("a", "b")), Arrays.asList("A", "B", null));
+    }
+
+    @Test
+    public void whenExtractorOverridesAggregation_theOverrideIsUsed() {
+        assertEquals(column(new ColumnDefinition.StatefulBuilder<String, AtomicInteger, Integer>()
+                .withTitle("Count")
+                .withDataExtractor(new CountingExtractor())
+                .build(), Arrays.asList("a", "b")), Arrays.asList("1", "2", "-2"));
+    }
+
+    @Test
+    public void whenPipelineIsCompiled_itMatchesTheColumnDefinition() {
+        ColumnDefinition<String, AtomicInteger, Integer> definition = new ColumnDefinition.StatefulBuilder<String, AtomicInteger, Integer>()
+                .withTitle("Count")
+                .withDataConverter(i -> "#" + i)
+                .withAggregateRowConstant("total", "all")
+                .withDataExtractor(new CountingExtractor())
+                .build();
+        ColumnPipeline<String, AtomicInteger, Integer> pipeline = new ColumnPipeline<>(definition, String::toUpperCase);
+        assertEquals(pipeline.getHeaderText(), "COUNT");
+
+        Object pipelineState = pipeline.initializeState();
+        AtomicInteger definitionState = new AtomicInteger();
+        for (String d : Arrays.asList("a", "b", "c")) {
+            assertEquals(pipeline.rowData(d, pipelineState), definition.getRowData(d, definitionState));
+        }
+        assertEquals(pipeline.aggregateData("sub", pipelineState), definition.getAggregateData("sub", definitionState));
+        assertEquals(pipeline.aggregateData("total", pipelineState), "all");
+    }
+}
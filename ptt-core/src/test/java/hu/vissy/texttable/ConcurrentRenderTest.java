@@ -0,0 +1,114 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+import hu.vissy.texttable.dataconverter.NumberDataConverter;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class ConcurrentRenderTest {
+
+    private static final String LONG_HEADING = "A heading which is much longer than the narrow tables";
+
+    private static class Sum {
+        double sum;
+    }
+
+    private TableFormatter<Double> createFormatter(boolean reuse) {
+        return new TableFormatter.Builder<Double>()
+                .withHeading(LONG_HEADING)
+                .withShowAggregation(true)
+                .withReuseRenderBuffers(reuse)
+                .withColumn(new ColumnDefinition.StatelessBuilder<Double, String>()
+                        .withTitle("Name")
+                        .withAggregateRowConstant("TOTAL")
+                        .withDataExtractor(d -> d > 500 ? "a rather long name " + d.intValue() : "#" + d.intValue())
+                        .withCellContentFormatter(new CellContentFormatter.Builder().withMaxWidth(12).build())
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<Double, Sum, Double>()
+                        .withTitle("Value")
+                        .withCellContentFormatter(CellContentFormatter.rightAlignedCell())
+                        .withDataConverter(NumberDataConverter.defaultDoubleFormatter())
+                        .withDataExtractor(new StatefulDataExtractor<>((d, s) -> {
+                            s.sum += d;
+                            return d;
+                        }, Sum::new, (k, s) -> s.sum))
+                        .build())
+                .build();
+    }
+
+    private List<List<Double>> createDataSets() {
+        Random r = new Random(42);
+        List<List<Double>> sets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            List<Double> data = new ArrayList<>();
+            int count = r.nextInt(30);
+            for (int j = 0; j < count; j++) {
+                data.add(r.nextInt(10) == 0 ? null : r.nextDouble() * (i % 2 == 0 ? 10 : 100000));
+            }
+            sets.add(data);
+        }
+        return sets;
+    }
+
+    private void runConcurrently(TableFormatter<Double> formatter) throws Exception {
+        List<List<Double>> sets = createDataSets();
+        List<String> expected = new ArrayList<>();
+        TableFormatter<Double> serial = createFormatter(false);
+        for (List<Double> data : sets) {
+            expected.add(serial.apply(data));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 4000; task++) {
+                int index = task % sets.size();
+                futures.add(executor.submit(() -> {
+                    assertEquals(formatter.apply(sets.get(index)), expected.get(index));
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    @Test
+    public void whenSharedFormatterUsedByManyThreads_theOutputIsTheSameAsSerial() throws Exception {
+        runConcurrently(createFormatter(false));
+    }
+
+    @Test
+    public void whenSharedReusingFormatterUsedByManyThreads_theOutputIsTheSameAsSerial() throws Exception {
+        runConcurrently(createFormatter(true));
+    }
+
+    @Test
+    public void whenNarrowTableRenderedFirst_theHeadingIsNotLost() {
+        TableFormatter<Double> formatter = createFormatter(false);
+        List<Double> wide = new ArrayList<>();
+        wide.add(1e40);
+        String expected = createFormatter(false).apply(wide);
+
+        formatter.apply(new ArrayList<>());
+        assertTrue(expected.contains(LONG_HEADING));
+        assertEquals(formatter.apply(wide), expected);
+        assertEquals(formatter.getHeading(), LONG_HEADING);
+    }
+}
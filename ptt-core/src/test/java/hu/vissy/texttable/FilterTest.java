@@ -0,0 +1,60 @@
+package hu.vissy.texttable;
+
+import static hu.vissy.texttable.SalesFixture.SALES;
+import static hu.vissy.texttable.SalesFixture.rows;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.SalesFixture.Sale;
+import hu.vissy.texttable.aggregation.LongAggregator;
+import hu.vissy.texttable.column.ColumnDefinition;
+
+public class FilterTest {
+
+    private final AtomicInteger conversions = new AtomicInteger();
+
+    private TableFormatter.Builder<Sale> createBuilder() {
+        return new TableFormatter.Builder<Sale>()
+                .withShowAggregation(true)
+                .withColumn(new ColumnDefinition.StatelessBuilder<Sale, String>()
+                        .withTitle("Region")
+                        .withAggregateRowConstant("region", "R")
+                        .withAggregateRowConstant(null, "T")
+                        .withDataExtractor(s -> {
+                            conversions.incrementAndGet();
+                            return s.region;
+                        })
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<Sale, LongAggregator.State, Long>()
+                        .withTitle("Quantity")
+                        .withDataExtractor(LongAggregator.sum(s -> s.quantity))
+                        .build());
+    }
+
+    @Test
+    public void whenFiltering_theRejectedRecordsAreNotExtracted() {
+        assertEquals(rows(createBuilder().withFilter(s -> s.quantity > 2).build(), SALES),
+                Arrays.asList("S 3", "N 4", "S 5", "N 6", "T 18"));
+        assertEquals(conversions.get(), 4);
+    }
+
+    @Test
+    public void whenAggregatingFiltered_theTotalsCoverAllRecords() {
+        assertEquals(rows(createBuilder().withFilter(s -> s.region.equals("S"), true).build(), SALES),
+                Arrays.asList("S 1", "S 3", "S 5", "T 21"));
+    }
+
+    @Test
+    public void whenAggregatingFilteredWithGroups_theSubtotalsCoverAllRecords() {
+        TableFormatter<Sale> formatter = createBuilder()
+                .withGroupBy(s -> s.region, "region")
+                .withHashGrouping(GroupOrder.FIRST_SEEN)
+                .withFilter(s -> s.quantity > 2, true)
+                .build();
+        assertEquals(rows(formatter, SALES), Arrays.asList("S 3", "S 5", "R 9", "N 4", "N 6", "R 12", "T 21"));
+    }
+}
@@ -0,0 +1,88 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+
+public class FitTest {
+
+    private static final List<String[]> INCIDENTS = Arrays.asList(
+            new String[] { "db-primary-01", "disk full" },
+            new String[] { "db-replica-02", "replication lag above the configured threshold for 5 minutes" },
+            new String[] { "web-frontend-03", "ok" });
+
+    private static TableFormatter.Builder<String[]> createBuilder(int maxLines) {
+        return new TableFormatter.Builder<String[]>()
+                .withColumn(new ColumnDefinition.StatelessBuilder<String[], String>()
+                        .withTitle("Host")
+                        .withDataExtractor(r -> r[0])
+                        .build())
+                .withColumn(new ColumnDefinition.StatelessBuilder<String[], String>()
+                        .withTitle("Message")
+                        .withCellContentFormatter(new CellContentFormatter.Builder().withMaxLines(maxLines).build())
+                        .withDataExtractor(r -> r[1])
+                        .build());
+    }
+
+    private static int maxLineWidth(String table) {
+        return Arrays.stream(table.split("\n")).mapToInt(String::length).max().getAsInt();
+    }
+
+    @Test
+    public void whenTableFits_itIsNotChanged() {
+        assertEquals(createBuilder(1).withMaxTableWidth(200).build().apply(INCIDENTS),
+                createBuilder(1).build().apply(INCIDENTS));
+    }
+
+    @Test
+    public void whenTableIsTooWide_theOutlierColumnIsShrunk() {
+        String table = createBuilder(1).withMaxTableWidth(50).build().apply(INCIDENTS);
+        assertEquals(maxLineWidth(table), 50);
+        String[] lines = table.split("\n");
+        assertEquals(lines[3], "| db-primary-01   | disk full                    |");
+        assertEquals(lines[4], "| db-replica-02   | replication lag above the... |");
+    }
+
+    @Test
+    public void whenColumnWraps_theFittedValuesAreWrapped() {
+        String table = createBuilder(3).withMaxTableWidth(50).build().apply(INCIDENTS);
+        assertEquals(maxLineWidth(table), 50);
+        String[] lines = table.split("\n");
+        assertEquals(lines[4], "| db-replica-02   | replication lag above the    |");
+        assertEquals(lines[5], "|                 | configured threshold for 5   |");
+        assertEquals(lines[6], "|                 | minutes                      |");
+    }
+
+    @Test
+    public void whenLimitIsBelowTheMinimalWidths_theColumnsStopAtTheirMinimum() {
+        String table = createBuilder(1).withMaxTableWidth(5).build().apply(INCIDENTS);
+        assertEquals(maxLineWidth(table), 4 + 4 + 7);
+    }
+
+    @Test
+    public void whenShrinking_theCutCellsAreMinimized() {
+        WidthHistogram uniform = new WidthHistogram();
+        WidthHistogram outlier = new WidthHistogram();
+        for (int i = 0; i < 10; i++) {
+            uniform.add(10);
+            outlier.add(5);
+        }
+        outlier.add(30);
+        int[] widths = { 10, 30 };
+        assertTrue(WidthFitter.fit(widths, new int[] { 4, 4 }, new int[] { 0, 0 }, new WidthHistogram[] { uniform, outlier }, 30));
+        assertEquals(widths[0], 10);
+        assertEquals(widths[1], 20);
+
+        widths = new int[] { 10, 30 };
+        assertTrue(WidthFitter.fit(widths, new int[] { 4, 4 }, new int[] { 0, 0 }, new WidthHistogram[] { uniform, outlier }, 14));
+        assertEquals(widths[0] + widths[1], 14);
+        assertEquals(widths[1], 5);
+    }
+}
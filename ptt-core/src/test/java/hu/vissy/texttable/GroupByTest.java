@@ -0,0 +1,88 @@
+package hu.vissy.texttable;
+
+import static hu.vissy.texttable.SalesFixture.rows;
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.SalesFixture.Sale;
+import hu.vissy.texttable.aggregation.LongAggregator;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class GroupByTest {
+
+    private static class Counter {
+        int count;
+    }
+
+    private TableFormatter.Builder<Sale> createBuilder() {
+        return new TableFormatter.Builder<Sale>()
+                .withShowAggregation(true)
+                .withGroupBy(s -> s.region, "region")
+                .withGroupBy(s -> s.fruit, "fruit")
+                .withColumn(new ColumnDefinition.StatelessBuilder<Sale, String>()
+                        .withTitle("Region")
+                        .withAggregateRowConstant("region", "Region total")
+                        .withAggregateRowConstant("fruit", "Fruit total")
+                        .withAggregateRowConstant(null, "Total")
+                        .withDataExtractor(s -> s.region)
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<Sale, LongAggregator.State, Long>()
+                        .withTitle("Quantity")
+                        .withDataExtractor(LongAggregator.sum(s -> s.quantity))
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<Sale, Counter, Integer>()
+                        .withTitle("Running count")
+                        .withDataExtractor(new StatefulDataExtractor<>((s, c) -> ++c.count, Counter::new, (k, c) -> c.count))
+                        .build());
+    }
+
+    @Test
+    public void whenGroupingSortedInput_subtotalsAreInserted() {
+        List<Sale> sales = Arrays.asList(
+                new Sale("N", "apple", 1),
+                new Sale("N", "apple", 2),
+                new Sale("N", "pear", 3),
+                new Sale("S", "apple", 4),
+                new Sale("S", "kiwi", 5));
+        TableFormatter<Sale> formatter = createBuilder().build();
+        TableData<Sale> td = formatter.processData(InputBuilder.convertFromVersion1(true, sales));
+        assertEquals(rows(td, "|"), Arrays.asList(
+                "N|1|1",
+                "N|2|2",
+                "Fruit total|3|2",
+                "N|3|3",
+                "Fruit total|3|3",
+                "Region total|6|3",
+                "S|4|4",
+                "Fruit total|4|4",
+                "S|5|5",
+                "Fruit total|5|5",
+                "Region total|9|5",
+                "Total|15|5"));
+    }
+
+    @Test
+    public void whenGroupingInParallel_theOutputIsTheSame() {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < 60_000; i++) {
+            sales.add(new Sale("R" + i / 25_000, "F" + i / 7_000, i % 13));
+        }
+        TableFormatter.Builder<Sale> builder = new TableFormatter.Builder<Sale>()
+                .withShowAggregation(true)
+                .withGroupBy(s -> s.region, "region")
+                .withGroupBy(s -> s.fruit, "fruit")
+                .withColumn(ColumnDefinition.createSimpleStateless("Fruit", s -> s.fruit))
+                .withColumn(new ColumnDefinition.StatefulBuilder<Sale, LongAggregator.State, Long>()
+                        .withTitle("Quantity")
+                        .withDataExtractor(LongAggregator.sum(s -> s.quantity))
+                        .build());
+        String serial = builder.build().apply(sales);
+        assertEquals(builder.withParallelAggregation(true).build().apply(sales), serial);
+    }
+}
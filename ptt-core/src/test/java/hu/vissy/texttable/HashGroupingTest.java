@@ -0,0 +1,77 @@
+package hu.vissy.texttable;
+
+import static hu.vissy.texttable.SalesFixture.SALES;
+import static hu.vissy.texttable.SalesFixture.rows;
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.SalesFixture.Sale;
+import hu.vissy.texttable.aggregation.LongAggregator;
+import hu.vissy.texttable.column.ColumnDefinition;
+
+public class HashGroupingTest {
+
+    private TableFormatter.Builder<Sale> createBuilder() {
+        return new TableFormatter.Builder<Sale>()
+                .withShowAggregation(true)
+                .withGroupBy(s -> s.region, "region")
+                .withGroupBy(s -> s.fruit, "fruit")
+                .withColumn(new ColumnDefinition.StatelessBuilder<Sale, String>()
+                        .withTitle("Fruit")
+                        .withAggregateRowConstant("region", "R")
+                        .withAggregateRowConstant("fruit", "F")
+                        .withAggregateRowConstant(null, "T")
+                        .withDataExtractor(s -> s.region + "/" + s.fruit)
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<Sale, LongAggregator.State, Long>()
+                        .withTitle("Quantity")
+                        .withDataExtractor(LongAggregator.sum(s -> s.quantity))
+                        .build());
+    }
+
+    @Test
+    public void whenGroupingInFirstSeenOrder_theGroupsFollowTheirFirstRecords() {
+        assertEquals(rows(createBuilder().withHashGrouping(GroupOrder.FIRST_SEEN).build(), SALES), Arrays.asList(
+                "S/pear 1", "S/pear 5", "F 6",
+                "S/apple 3", "F 3",
+                "R 9",
+                "N/kiwi 2", "N/kiwi 6", "F 8",
+                "N/apple 4", "F 4",
+                "R 12",
+                "T 21"));
+    }
+
+    @Test
+    public void whenGroupingInKeyOrder_theGroupsAreSorted() {
+        assertEquals(rows(createBuilder().withHashGrouping(GroupOrder.KEY).build(), SALES), Arrays.asList(
+                "N/apple 4", "F 4",
+                "N/kiwi 2", "N/kiwi 6", "F 8",
+                "R 12",
+                "S/apple 3", "F 3",
+                "S/pear 1", "S/pear 5", "F 6",
+                "R 9",
+                "T 21"));
+    }
+
+    @Test
+    public void whenThereAreManyGroups_theFirstSeenOrderIsKept() {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            sales.add(new Sale("R" + (999 - i % 1_000), "F" + i % 3, i));
+        }
+        List<String> regions = createBuilder().withHashGrouping(GroupOrder.FIRST_SEEN).build()
+                .processData(InputBuilder.convertFromVersion1(false, sales)).getRowsUnmodifiable().stream()
+                .filter(r -> r.getType() == TableRow.Type.DATA)
+                .map(r -> r.getValue(0).substring(0, r.getValue(0).indexOf('/')))
+                .distinct().collect(Collectors.toList());
+        assertEquals(regions.size(), 1_000);
+        assertEquals(regions.get(0), "R999");
+        assertEquals(regions.get(999), "R0");
+    }
+}
@@ -0,0 +1,75 @@
+package hu.vissy.texttable;
+
+import static hu.vissy.texttable.SalesFixture.rows;
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.SalesFixture.Sale;
+import hu.vissy.texttable.aggregation.LongAggregator;
+import hu.vissy.texttable.column.ColumnDefinition;
+
+public class LimitTest {
+
+    private static final Comparator<Sale> LARGEST_FIRST = Comparator.comparingLong((Sale s) -> s.quantity).reversed();
+
+    private TableFormatter.Builder<Sale> createBuilder() {
+        return new TableFormatter.Builder<Sale>()
+                .withShowAggregation(true)
+                .withColumn(new ColumnDefinition.StatelessBuilder<Sale, String>()
+                        .withTitle("Region")
+                        .withAggregateRowConstant(null, "Total")
+                        .withDataExtractor(s -> s.region)
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<Sale, LongAggregator.State, Long>()
+                        .withTitle("Quantity")
+                        .withDataExtractor(LongAggregator.sum(s -> s.quantity))
+                        .build());
+    }
+
+    private static List<Sale> createSales(int count) {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sales.add(new Sale("R" + i, "pear", (i * 7919L) % 1_000));
+        }
+        return sales;
+    }
+
+    @Test
+    public void whenLimiting_theBestRecordsAreShownInOrder() {
+        List<Sale> sales = Arrays.asList(new Sale("a", "pear", 5), new Sale("b", "pear", 9), new Sale("c", "pear", 1),
+                new Sale("d", "pear", 9), new Sale("e", "pear", 7));
+        assertEquals(rows(createBuilder().withLimit(3, LARGEST_FIRST).build(), sales),
+                Arrays.asList("b 9", "d 9", "e 7", "Total 31"));
+    }
+
+    @Test
+    public void whenNotAggregatingRejected_theTotalCoversTheShownRecords() {
+        List<Sale> sales = Arrays.asList(new Sale("a", "pear", 5), new Sale("b", "pear", 9), new Sale("c", "pear", 1));
+        assertEquals(rows(createBuilder().withLimit(2, LARGEST_FIRST, false).build(), sales),
+                Arrays.asList("b 9", "a 5", "Total 14"));
+    }
+
+    @Test
+    public void whenLimitingManyRecords_theResultMatchesSortAndTruncate() {
+        List<Sale> sales = createSales(50_000);
+        List<Sale> sorted = new ArrayList<>(sales);
+        sorted.sort(LARGEST_FIRST);
+        List<String> expected = new ArrayList<>();
+        sorted.stream().limit(50).forEach(s -> expected.add(s.region + " " + s.quantity));
+        expected.add("Total " + sales.stream().mapToLong(s -> s.quantity).sum());
+
+        assertEquals(rows(createBuilder().withLimit(50, LARGEST_FIRST).build(), sales), expected);
+        assertEquals(rows(createBuilder().withLimit(50, LARGEST_FIRST).withParallelAggregation(true).build(), sales), expected);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void whenLimitIsNotPositive_anExceptionIsThrown() {
+        createBuilder().withLimit(0, LARGEST_FIRST);
+    }
+}
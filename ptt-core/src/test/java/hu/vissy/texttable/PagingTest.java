@@ -0,0 +1,94 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+
+public class PagingTest {
+
+    private static final List<String> KEYS = Arrays.asList("a", "b");
+
+    private final AtomicInteger extractions = new AtomicInteger();
+
+    private TableFormatter.Builder<String> createBuilder(int valueColumns) {
+        TableFormatter.Builder<String> builder = new TableFormatter.Builder<String>()
+                .withColumn(ColumnDefinition.createSimpleStateless("Key", s -> s));
+        for (int i = 1; i <= valueColumns; i++) {
+            String title = "Col" + i;
+            builder.withColumn(ColumnDefinition.createSimpleStateless(title, s -> {
+                extractions.incrementAndGet();
+                return s + "-" + title;
+            }));
+        }
+        return builder;
+    }
+
+    @Test
+    public void whenTableIsWiderThanThePage_itIsSplitWithRepeatedKeys() {
+        String table = createBuilder(5).withPageWidth(30, 0).build().apply(KEYS);
+        assertEquals(table, ""
+                + "+-----+--------+--------+\n"
+                + "| Key | Col1   | Col2   |\n"
+                + "+-----+--------+--------+\n"
+                + "| a   | a-Col1 | a-Col2 |\n"
+                + "| b   | b-Col1 | b-Col2 |\n"
+                + "+-----+--------+--------+\n"
+                + "\n"
+                + "+-----+--------+--------+\n"
+                + "| Key | Col3   | Col4   |\n"
+                + "+-----+--------+--------+\n"
+                + "| a   | a-Col3 | a-Col4 |\n"
+                + "| b   | b-Col3 | b-Col4 |\n"
+                + "+-----+--------+--------+\n"
+                + "\n"
+                + "+-----+--------+\n"
+                + "| Key | Col5   |\n"
+                + "+-----+--------+\n"
+                + "| a   | a-Col5 |\n"
+                + "| b   | b-Col5 |\n"
+                + "+-----+--------+\n");
+        assertEquals(extractions.get(), 5 * KEYS.size());
+    }
+
+    @Test
+    public void whenTableFitsThePage_itIsNotSplit() {
+        assertEquals(createBuilder(2).withPageWidth(200, 0).build().apply(KEYS), createBuilder(2).build().apply(KEYS));
+    }
+
+    @Test
+    public void whenColumnIsWiderThanThePage_itIsAloneOnItsPage() {
+        String table = createBuilder(2).withPageWidth(5).build().apply(KEYS);
+        assertEquals(table.split("\n\n").length, 3);
+    }
+
+    @Test
+    public void whenWrappedColumnIsOnAnotherPage_theRowsAreNotHigher() {
+        TableFormatter<String> formatter = createBuilder(1)
+                .withColumn(new ColumnDefinition.StatelessBuilder<String, String>()
+                        .withTitle("Note")
+                        .withCellContentFormatter(new CellContentFormatter.Builder()
+                                .withMaxWidth(6)
+                                .withMaxLines(2)
+                                .build())
+                        .withDataExtractor(s -> "long note")
+                        .build())
+                .withPageWidth(20, 0)
+                .build();
+        String[] pages = formatter.apply(KEYS).split("\n\n");
+        assertEquals(pages.length, 2);
+        assertEquals(pages[0].split("\n").length, 6);
+        assertEquals(pages[1].split("\n").length, 8);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void whenRepeatedColumnIsInvalid_exceptionIsThrown() {
+        createBuilder(1).withPageWidth(20, 2).build();
+    }
+}
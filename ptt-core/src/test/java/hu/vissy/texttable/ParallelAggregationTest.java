@@ -0,0 +1,90 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+import hu.vissy.texttable.instrumentation.HistogramRenderListener;
+import hu.vissy.texttable.instrumentation.RenderPhase;
+
+public class ParallelAggregationTest {
+
+    private static class Stat {
+        long sum;
+        int count;
+        int max = Integer.MIN_VALUE;
+    }
+
+    private static Stat merge(Stat a, Stat b) {
+        a.sum += b.sum;
+        a.count += b.count;
+        a.max = Math.max(a.max, b.max);
+        return a;
+    }
+
+    private TableFormatter.Builder<Integer> createBuilder() {
+        return new TableFormatter.Builder<Integer>()
+                .withColumn(ColumnDefinition.createSimpleStateless("Value", i -> i))
+                .withColumn(new ColumnDefinition.StatefulBuilder<Integer, Stat, Long>()
+                        .withTitle("Sum")
+                        .withDataExtractor(new StatefulDataExtractor<>((i, s) -> {
+                            s.sum += i;
+                            s.count++;
+                            s.max = Math.max(s.max, i);
+                            return (long) i * i;
+                        }, Stat::new, (k, s) -> "max".equals(k) ? s.max : "count".equals(k) ? s.count : s.sum,
+                                ParallelAggregationTest::merge))
+                        .build());
+    }
+
+    private List<InputRow<Integer>> createInput() {
+        InputBuilder<Integer> builder = new InputBuilder<>();
+        for (int i = 0; i < 50_000; i++) {
+            builder.addData(i % 997);
+        }
+        builder.addAggregator("sum");
+        builder.addSeparator();
+        for (int i = 0; i < 30_000; i++) {
+            builder.addData(-i);
+        }
+        builder.addAggregator("count");
+        builder.addAggregator("max");
+        for (int i = 0; i < 10; i++) {
+            builder.addData(i);
+        }
+        builder.addAggregator("sum");
+        return builder.build();
+    }
+
+    @Test
+    public void whenAggregatingInParallel_theOutputIsTheSame() {
+        List<InputRow<Integer>> input = createInput();
+        String serial = createBuilder().build().applyToInput(input);
+        String parallel = createBuilder().withParallelAggregation(true).build().applyToInput(input);
+        assertEquals(parallel, serial);
+    }
+
+    @Test
+    public void whenAggregatingInParallelWithListener_allCellsAreCounted() {
+        HistogramRenderListener listener = new HistogramRenderListener();
+        createBuilder().withParallelAggregation(true).withRenderListener(listener).build().applyToInput(createInput());
+        // 80010 data rows and 4 aggregator rows in both columns
+        assertEquals(listener.getPhase(RenderPhase.EXTRACTION).getItemCount(), 2 * 80_014);
+        assertEquals(listener.getColumnConversionCount(1), 80_014);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void whenColumnIsNotMergeable_parallelAggregationIsRejected() {
+        new TableFormatter.Builder<Integer>()
+                .withParallelAggregation(true)
+                .withColumn(new ColumnDefinition.StatefulBuilder<Integer, Stat, Integer>()
+                        .withTitle("Running")
+                        .withDataExtractor(new StatefulDataExtractor<>((i, s) -> s.count++, Stat::new, (k, s) -> s.count))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package hu.vissy.texttable;
+
+import static hu.vissy.texttable.SalesFixture.SALES;
+import static hu.vissy.texttable.SalesFixture.rows;
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.SalesFixture.Sale;
+import hu.vissy.texttable.aggregation.Statistic;
+
+public class PivotTest {
+
+    private static PivotTableFormatter.Builder<Sale> createBuilder() {
+        return new PivotTableFormatter.Builder<Sale>(s -> s.region, s -> s.fruit, s -> s.quantity)
+                .withRowKeyTitle("Region");
+    }
+
+    @Test
+    public void whenPivoting_theCategoriesBecomeColumns() {
+        PivotTableFormatter<Sale> pivot = createBuilder().build();
+        String header = pivot.apply(SALES).split("\n")[1];
+        assertEquals(Arrays.stream(header.split("[^a-zA-Z]+")).filter(t -> !t.isEmpty()).collect(Collectors.toList()),
+                Arrays.asList("Region", "pear", "kiwi", "apple"));
+        assertEquals(rows(pivot.processData(SALES)), Arrays.asList("S 6.00 null 3.00", "N null 8.00 4.00"));
+    }
+
+    @Test
+    public void whenShowingTotals_theTotalsCoverTheRecords() {
+        TableData<Integer> data = createBuilder()
+                .withRowOrder(GroupOrder.KEY)
+                .withColumnOrder(GroupOrder.KEY)
+                .withStatistic(Statistic.MAX)
+                .withRowTotals(true)
+                .withColumnTotals(true)
+                .build()
+                .processData(SALES);
+        assertEquals(rows(data), Arrays.asList(
+                "N 4.00 6.00 null 6.00",
+                "S 3.00 null 5.00 5.00",
+                "Total 4.00 6.00 5.00 6.00"));
+    }
+
+    @Test
+    public void whenCounting_theCountsHaveNoFraction() {
+        assertEquals(rows(createBuilder().withStatistic(Statistic.COUNT).withColumnTotals(true).build().processData(SALES)),
+                Arrays.asList("S 2 null 1", "N null 2 1", "Total 2 2 2"));
+    }
+
+    @Test
+    public void whenPivotingManyRecords_theSumsAreExact() {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            sales.add(new Sale("R" + i % 100, "C" + i % 7, 1));
+        }
+        TableData<Integer> data = new PivotTableFormatter.Builder<Sale>(s -> s.region, s -> s.fruit, s -> s.quantity / 10.0)
+                .withColumnTotals(true)
+                .withRowTotals(true)
+                .build()
+                .processData(sales);
+        assertEquals(data.getRowsUnmodifiable().size(), 101);
+        List<String> total = data.getRowsUnmodifiable().get(100).getValues();
+        assertEquals(total.get(total.size() - 1), "10000.00");
+    }
+}
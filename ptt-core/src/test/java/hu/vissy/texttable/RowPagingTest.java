@@ -0,0 +1,79 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+
+public class RowPagingTest {
+
+    private final AtomicInteger conversions = new AtomicInteger();
+
+    private TableFormatter<Integer> createFormatter() {
+        return new TableFormatter.Builder<Integer>()
+                .withColumn(ColumnDefinition.createSimpleStateless("Id", i -> i))
+                .withColumn(new ColumnDefinition.StatelessBuilder<Integer, Integer>()
+                        .withTitle("Square")
+                        .withDataExtractor(i -> i * i)
+                        .withDataConverter(i -> {
+                            conversions.incrementAndGet();
+                            return String.valueOf(i);
+                        })
+                        .build())
+                .build();
+    }
+
+    private static List<InputRow<Integer>> createInput(int count) {
+        List<Integer> data = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            data.add(i);
+        }
+        return InputBuilder.convertFromVersion1(false, data);
+    }
+
+    @Test
+    public void whenRangeIsRendered_itMatchesTheRowsOfTheFullTable() {
+        TableFormatter<Integer> formatter = createFormatter();
+        TableData<Integer> data = formatter.processData(createInput(200));
+        String[] full = formatter.applyToRows(data, 0, data.getRowCount()).split("\n");
+        String[] page = formatter.applyToRows(data, 100, 103).split("\n");
+
+        assertEquals(page.length, 3 + 3 + 1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(page[i], full[i]);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(page[3 + i], full[3 + 100 + i]);
+        }
+        assertEquals(page[6], full[full.length - 1]);
+        assertEquals(page[3], "| 101 | 10201  |");
+    }
+
+    @Test
+    public void whenWholeRangeIsRendered_itEqualsTheTable() {
+        TableFormatter<Integer> formatter = createFormatter();
+        TableData<Integer> data = formatter.processData(createInput(20));
+        assertEquals(formatter.applyToRows(data, 0, data.getRowCount()), formatter.applyToInput(createInput(20)));
+    }
+
+    @Test
+    public void whenRangeIsRendered_onlyItsRowsAreFormatted() {
+        TableFormatter<Integer> formatter = createFormatter();
+        TableData<Integer> data = formatter.processData(createInput(1000));
+        int processed = conversions.get();
+        formatter.applyToRows(data, 500, 510);
+        assertEquals(conversions.get(), processed);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void whenRangeIsOutOfTheRows_exceptionIsThrown() {
+        TableFormatter<Integer> formatter = createFormatter();
+        TableData<Integer> data = formatter.processData(createInput(5));
+        formatter.applyToRows(data, 3, 6);
+    }
+}
@@ -0,0 +1,47 @@
+package hu.vissy.texttable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The record type and the helpers shared by the tests of the record
+ * processing stages.
+ */
+final class SalesFixture {
+
+    static final class Sale {
+        final String region;
+        final String fruit;
+        final long quantity;
+
+        Sale(String region, String fruit, long quantity) {
+            this.region = region;
+            this.fruit = fruit;
+            this.quantity = quantity;
+        }
+    }
+
+    static final List<Sale> SALES = Arrays.asList(
+            new Sale("S", "pear", 1),
+            new Sale("N", "kiwi", 2),
+            new Sale("S", "apple", 3),
+            new Sale("N", "apple", 4),
+            new Sale("S", "pear", 5),
+            new Sale("N", "kiwi", 6));
+
+    private SalesFixture() {
+    }
+
+    static List<String> rows(TableData<?> data, String separator) {
+        return data.getRowsUnmodifiable().stream().map(r -> String.join(separator, r.getValues())).collect(Collectors.toList());
+    }
+
+    static List<String> rows(TableData<?> data) {
+        return rows(data, " ");
+    }
+
+    static <D> List<String> rows(TableFormatter<D> formatter, List<D> records) {
+        return rows(formatter.processData(InputBuilder.convertFromVersion1(true, records)));
+    }
+}
@@ -0,0 +1,77 @@
+package hu.vissy.texttable;
+
+import static hu.vissy.texttable.SalesFixture.rows;
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.SalesFixture.Sale;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class SortTest {
+
+    private TableFormatter.Builder<Sale> createBuilder() {
+        return new TableFormatter.Builder<Sale>()
+                .withColumn(ColumnDefinition.createSimpleStateless("Region", s -> s.region))
+                .withColumn(ColumnDefinition.createSimpleStateless("Fruit", s -> s.fruit));
+    }
+
+    @Test
+    public void whenSortingByColumn_theRowsAreOrderedAndStable() {
+        List<Sale> sales = Arrays.asList(new Sale("c", "kiwi", 1), new Sale("a", "apple", 2), new Sale("b", "kiwi", 3),
+                new Sale("d", null, 4));
+        List<InputRow<Sale>> input = InputBuilder.convertFromVersion1(false, sales);
+        assertEquals(rows(createBuilder().withSortBy(1).build().processData(input)),
+                Arrays.asList("d null", "a apple", "c kiwi", "b kiwi"));
+        assertEquals(rows(createBuilder().withSortBy(1, false).build().processData(input)),
+                Arrays.asList("c kiwi", "b kiwi", "a apple", "d null"));
+    }
+
+    @Test
+    public void whenSortingWithSeparators_eachSegmentIsSortedSeparately() {
+        List<InputRow<Sale>> input = new ArrayList<>();
+        input.add(new DataRow<>(new Sale("b", "pear", 1)));
+        input.add(new DataRow<>(new Sale("a", "kiwi", 2)));
+        input.add(new SeparatorRow<>());
+        input.add(new DataRow<>(new Sale("d", "apple", 3)));
+        input.add(new DataRow<>(new Sale("c", "pear", 4)));
+        List<String> sorted = rows(createBuilder().withSortBy(Comparator.comparing(s -> s.region)).build().processData(input));
+        assertEquals(sorted.get(0), "a kiwi");
+        assertEquals(sorted.get(1), "b pear");
+        assertEquals(sorted.get(3), "c pear");
+        assertEquals(sorted.get(4), "d apple");
+    }
+
+    @Test
+    public void whenSortingManyRecords_theColumnSortMatchesTheComparatorSort() {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            sales.add(new Sale("R" + i, "F" + (i * 7919) % 1_000, i));
+        }
+        assertEquals(rows(createBuilder().withSortBy(1).build(), sales),
+                rows(createBuilder().withSortBy(Comparator.comparing(s -> s.fruit)).build(), sales));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void whenSortColumnIsOutOfRange_anExceptionIsThrown() {
+        createBuilder().withSortBy(2).build();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void whenSortColumnIsStateful_anExceptionIsThrown() {
+        createBuilder()
+                .withColumn(new ColumnDefinition.StatefulBuilder<Sale, AtomicInteger, Integer>()
+                        .withTitle("Row")
+                        .withDataExtractor(new StatefulDataExtractor<>((r, s) -> s.incrementAndGet(), AtomicInteger::new, (k, s) -> s.get()))
+                        .build())
+                .withSortBy(2)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+import hu.vissy.texttable.dataconverter.NumberDataConverter;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class TableFormatterTest {
+
+    private static class Sum {
+        int sum;
+    }
+
+    private TableFormatter.Builder<Integer> createBuilder() {
+        return new TableFormatter.Builder<Integer>()
+                .withHeading("Numbers")
+                .withShowAggregation(true)
+                .withColumn(new ColumnDefinition.StatelessBuilder<Integer, String>()
+                        .withTitle("Name")
+                        .withAggregateRowConstant("TOTAL")
+                        .withDataExtractor(i -> "item " + i)
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<Integer, Sum, Integer>()
+                        .withTitle("Value")
+                        .withCellContentFormatter(CellContentFormatter.rightAlignedCell())
+                        .withDataConverter(NumberDataConverter.defaultIntegerFormatter())
+                        .withDataExtractor(new StatefulDataExtractor<>((i, s) -> {
+                            s.sum += i;
+                            return i;
+                        }, Sum::new, (k, s) -> s.sum))
+                        .build());
+    }
+
+    private List<Integer> createData(int count) {
+        List<Integer> data = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            data.add(i);
+        }
+        return data;
+    }
+
+    @Test
+    public void whenReusingRenderBuffers_theOutputIsTheSame() {
+        TableFormatter<Integer> plain = createBuilder().build();
+        TableFormatter<Integer> reusing = createBuilder().withReuseRenderBuffers(true).build();
+        for (int count : new int[] { 10, 3, 300, 0, 10 }) {
+            List<Integer> data = createData(count);
+            assertEquals(reusing.apply(data), plain.apply(data));
+        }
+    }
+
+    @Test
+    public void whenReusingRenderBuffersInNestedRender_theOutputIsTheSame() {
+        TableFormatter<Integer> inner = createBuilder().withReuseRenderBuffers(true).build();
+        TableFormatter<Integer> outer = new TableFormatter.Builder<Integer>()
+                .withReuseRenderBuffers(true)
+                .withColumn(ColumnDefinition.createSimpleStateless("Size", i -> i))
+                .withColumn(ColumnDefinition.createSimpleStateless("Lines",
+                        i -> inner.apply(createData(i)).split("\n").length))
+                .build();
+        TableFormatter<Integer> plainInner = createBuilder().build();
+        String expected = new TableFormatter.Builder<Integer>()
+                .withColumn(ColumnDefinition.createSimpleStateless("Size", i -> i))
+                .withColumn(ColumnDefinition.createSimpleStateless("Lines",
+                        i -> plainInner.apply(createData(i)).split("\n").length))
+                .build()
+                .apply(Arrays.asList(1, 2, 3));
+        assertEquals(outer.apply(Arrays.asList(1, 2, 3)), expected);
+    }
+}
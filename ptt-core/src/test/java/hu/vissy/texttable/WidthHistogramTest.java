@@ -0,0 +1,104 @@
+package hu.vissy.texttable;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.instrumentation.RenderListener;
+
+public class WidthHistogramTest {
+
+    private static final List<String> WORDS = Arrays.asList("a", "bb", "bb", "ccc", "-", "dddddddddd");
+
+    private static TableFormatter.Builder<String> createBuilder() {
+        return new TableFormatter.Builder<String>()
+                .withColumn(new ColumnDefinition.StatelessBuilder<String, String>()
+                        .withTitle("Word")
+                        .withDataExtractor(s -> s.equals("-") ? null : s)
+                        .withDataConverter(s -> s)
+                        .build());
+    }
+
+    @Test
+    public void whenCollecting_theStatisticsAreCalculated() {
+        WidthHistogram histogram = createBuilder().withWidthHistograms(true).build()
+                .processData(InputBuilder.convertFromVersion1(false, WORDS)).getWidthHistogram(0);
+        assertEquals(histogram.getCount(), 6);
+        assertEquals(histogram.getNullCount(), 1);
+        assertEquals(histogram.getMax(), 10);
+        assertEquals(histogram.getP50(), 2);
+        assertEquals(histogram.getP95(), 10);
+        assertEquals(histogram.getPercentile(0), 0);
+        assertEquals(histogram.countWiderThan(2), 2);
+        assertEquals(histogram.getBuckets().toString(), "[0: 1, 1: 1, 2: 2, 3: 1, 10: 1]");
+    }
+
+    @Test
+    public void whenNotEnabled_noHistogramIsCollected() {
+        assertNull(createBuilder().build().processData(InputBuilder.convertFromVersion1(false, WORDS)).getWidthHistogram(0));
+    }
+
+    @Test
+    public void whenListenerIsSet_theHistogramsAreReported() {
+        List<String> reported = new ArrayList<>();
+        createBuilder()
+                .withWidthHistograms(true)
+                .withRenderListener(new RenderListener() {
+                    @Override
+                    public void columnMeasured(int columnIndex, String title, WidthHistogram histogram) {
+                        reported.add(columnIndex + " " + title + " " + histogram.getMax());
+                    }
+                })
+                .build()
+                .apply(WORDS);
+        assertEquals(reported, Arrays.asList("0 Word 10"));
+    }
+
+    @Test
+    public void whenTableIsRenderedAgain_theReportedHistogramIsKept() {
+        List<WidthHistogram> reported = new ArrayList<>();
+        TableFormatter<String> formatter = createBuilder()
+                .withWidthHistograms(true)
+                .withReuseRenderBuffers(true)
+                .withRenderListener(new RenderListener() {
+                    @Override
+                    public void columnMeasured(int columnIndex, String title, WidthHistogram histogram) {
+                        reported.add(histogram);
+                    }
+                })
+                .build();
+        formatter.apply(WORDS);
+        formatter.apply(Arrays.asList("x"));
+        assertEquals(reported.size(), 2);
+        assertEquals(reported.get(0).getCount(), 6);
+        assertEquals(reported.get(0).getMax(), 10);
+        assertEquals(reported.get(1).getCount(), 1);
+    }
+
+    @Test
+    public void whenWidthIsAboveTheExactRange_itIsCountedInBuckets() {
+        WidthHistogram histogram = new WidthHistogram();
+        histogram.add(3);
+        histogram.add(300);
+        histogram.add(1000);
+        assertEquals(histogram.getMax(), 1000);
+        assertEquals(histogram.countWiderThan(2), 3);
+        assertEquals(histogram.countWiderThan(3), 2);
+        assertEquals(histogram.countWiderThan(600), 1);
+        assertEquals(histogram.countWiderThan(1000), 0);
+        assertEquals(histogram.getP50(), 511);
+        assertEquals(histogram.getPercentile(100), 1000);
+        assertEquals(histogram.getBuckets().toString(), "[3: 1, 256-511: 1, 512-1023: 1]");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void whenPercentIsOutOfRange_exceptionIsThrown() {
+        new WidthHistogram().getPercentile(101);
+    }
+}
@@ -0,0 +1,132 @@
+package hu.vissy.texttable.aggregation;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class AggregatorTest {
+
+    private static <D, S, T> T aggregate(StatefulDataExtractor<D, S, T> extractor, List<D> values, Object key) {
+        S state = extractor.getStateInitializer().get();
+        BiFunction<D, S, T> row = extractor.getRowDataExtractor();
+        values.forEach(v -> row.apply(v, state));
+        return extractor.extractAggregateData(key, state);
+    }
+
+    @Test
+    public void whenSummingValuesOfDifferentMagnitude_theSumIsCompensated() {
+        DoubleStatistics statistics = new DoubleStatistics();
+        statistics.accept(1e100);
+        for (int i = 0; i < 1000; i++) {
+            statistics.accept(1.0);
+        }
+        statistics.accept(-1e100);
+        assertEquals(statistics.getSum(), 1000.0);
+    }
+
+    private static double sum(double... values) {
+        DoubleStatistics statistics = new DoubleStatistics();
+        for (double value : values) {
+            statistics.accept(value);
+        }
+        return statistics.getSum();
+    }
+
+    @Test
+    public void whenSummingNonFiniteValues_theSumFollowsTheJdk() {
+        assertEquals(sum(1.0, Double.POSITIVE_INFINITY), Double.POSITIVE_INFINITY);
+        assertEquals(sum(Double.NEGATIVE_INFINITY, 1.0, 2.5), Double.NEGATIVE_INFINITY);
+        assertTrue(Double.isNaN(sum(Double.POSITIVE_INFINITY, 1.0, Double.NEGATIVE_INFINITY)));
+        assertTrue(Double.isNaN(sum(1.0, Double.NaN, 2.0)));
+
+        DoubleStatistics finite = new DoubleStatistics();
+        finite.accept(1.0);
+        DoubleStatistics infinite = new DoubleStatistics();
+        infinite.accept(2.0);
+        infinite.accept(Double.POSITIVE_INFINITY);
+        assertEquals(finite.combine(infinite).getSum(), Double.POSITIVE_INFINITY);
+
+        assertEquals(aggregate(DoubleAggregator.sum(Double::doubleValue), Arrays.asList(1.0, Double.POSITIVE_INFINITY), null),
+                Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void whenMergingStatistics_theResultIsTheSameAsSequential() {
+        DoubleStatistics all = new DoubleStatistics();
+        DoubleStatistics first = new DoubleStatistics();
+        DoubleStatistics second = new DoubleStatistics();
+        for (int i = 0; i < 1000; i++) {
+            double v = Math.sin(i) * 100;
+            all.accept(v);
+            (i < 300 ? first : second).accept(v);
+        }
+        first.combine(second);
+        for (Statistic s : Statistic.values()) {
+            assertEquals(first.get(s), all.get(s), 1e-9, s.name());
+        }
+    }
+
+    @Test
+    public void whenAggregatingDoubles_theStatisticsAreCorrect() {
+        List<Double> values = Arrays.asList(2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0);
+        assertEquals(aggregate(DoubleAggregator.sum(Double::doubleValue), values, null), 40.0);
+        assertEquals(aggregate(DoubleAggregator.count(Double::doubleValue), values, null), 8.0);
+        assertEquals(aggregate(DoubleAggregator.min(Double::doubleValue), values, null), 2.0);
+        assertEquals(aggregate(DoubleAggregator.max(Double::doubleValue), values, null), 9.0);
+        assertEquals(aggregate(DoubleAggregator.average(Double::doubleValue), values, null), 5.0);
+        assertEquals(aggregate(DoubleAggregator.standardDeviation(Double::doubleValue), values, null), Math.sqrt(32.0 / 7), 1e-12);
+        assertNull(aggregate(DoubleAggregator.average(Double::doubleValue), Arrays.asList(), null));
+    }
+
+    @Test
+    public void whenUsingGroupKeys_theGroupIsReset() {
+        StatefulDataExtractor<Integer, LongAggregator.State, Long> extractor = new LongAggregator.Builder<Integer>(Integer::longValue)
+                .withGroupKey("sub")
+                .withStatistic("max", Statistic.MAX)
+                .build();
+        LongAggregator.State state = extractor.getStateInitializer().get();
+        Arrays.asList(1, 2, 3).forEach(v -> extractor.extractRowData(v, state));
+        assertEquals(extractor.extractAggregateData("sub", state), Long.valueOf(6));
+        Arrays.asList(10, 20).forEach(v -> extractor.extractRowData(v, state));
+        assertEquals(extractor.extractAggregateData("sub", state), Long.valueOf(30));
+        assertEquals(extractor.extractAggregateData("total", state), Long.valueOf(36));
+        assertEquals(extractor.extractAggregateData("max", state), Long.valueOf(20));
+    }
+
+    @Test
+    public void whenNoGroupKeyIsSet_noGroupAccumulatorIsCreated() {
+        assertNull(DoubleAggregator.sum(Double::doubleValue).getStateInitializer().get().getGroup());
+        assertNull(LongAggregator.sum(Integer::longValue).getStateInitializer().get().getGroup());
+        assertNotNull(new DoubleAggregator.Builder<Double>(Double::doubleValue).withGroupKey("sub").build()
+                .getStateInitializer().get().getGroup());
+    }
+
+    @Test
+    public void whenMomentsAreNotTracked_theAverageIsCalculatedFromTheSum() {
+        DoubleStatistics statistics = new DoubleStatistics(false);
+        Arrays.asList(2.0, 4.0, 9.0).forEach(statistics::accept);
+        assertEquals(statistics.getAverage(), 5.0);
+        assertEquals(aggregate(new DoubleAggregator.Builder<Double>(Double::doubleValue)
+                .withStatistic("mean", Statistic.AVERAGE)
+                .build(), Arrays.asList(2.0, 4.0, 9.0), "mean"), 5.0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void whenMomentsAreNotTracked_theStandardDeviationFails() {
+        new DoubleStatistics(false).getStandardDeviation();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void whenLongAggregatorShowsAverage_buildFails() {
+        new LongAggregator.Builder<Integer>(Integer::longValue).withStatistic(Statistic.AVERAGE).build();
+    }
+}
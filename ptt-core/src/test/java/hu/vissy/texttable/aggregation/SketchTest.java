@@ -0,0 +1,123 @@
+package hu.vissy.texttable.aggregation;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class SketchTest {
+
+    private static double[] createValues(int count, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2) * (random.nextInt(10) == 0 ? -1 : 1);
+        }
+        return values;
+    }
+
+    private static void assertQuantiles(QuantileSketch sketch, double[] values, double accuracy, double... quantiles) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : quantiles) {
+            double exact = sorted[(int) (q * (sorted.length - 1))];
+            double estimate = sketch.getQuantile(q);
+            assertEquals(estimate, exact, Math.abs(exact) * accuracy + 1e-12, "q=" + q);
+        }
+    }
+
+    @Test
+    public void whenEstimatingQuantiles_theRelativeErrorIsBounded() {
+        double[] values = createValues(100_000, 1);
+        QuantileSketch sketch = new QuantileSketch(0.01, 2048);
+        for (double v : values) {
+            sketch.accept(v);
+        }
+        assertEquals(sketch.getCount(), values.length);
+        assertQuantiles(sketch, values, 0.01, 0, 0.01, 0.05, 0.1, 0.5, 0.9, 0.95, 0.99, 1);
+    }
+
+    @Test
+    public void whenMergingQuantileSketches_theQuantilesAreTheSame() {
+        double[] values = createValues(50_000, 2);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            all.accept(values[i]);
+            (i % 3 == 0 ? first : second).accept(values[i]);
+        }
+        first.combine(second);
+        for (double q = 0; q <= 1; q += 0.05) {
+            assertEquals(first.getQuantile(q), all.getQuantile(q), "q=" + q);
+        }
+    }
+
+    @Test
+    public void whenBucketsAreLimited_theHighQuantilesKeepAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 100);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e-6 * Math.pow(1.0003, i);
+            sketch.accept(values[i]);
+        }
+        assertQuantiles(sketch, values, 0.01, 0.99, 0.999);
+        assertTrue(sketch.getQuantile(0.01) > values[1000]);
+    }
+
+    @Test
+    public void whenEstimatingDistinctCount_theErrorIsSmall() {
+        HyperLogLog all = new HyperLogLog();
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) {
+            String v = "user-" + (i % 100_000);
+            all.offer(v);
+            (i < 120_000 ? first : second).offer(v);
+        }
+        assertEquals(all.getEstimate(), 100_000, 3_000);
+        assertEquals(first.combine(second).getEstimate(), all.getEstimate());
+
+        HyperLogLog small = new HyperLogLog();
+        for (long i = 0; i < 100; i++) {
+            small.offer(i);
+            small.offer(i);
+        }
+        assertEquals(small.getEstimate(), 100, 2);
+    }
+
+    @Test
+    public void whenQuantileKeysAreUsed_eachRowShowsItsQuantile() {
+        StatefulDataExtractor<Integer, QuantileAggregator.State, Double> extractor = new QuantileAggregator.Builder<Integer>(i -> i)
+                .withQuantile("p90", 0.9)
+                .withQuantile("max", 1)
+                .build();
+        QuantileAggregator.State state = extractor.getStateInitializer().get();
+        for (int i = 1; i <= 1000; i++) {
+            extractor.extractRowData(i, state);
+        }
+        assertEquals(extractor.extractAggregateData("median", state), 500, 5);
+        assertEquals(extractor.extractAggregateData("p90", state), 900, 9);
+        assertEquals(extractor.extractAggregateData("max", state), 1000.0);
+    }
+
+    @Test
+    public void whenNoGroupKeyIsSet_noGroupSketchIsCreated() {
+        assertNull(DistinctCountAggregator.distinctCount(Object::toString).getStateInitializer().get().getGroup());
+        assertNull(QuantileAggregator.median(Double::doubleValue).getStateInitializer().get().getGroup());
+        assertNotNull(new DistinctCountAggregator.Builder<Object>(Object::toString).withGroupKey("sub").build()
+                .getStateInitializer().get().getGroup());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void whenPrecisionIsOutOfRange_buildFails() {
+        new DistinctCountAggregator.Builder<Object>(Object::toString).withPrecision(19).build();
+    }
+}
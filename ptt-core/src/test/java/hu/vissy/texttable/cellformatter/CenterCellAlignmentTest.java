@@ -28,4 +28,14 @@ public class CenterCellAlignmentTest {
         assertEquals(align.align("alma", 7), "-alma--");
     }
 
+    @Test
+    public void whenAppending_theBufferIsPadded() {
+        CenterCellAlignment align = new CenterCellAlignment('-');
+        StringBuilder sb = new StringBuilder("|");
+        align.align(sb, "alma", 4, 6);
+        assertEquals(sb.toString(), "|" + "-alma-");
+        align.align(sb, "alma", 4, 3);
+        assertEquals(sb.toString(), "|" + "-alma-" + "alma");
+    }
+
 }
@@ -8,6 +8,7 @@ import org.testng.annotations.Test;
 
 import hu.vissy.texttable.contentformatter.EllipsisDecorator;
 import hu.vissy.texttable.contentformatter.EllipsisDecorator.TextSegment;
+import hu.vissy.texttable.contentformatter.WidthCalculator;
 
 public class EllipsisDecoratorTest {
 
@@ -112,4 +113,58 @@ public class EllipsisDecoratorTest {
         assertEquals(ed.decorate("ab cdefg hi", 8), "...hi");
     }
 
+    private static String decorateIntoBuffer(TextSegment segment, boolean trimToWord, String value, int width) {
+        EllipsisDecorator ed = new EllipsisDecorator.Builder()
+                .withKeptPart(segment)
+                .withTrimToWord(trimToWord)
+                .build();
+        StringBuilder sb = new StringBuilder("|");
+        int decoratedWidth = ed.decorate(sb, value, value.length(), width, WidthCalculator.UNICODE, null);
+        assertEquals(decoratedWidth, sb.length() - 1);
+        return sb.toString();
+    }
+
+    @Test
+    public void whenDecoratingIntoBuffer_theResultIsAppended() {
+        assertEquals(decorateIntoBuffer(TextSegment.START, false, "abcdefghij", 8), "|abcde...");
+        assertEquals(decorateIntoBuffer(TextSegment.CENTER, false, "abcdefghij", 8), "|...ef...");
+        assertEquals(decorateIntoBuffer(TextSegment.END, false, "abcdefghij", 8), "|...fghij");
+        assertEquals(decorateIntoBuffer(TextSegment.START, true, "ab cdefg hi", 8), "|ab...");
+        assertEquals(decorateIntoBuffer(TextSegment.END, true, "ab cdefg hi", 8), "|...hi");
+        assertEquals(decorateIntoBuffer(TextSegment.CENTER, true, "ab cd ef gh", 8), "|...d...");
+    }
+
+    @Test
+    public void whenTrimmingCenterToWordBeforeTheKeptPart_theCutIsNotMoved() {
+        assertEquals(decorateIntoBuffer(TextSegment.CENTER, true, "ab cdefghijk", 8), "|...ef...");
+        EllipsisDecorator ed = new EllipsisDecorator.Builder()
+                .withKeptPart(TextSegment.CENTER)
+                .withTrimToWord(true)
+                .build();
+        assertEquals(ed.decorate("ab cdefghijk", 8), "...ef...");
+    }
+
+    @Test
+    public void whenUsingWordBoundaries_theResultIsTheSame() {
+        String value = "lorem ipsum dolor sit amet consectetur";
+        int[] boundaries = EllipsisDecorator.findWordBoundaries(value);
+        assertEquals(boundaries, new int[] { 5, 11, 17, 21, 26 });
+        for (TextSegment segment : TextSegment.values()) {
+            EllipsisDecorator ed = new EllipsisDecorator.Builder()
+                    .withKeptPart(segment)
+                    .withTrimToWord(true)
+                    .build();
+            for (int width = 0; width < value.length(); width++) {
+                StringBuilder scanned = new StringBuilder();
+                StringBuilder indexed = new StringBuilder();
+                int scannedWidth = ed.decorate(scanned, value, value.length(), width, WidthCalculator.UNICODE, null);
+                int indexedWidth = ed.decorate(indexed, value, value.length(), width, WidthCalculator.UNICODE, boundaries);
+                assertEquals(indexed.toString(), scanned.toString());
+                assertEquals(indexedWidth, scannedWidth);
+                assertEquals(scannedWidth, scanned.length());
+                assertTrue(scannedWidth <= width);
+            }
+        }
+    }
+
 }
@@ -4,6 +4,8 @@ import static org.testng.Assert.assertEquals;
 
 import org.testng.annotations.Test;
 
+import hu.vissy.texttable.contentformatter.CellAlignment;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
 import hu.vissy.texttable.contentformatter.LeftCellAlignment;
 
 public class LeftCellAlignmentTest {
@@ -28,4 +30,49 @@ public class LeftCellAlignmentTest {
         assertEquals(align.align("alma", 5), "alma-");
     }
 
+    @Test
+    public void whenAppending_theBufferIsPadded() {
+        LeftCellAlignment align = new LeftCellAlignment('-');
+        StringBuilder sb = new StringBuilder("|");
+        align.align(sb, "alma", 4, 6);
+        assertEquals(sb.toString(), "|" + "alma--");
+        align.align(sb, "alma", 4, 3);
+        assertEquals(sb.toString(), "|" + "alma--" + "alma");
+    }
+
+    @Test
+    public void whenSubclassOnlyAlignsStrings_theAppendingAlignmentBridgesToIt() {
+        CellAlignment align = new CellAlignment('.') {
+            @Override
+            public String align(String data, int width) {
+                return data.length() >= width ? data : data + createPad(width - data.length());
+            }
+        };
+        StringBuilder sb = new StringBuilder();
+        align.align(sb, "alma", 4, 40);
+        assertEquals(sb.toString(), "alma" + new String(new char[36]).replace('\0', '.'));
+    }
+
+    @Test
+    public void whenBuiltInSubclassAlignsStrings_theFormatterUsesIt() {
+        LeftCellAlignment align = new LeftCellAlignment() {
+            @Override
+            public String align(String data, int width) {
+                return "[" + super.align(data, width - 2) + "]";
+            }
+        };
+        StringBuilder sb = new StringBuilder();
+        align.align(sb, "alma", 4, 8);
+        assertEquals(sb.toString(), "[alma  ]");
+        CellContentFormatter formatter = new CellContentFormatter.Builder().withCellAlignment(align).build();
+        assertEquals(formatter.formatCell("alma", 8), "[alma  ]");
+    }
+
+    @Test
+    public void whenPaddingIsLongerThanTheSharedBuffer_itGrows() {
+        LeftCellAlignment align = new LeftCellAlignment();
+        assertEquals(align.align("", 500).length(), 500);
+        assertEquals(align.align("", 500).trim(), "");
+    }
+
 }
@@ -28,4 +28,14 @@ public class RightCellAlignmentTest {
         assertEquals(align.align("alma", 5), "-alma");
     }
 
+    @Test
+    public void whenAppending_theBufferIsPadded() {
+        RightCellAlignment align = new RightCellAlignment('-');
+        StringBuilder sb = new StringBuilder("|");
+        align.align(sb, "alma", 4, 6);
+        assertEquals(sb.toString(), "|" + "--alma");
+        align.align(sb, "alma", 4, 3);
+        assertEquals(sb.toString(), "|" + "--alma" + "alma");
+    }
+
 }
@@ -0,0 +1,77 @@
+package hu.vissy.texttable.contentformatter;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellStyle.Color;
+
+public class CellStyleTest {
+
+    private static final List<String> NAMES = Arrays.asList("apple", "banana", "cherry tree");
+
+    private static TableFormatter.Builder<String> createBuilder(boolean styled) {
+        ColumnDefinition.StatelessBuilder<String, String> name = new ColumnDefinition.StatelessBuilder<String, String>()
+                .withTitle("Name")
+                .withCellContentFormatter(new CellContentFormatter.Builder().withMaxWidth(8).build())
+                .withDataExtractor(s -> s);
+        if (styled) {
+            name.withCellStyler(s -> s.startsWith("b") ? CellStyle.of(Color.RED) : null);
+        }
+        return new TableFormatter.Builder<String>()
+                .withColumn(name.build())
+                .withColumn(new ColumnDefinition.StatelessBuilder<String, Integer>()
+                        .withTitle("Length")
+                        .withDataExtractor(String::length)
+                        .build());
+    }
+
+    private static String strip(String text) {
+        return text.replaceAll("\u001B\\[[0-9;]*m", "");
+    }
+
+    @Test
+    public void whenBuildingStyle_theSequenceIsCached() {
+        CellStyle style = new CellStyle.Builder().withForeground(Color.RED).withBackground(Color.BRIGHT_WHITE)
+                .withBold(true).withUnderline(true).build();
+        assertEquals(style.getStartSequence(), "\u001B[1;4;31;107m");
+        assertSame(style.getStartSequence(), style.getStartSequence());
+        assertEquals(style.getEndSequence(), CellStyle.RESET_SEQUENCE);
+    }
+
+    @Test
+    public void whenStyleIsEmpty_noSequenceIsEmitted() {
+        CellStyle style = new CellStyle.Builder().build();
+        assertEquals(style.getStartSequence(), "");
+        assertEquals(style.getEndSequence(), "");
+    }
+
+    @Test
+    public void whenStyled_theLayoutIgnoresTheEscapes() {
+        String styled = createBuilder(true).build().apply(NAMES);
+        String plain = createBuilder(false).build().apply(NAMES);
+        assertTrue(styled.contains("\u001B[31mbanana  \u001B[0m"));
+        assertEquals(strip(styled), plain);
+    }
+
+    @Test
+    public void whenStyled_theTruncationIsDoneOnPlainText() {
+        String styled = createBuilder(true).build().apply(Arrays.asList("blueberry bush"));
+        assertTrue(styled.contains("\u001B[31mblueb...\u001B[0m"));
+    }
+
+    @Test
+    public void whenStrippingStyles_theOutputIsPlain() {
+        String stripped = createBuilder(true).withStripStyles(true).build().apply(NAMES);
+        assertFalse(stripped.contains("\u001B"));
+        assertEquals(stripped, createBuilder(false).build().apply(NAMES));
+    }
+}
@@ -0,0 +1,74 @@
+package hu.vissy.texttable.contentformatter;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.EllipsisDecorator.TextSegment;
+
+public class WidthCalculatorTest {
+
+    private static final WidthCalculator UNICODE = WidthCalculator.UNICODE;
+
+    @Test
+    public void whenMeasuringLatin1_theWidthIsTheLength() {
+        assertEquals(UNICODE.width("Hello, world!"), 13);
+        assertEquals(UNICODE.width("árvíztűrő"), 9);
+        assertEquals(UNICODE.width(""), 0);
+    }
+
+    @Test
+    public void whenMeasuringWideCharacters_theyCountTwoColumns() {
+        assertEquals(UNICODE.width("日本語"), 6);
+        assertEquals(UNICODE.width("ｶﾀｶﾅ"), 4);
+        assertEquals(UNICODE.width("ＡＢ"), 4);
+        assertEquals(UNICODE.width("한국"), 4);
+    }
+
+    @Test
+    public void whenMeasuringClusters_theyAreNotSplit() {
+        // Combining acute accent
+        assertEquals(UNICODE.width("é"), 1);
+        // Emoji with skin tone modifier
+        assertEquals(UNICODE.width("👍🏽"), 2);
+        // Family emoji joined by zero width joiners
+        assertEquals(UNICODE.width("👨‍👩‍👧"), 2);
+        // Flag of Hungary
+        assertEquals(UNICODE.width("🇭🇺"), 2);
+        // Heart with emoji presentation selector
+        assertEquals(UNICODE.width("❤️"), 2);
+        assertEquals(UNICODE.advance("a👍🏽b", 0, 2), 1);
+        assertEquals(UNICODE.advance("a👍🏽b", 0, 3), 5);
+    }
+
+    @Test
+    public void whenShorteningWideText_theWidthIsNotExceeded() {
+        EllipsisDecorator start = new EllipsisDecorator.Builder().withEllipsisSign("…").build();
+        assertEquals(start.decorate("日本語テキスト", 6), "日本…");
+        assertEquals(start.decorate("日本語テキスト", 7), "日本語…");
+        EllipsisDecorator end = new EllipsisDecorator.Builder().withEllipsisSign("…").withKeptPart(TextSegment.END).build();
+        assertEquals(end.decorate("日本語テキスト", 6), "…スト");
+    }
+
+    @Test
+    public void whenFormattingWideCell_thePaddingUsesTheDisplayWidth() {
+        assertEquals(CellContentFormatter.rightAlignedCell().formatCell("日本", 6), "  日本");
+        assertEquals(new CellContentFormatter.Builder().withWidthCalculator(WidthCalculator.CHARACTER_COUNT).build()
+                .formatCell("日本", 6), "日本    ");
+    }
+
+    @Test
+    public void whenRenderingWideValues_theBordersAreAligned() {
+        String table = new TableFormatter.Builder<String>()
+                .withColumn(ColumnDefinition.createSimpleStateless("Name", s -> s))
+                .build()
+                .apply(Arrays.asList("Tanaka", "田中", "😀 ok"));
+        for (String line : table.split("\n")) {
+            assertEquals(UNICODE.width(line), 10, line);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package hu.vissy.texttable.contentformatter;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.column.ColumnDefinition;
+
+public class WrappingTest {
+
+    private static List<String> lines(CellContentFormatter formatter, String value, int width) {
+        int valueWidth = formatter.getWidthCalculator().width(value);
+        int height = formatter.countLines(value, valueWidth, width);
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int line = 0; line < height; line++) {
+            StringBuilder sb = new StringBuilder();
+            start = formatter.formatLine(sb, value, valueWidth, width, line, start);
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+
+    @Test
+    public void whenWrapping_theValueIsBrokenAtWordBoundaries() {
+        CellContentFormatter formatter = new CellContentFormatter.Builder().withMaxLines(Integer.MAX_VALUE).build();
+        assertEquals(lines(formatter, "the quick brown fox jumps", 10),
+                Arrays.asList("the quick ", "brown fox ", "jumps     "));
+        assertEquals(lines(formatter, "short", 10), Arrays.asList("short     "));
+    }
+
+    @Test
+    public void whenWordIsLongerThanTheWidth_itIsBrokenWithin() {
+        CellContentFormatter formatter = new CellContentFormatter.Builder().withMaxLines(Integer.MAX_VALUE).build();
+        assertEquals(lines(formatter, "a incomprehensibilities b", 8),
+                Arrays.asList("a       ", "incompre", "hensibil", "ities b "));
+    }
+
+    @Test
+    public void whenLinesRunOut_theLastLineIsShortened() {
+        CellContentFormatter formatter = new CellContentFormatter.Builder()
+                .withMaxLines(2)
+                .withCellAlignment(new RightCellAlignment())
+                .build();
+        assertEquals(lines(formatter, "the quick brown fox jumps", 10), Arrays.asList(" the quick", "brown f..."));
+    }
+
+    @Test
+    public void whenWrappingIsDisabled_theValueIsShortened() {
+        CellContentFormatter formatter = new CellContentFormatter.Builder().build();
+        assertEquals(lines(formatter, "the quick brown fox jumps", 10), Arrays.asList("the qui..."));
+    }
+
+    @Test
+    public void whenNoCharacterFits_theClusterIsNotSplit() {
+        String flag = "\uD83C\uDDED\uD83C\uDDFA";
+        String thumbsUp = "\uD83D\uDC4D\uD83C\uDFFD";
+        String family = "\uD83D\uDC68\u200D\uD83D\uDC69\u200D\uD83D\uDC67";
+        for (String cluster : Arrays.asList(flag, thumbsUp, family, "\u4E2D")) {
+            assertEquals(LineBreaker.lineEnd(cluster + "x", 0, 1, WidthCalculator.UNICODE), cluster.length(), cluster);
+        }
+        assertEquals(LineBreaker.countLines(flag + flag, 1, 10, WidthCalculator.UNICODE), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void whenSettingZeroLines_exceptionIsThrown() {
+        new CellContentFormatter.Builder().withMaxLines(0);
+    }
+
+    @Test
+    public void whenTableHasWrappedColumn_theRowsHaveMultipleLines() {
+        TableFormatter<String[]> formatter = new TableFormatter.Builder<String[]>()
+                .withColumn(new ColumnDefinition.StatelessBuilder<String[], String>()
+                        .withTitle("Id")
+                        .withDataExtractor(r -> r[0])
+                        .build())
+                .withColumn(new ColumnDefinition.StatelessBuilder<String[], String>()
+                        .withTitle("Description")
+                        .withCellContentFormatter(new CellContentFormatter.Builder()
+                                .withMaxWidth(11)
+                                .withMaxLines(3)
+                                .build())
+                        .withDataExtractor(r -> r[1])
+                        .build())
+                .build();
+        String table = formatter.apply(Arrays.asList(
+                new String[] { "1", "disk full on the primary node" },
+                new String[] { "2", "ok" }));
+        String[] lines = table.split("\n");
+        assertEquals(lines.length, 8);
+        assertEquals(lines[3], "| 1  | disk full   |");
+        assertEquals(lines[4], "|    | on the      |");
+        assertEquals(lines[5], "|    | primary ... |");
+        assertEquals(lines[6], "| 2  | ok          |");
+    }
+}
@@ -0,0 +1,115 @@
+package hu.vissy.texttable.instrumentation;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.CsvTableFormatterBuilder;
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.column.ColumnDefinition;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderEventTest {
+
+    private static final List<String> DATA = Arrays.asList("alpha", "beta", "gamma", "delta");
+
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        Path file = Files.createTempFile("ptt", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                for (String name : new String[] { TableRenderEvent.NAME, TableDataPopulateEvent.NAME, CsvExportEvent.NAME,
+                        ColumnWidthEvent.NAME }) {
+                    recording.enable(name).withThreshold(Duration.ZERO);
+                }
+                recording.start();
+                action.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void whenRenderingTable_renderAndPopulateEventsAreRecorded() throws IOException {
+        TableFormatter<String> formatter = new TableFormatter.Builder<String>()
+                .withHeading("Words")
+                .withColumn(ColumnDefinition.createSimpleStateless("Word", s -> s))
+                .withColumn(ColumnDefinition.createSimpleStateless("Length", String::length))
+                .build();
+        String[] table = new String[1];
+        List<RecordedEvent> events = record(() -> table[0] = formatter.apply(DATA));
+
+        List<RecordedEvent> renders = ofType(events, TableRenderEvent.NAME);
+        assertEquals(renders.size(), 1);
+        RecordedEvent render = renders.get(0);
+        assertEquals(render.getString("heading"), "Words");
+        assertEquals(render.getInt("columns"), 2);
+        assertEquals(render.getLong("rows"), DATA.size());
+        assertEquals(render.getLong("characters"), table[0].length());
+        assertEquals(render.getLong("bytes"), -1);
+        assertTrue(render.getDuration("rowRendering").toNanos() > 0);
+
+        List<RecordedEvent> populates = ofType(events, TableDataPopulateEvent.NAME);
+        assertEquals(populates.size(), 1);
+        assertEquals(populates.get(0).getString("heading"), "Words");
+        assertEquals(populates.get(0).getLong("rows"), DATA.size());
+        assertTrue(populates.get(0).getDuration("extraction").toNanos() > 0);
+
+        assertEquals(ofType(events, CsvExportEvent.NAME).size(), 0);
+        assertEquals(ofType(events, ColumnWidthEvent.NAME).size(), 0);
+    }
+
+    @Test
+    public void whenCollectingWidthHistograms_columnWidthEventsAreRecorded() throws IOException {
+        TableFormatter<String> formatter = new TableFormatter.Builder<String>()
+                .withHeading("Words")
+                .withColumn(ColumnDefinition.createSimpleStateless("Word", s -> s))
+                .withColumn(ColumnDefinition.createSimpleStateless("Length", String::length))
+                .withWidthHistograms(true)
+                .build();
+        List<RecordedEvent> events = ofType(record(() -> formatter.apply(DATA)), ColumnWidthEvent.NAME);
+
+        assertEquals(events.size(), 2);
+        RecordedEvent word = events.get(0);
+        assertEquals(word.getString("heading"), "Words");
+        assertEquals(word.getString("title"), "Word");
+        assertEquals(word.getInt("count"), DATA.size());
+        assertEquals(word.getInt("nullCount"), 0);
+        assertEquals(word.getInt("p50"), 5);
+        assertEquals(word.getInt("max"), 5);
+        assertEquals(events.get(1).getInt("columnIndex"), 1);
+    }
+
+    @Test
+    public void whenExportingCsv_csvExportEventIsRecorded() throws IOException {
+        TableFormatter<String> formatter = new CsvTableFormatterBuilder<String>()
+                .withStringColumn("Word", s -> s)
+                .withIntegerColumn("Length", String::length)
+                .build();
+        List<RecordedEvent> events = record(() -> formatter.apply(DATA));
+
+        List<RecordedEvent> exports = ofType(events, CsvExportEvent.NAME);
+        assertEquals(exports.size(), 1);
+        assertEquals(exports.get(0).getInt("columns"), 2);
+        assertEquals(exports.get(0).getLong("rows"), DATA.size());
+        assertEquals(ofType(events, TableRenderEvent.NAME).size(), 0);
+    }
+}
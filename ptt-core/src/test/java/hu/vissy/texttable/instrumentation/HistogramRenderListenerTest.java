@@ -0,0 +1,70 @@
+package hu.vissy.texttable.instrumentation;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.InputBuilder;
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.column.ColumnDefinition;
+
+public class HistogramRenderListenerTest {
+
+    private static final List<String> DATA = Arrays.asList("alpha", "béta", "gamma");
+
+    private TableFormatter<String> createFormatter(RenderListener listener) {
+        return new TableFormatter.Builder<String>()
+                .withHeading("Words")
+                .withRenderListener(listener)
+                .withColumn(ColumnDefinition.createSimpleStateless("Word", s -> s))
+                .withColumn(ColumnDefinition.createSimpleStateless("Length", String::length))
+                .build();
+    }
+
+    @Test
+    public void whenRenderingToString_phasesAndCharactersAreRecorded() {
+        HistogramRenderListener listener = new HistogramRenderListener();
+        String table = createFormatter(listener).apply(DATA);
+
+        assertEquals(listener.getRenders().getCount(), 1);
+        assertEquals(listener.getRowCount(), DATA.size());
+        assertEquals(listener.getCharacterCount(), table.length());
+        assertEquals(listener.getByteCount(), 0);
+        // one extraction per cell
+        assertEquals(listener.getPhase(RenderPhase.EXTRACTION).getItemCount(), 2 * DATA.size());
+        assertEquals(listener.getPhase(RenderPhase.WIDTH_COMPUTATION).getCount(), 1);
+        // heading, header and the data rows
+        assertEquals(listener.getPhase(RenderPhase.ROW_RENDERING).getItemCount(), DATA.size() + 2);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(listener.getColumnConversionCount(i), DATA.size());
+        }
+        assertEquals(listener.getColumnTitle(1), "Length");
+    }
+
+    @Test
+    public void whenRenderingToChannel_bytesAreRecorded() throws IOException {
+        HistogramRenderListener listener = new HistogramRenderListener();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createFormatter(listener).applyToChannel(InputBuilder.convertFromVersion1(false, DATA),
+                Channels.newChannel(out), StandardCharsets.UTF_8);
+
+        String table = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(listener.getByteCount(), out.size());
+        assertEquals(listener.getCharacterCount(), table.length());
+        assertTrue(listener.getByteCount() > listener.getCharacterCount());
+    }
+
+    @Test
+    public void whenRenderingWithoutListener_theOutputIsTheSame() {
+        assertEquals(createFormatter(new HistogramRenderListener()).apply(DATA),
+                createFormatter(RenderListener.NONE).apply(DATA));
+    }
+}
@@ -0,0 +1,128 @@
+package hu.vissy.texttable.window;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import hu.vissy.texttable.InputBuilder;
+import hu.vissy.texttable.InputRow;
+import hu.vissy.texttable.SeparatorRow;
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.TableRow;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.dataconverter.NumberDataConverter;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class WindowFunctionsTest {
+
+    private static final List<Double> VALUES = Arrays.asList(1.0, 2.0, 4.0, 8.0, 16.0);
+
+    private static <S> List<String> column(StatefulDataExtractor<Double, S, Double> extractor, boolean aggregate) {
+        TableFormatter<Double> formatter = new TableFormatter.Builder<Double>()
+                .withColumn(new ColumnDefinition.StatefulBuilder<Double, S, Double>()
+                        .withTitle("Value")
+                        .withDataConverter(NumberDataConverter.defaultDoubleFormatter())
+                        .withDataExtractor(extractor)
+                        .build())
+                .build();
+        return formatter.processData(InputBuilder.convertFromVersion1(aggregate, VALUES)).getRowsUnmodifiable().stream()
+                .map(r -> r.getValue(0)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void whenLagging_theEarlierValuesAreShown() {
+        assertEquals(column(WindowFunctions.lag(2, Double::doubleValue), false), Arrays.asList(null, null, "1.00", "2.00", "4.00"));
+    }
+
+    @Test
+    public void whenComputingChange_theDifferenceIsShown() {
+        assertEquals(column(WindowFunctions.change(1, Double::doubleValue), false), Arrays.asList(null, "1.00", "2.00", "4.00", "8.00"));
+    }
+
+    @Test
+    public void whenComputingMovingStatistics_theWindowIsBounded() {
+        assertEquals(column(WindowFunctions.movingSum(2, Double::doubleValue), false),
+                Arrays.asList("1.00", "3.00", "6.00", "12.00", "24.00"));
+        assertEquals(column(WindowFunctions.movingAverage(3, Double::doubleValue), false),
+                Arrays.asList("1.00", "1.50", "2.33", "4.67", "9.33"));
+    }
+
+    @Test
+    public void whenNonFiniteValueLeavesTheWindow_theSumIsFiniteAgain() {
+        TableFormatter<Double> formatter = new TableFormatter.Builder<Double>()
+                .withColumn(new ColumnDefinition.StatefulBuilder<Double, WindowFunctions.MovingWindow, Double>()
+                        .withTitle("Sum(2)")
+                        .withDataExtractor(WindowFunctions.movingSum(2, Double::doubleValue))
+                        .build())
+                .build();
+        List<Double> values = Arrays.asList(1.0, Double.POSITIVE_INFINITY, 2.0, Double.NaN, 3.0, 4.0, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, 5.0, 6.0);
+        assertEquals(formatter.processData(InputBuilder.convertFromVersion1(false, values)).getRowsUnmodifiable().stream()
+                .map(r -> r.getValue(0)).collect(Collectors.toList()),
+                Arrays.asList("1.0", "Infinity", "Infinity", "NaN", "NaN", "7.0", "-Infinity", "NaN", "Infinity", "11.0"));
+    }
+
+    @Test
+    public void whenComputingCumulativeSum_theAggregatorShowsTheTotal() {
+        assertEquals(column(WindowFunctions.cumulativeSum(Double::doubleValue), true),
+                Arrays.asList("1.00", "3.00", "7.00", "15.00", "31.00", "31.00"));
+    }
+
+    @Test
+    public void whenLeading_theLaterValuesAreShown() {
+        TableFormatter<Double> formatter = new TableFormatter.Builder<Double>()
+                .withColumn(new ColumnDefinition.StatelessBuilder<Double, Double>()
+                        .withTitle("Next")
+                        .withDataConverter(NumberDataConverter.defaultDoubleFormatter())
+                        .withDataExtractor(WindowFunctions.lead(2, Double::doubleValue))
+                        .build())
+                .build();
+        List<InputRow<Double>> input = InputBuilder.convertFromVersion1(true, VALUES);
+        input.add(2, new SeparatorRow<>());
+        assertEquals(formatter.processData(input).getRowsUnmodifiable().stream()
+                .map(r -> r.getType() == TableRow.Type.SEPARATOR ? "-" : r.getValue(0)).collect(Collectors.toList()),
+                Arrays.asList("4.00", "8.00", "-", "16.00", null, null, null));
+    }
+
+    @Test
+    public void whenLeadingWithReusedBuffers_theSecondRenderIsTheSame() {
+        TableFormatter<Double> formatter = new TableFormatter.Builder<Double>()
+                .withReuseRenderBuffers(true)
+                .withColumn(new ColumnDefinition.StatelessBuilder<Double, Double>()
+                        .withTitle("Next")
+                        .withDataConverter(NumberDataConverter.defaultDoubleFormatter())
+                        .withDataExtractor(WindowFunctions.lead(1, Double::doubleValue))
+                        .build())
+                .build();
+        List<Double> values = VALUES.subList(0, 3);
+        String first = formatter.apply(values);
+        assertEquals(formatter.apply(values), first);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void whenLeadingInParallel_anExceptionIsThrown() {
+        new TableFormatter.Builder<Double>()
+                .withParallelAggregation(true)
+                .withColumn(new ColumnDefinition.StatelessBuilder<Double, Double>()
+                        .withTitle("Next")
+                        .withDataExtractor(WindowFunctions.lead(1, Double::doubleValue))
+                        .build())
+                .build();
+    }
+
+    @Test
+    public void whenAddingToAFullRingBuffer_theOldestIsEvicted() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(2);
+        assertEquals(buffer.add(1), false);
+        assertEquals(buffer.add(2), false);
+        assertEquals(buffer.add(3), true);
+        assertEquals(buffer.getEvicted(), 1.0);
+        assertEquals(buffer.get(0), 3.0);
+        assertEquals(buffer.get(1), 2.0);
+        assertEquals(buffer.size(), 2);
+    }
+}
@@ -0,0 +1,93 @@
+package hu.vissy.texttable.wiki.guide;
+
+import java.util.Arrays;
+import java.util.List;
+
+import hu.vissy.texttable.BorderFormatter;
+import hu.vissy.texttable.BorderFormatter.DefaultFormatters;
+import hu.vissy.texttable.TableFormatter;
+import hu.vissy.texttable.aggregation.DoubleAggregator;
+import hu.vissy.texttable.column.ColumnDefinition;
+import hu.vissy.texttable.contentformatter.CellContentFormatter;
+import hu.vissy.texttable.dataconverter.NumberDataConverter;
+import hu.vissy.texttable.dataextractor.StatefulDataExtractor;
+
+public class ExampleGroupBy {
+
+    private static class GroupByDemoRecord {
+        private String fruit;
+        private int quarter;
+        private double quantity;
+
+        public GroupByDemoRecord(String fruit, int quarter, double quantity) {
+            super();
+            this.fruit = fruit;
+            this.quarter = quarter;
+            this.quantity = quantity;
+        }
+
+        public String getFruit() {
+            return fruit;
+        }
+
+        public int getQuarter() {
+            return quarter;
+        }
+
+        public double getQuantity() {
+            return quantity;
+        }
+    }
+
+    private static class LastFruit {
+        public String fruit;
+    }
+
+    private enum GroupByDemoAggrRowId {
+        FRUIT_TOTAL
+    }
+
+
+    public static void main(String[] args) {
+        TableFormatter<GroupByDemoRecord> formatter = new TableFormatter.Builder<GroupByDemoRecord>()
+                .withHeading("Group by demo")
+                .withBorderFormatter(new BorderFormatter.Builder(DefaultFormatters.ASCII_LINEDRAW_DOUBLE).build())
+                .withShowAggregation(true)
+                .withGroupBy(GroupByDemoRecord::getFruit, GroupByDemoAggrRowId.FRUIT_TOTAL)
+                .withColumn(new ColumnDefinition.StatefulBuilder<GroupByDemoRecord, LastFruit, String>()
+                        .withTitle("Fruit")
+                        .withAggregateRowConstant("GRAND TOTAL")
+                        .withDataExtractor(new StatefulDataExtractor<>(
+                                (o, s) -> {
+                                    s.fruit = o.getFruit();
+                                    return o.getFruit();
+                                },
+                                () -> new LastFruit(),
+                                (k, s) -> s.fruit + " total"))
+                        .withCellContentFormatter(new CellContentFormatter.Builder().withMinWidth(8).build())
+                        .build())
+                .withColumn(new ColumnDefinition.StatelessBuilder<GroupByDemoRecord, Integer>()
+                        .withTitle("Quarter")
+                        .withDataExtractor(o -> o.getQuarter())
+                        .withCellContentFormatter(CellContentFormatter.rightAlignedCell())
+                        .build())
+                .withColumn(new ColumnDefinition.StatefulBuilder<GroupByDemoRecord, DoubleAggregator.State, Double>()
+                        .withTitle("Quantity")
+                        .withCellContentFormatter(CellContentFormatter.rightAlignedCell())
+                        .withDataConverter(NumberDataConverter.defaultDoubleFormatter())
+                        .withDataExtractor(DoubleAggregator.sum(GroupByDemoRecord::getQuantity))
+                        .build())
+                .build();
+
+        List<GroupByDemoRecord> data = Arrays.asList(
+                new GroupByDemoRecord("apple", 1, 120.5d),
+                new GroupByDemoRecord("apple", 2, 50.5d),
+                new GroupByDemoRecord("apple", 3, 100d),
+                new GroupByDemoRecord("apple", 4, 34d),
+                new GroupByDemoRecord("banana", 1, 20.119d),
+                new GroupByDemoRecord("banana", 3, 10d));
+
+        String s = formatter.apply(data);
+        System.out.println(s);
+    }
+}